@@ -0,0 +1,75 @@
+package WampusWorld;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import static WampusWorld.WampusWorldCore.PerceptionType;
+import static WampusWorld.WampusWorldCore.WampusWorld;
+
+
+// оновлення бази знань навігатора вздовж наперед обчисленої траєкторії: кожна клітинка
+// відвідується вперше зі своїми справжніми сприйняттями, тож кожен виклик додає нові правила
+// і запускає виведення. навігатор створюється заново перед кожним проходом траєкторії.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class KnowledgeBaseBenchmark {
+    // кількість клітинок траєкторії (операцій за один виклик бенчмарку)
+    private static final int TRAJECTORY_LENGTH = 8;
+
+    @Param({"4", "16", "64", "256"})
+    public int gridSize;
+
+    private final int[] trajectoryX = new int[TRAJECTORY_LENGTH];
+    private final int[] trajectoryY = new int[TRAJECTORY_LENGTH];
+    private final List<Set<PerceptionType>> trajectoryPerceptions = new ArrayList<>();
+    private Navigator navigator;
+
+    // змійка по кутовому блоку 4x4 світу з фіксованим зерном в обхід ям і Вампуса.
+    @Setup(Level.Trial)
+    public void buildTrajectory() {
+        for (long seed = 42; trajectoryPerceptions.size() < TRAJECTORY_LENGTH; seed++) {
+            WampusWorld world = new WampusWorld(gridSize, seed, false);
+            trajectoryPerceptions.clear();
+            for (int y = 0; y < 4 && trajectoryPerceptions.size() < TRAJECTORY_LENGTH; y++) {
+                for (int i = 0; i < 4 && trajectoryPerceptions.size() < TRAJECTORY_LENGTH; i++) {
+                    int x = y % 2 == 0 ? i : 3 - i;
+                    if (world.hasPit(x, y) || world.hasWampus(x, y)) continue;
+                    trajectoryX[trajectoryPerceptions.size()] = x;
+                    trajectoryY[trajectoryPerceptions.size()] = y;
+                    trajectoryPerceptions.add(world.getPerceptions(x, y));
+                }
+            }
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void resetNavigator() {
+        navigator = new Navigator(gridSize);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TRAJECTORY_LENGTH)
+    public Navigator updateKnowledgeBase() {
+        for (int i = 0; i < TRAJECTORY_LENGTH; i++) {
+            navigator.updateKnowledgeBase(trajectoryPerceptions.get(i), trajectoryX[i], trajectoryY[i]);
+        }
+        return navigator;
+    }
+}
@@ -0,0 +1,49 @@
+package WampusWorld;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import static WampusWorld.WampusWorldCore.Action;
+import static WampusWorld.WampusWorldCore.PerceptionType;
+
+
+// розбір сприйнять навігатором та вибір наступної дії
+// (оновлення бази знань - у KnowledgeBaseBenchmark).
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class NavigatorBenchmark {
+    @Param({"4", "16", "64", "256"})
+    public int gridSize;
+
+    private Navigator navigator;
+    private final String perceptionMessage = "it smells awful here. i feel breeze here. i see glitter.";
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        navigator = new Navigator(gridSize);
+    }
+
+    @Benchmark
+    public Set<PerceptionType> parsePerceptionMessage() {
+        return NavigatorAgent.parsePerceptionMessage(perceptionMessage);
+    }
+
+    @Benchmark
+    public Action decideNextAction() {
+        return navigator.decideNextAction();
+    }
+}
@@ -0,0 +1,45 @@
+package WampusWorld;
+import java.util.EnumSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import static WampusWorld.WampusWorldCore.Action;
+import static WampusWorld.WampusWorldCore.PerceptionType;
+
+
+// кодування та розбір текстового вмісту повідомлень між агентами.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ProtocolBenchmark {
+    private final Set<PerceptionType> perceptions = EnumSet.of(PerceptionType.STENCH, PerceptionType.BREEZE, PerceptionType.GLITTER);
+    private final Random random = new Random(42);
+    private final String actionMessage = "Рухатися вперед";
+
+    @Benchmark
+    public String explorerGeneratePerceptionMessage() {
+        return ExplorerAgent.generatePerceptionMessage(perceptions, random);
+    }
+
+    @Benchmark
+    public Action explorerParseActionMessage() {
+        return ExplorerAgent.parseActionMessage(actionMessage);
+    }
+
+    @Benchmark
+    public String environmentGeneratePerceptionMessage() {
+        return GameEngine.formatPerceptions(perceptions);
+    }
+}
@@ -0,0 +1,46 @@
+package WampusWorld;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import static WampusWorld.WampusWorldCore.WampusWorld;
+
+
+// побудова світу Вампуса та повний перерахунок сприйнять для різних розмірів сітки.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WorldBenchmark {
+    @Param({"4", "16", "64", "256"})
+    public int gridSize;
+
+    private WampusWorld world;
+    private long seed;
+
+    @Setup
+    public void setup() {
+        world = new WampusWorld(gridSize, 42L, false);
+    }
+
+    @Benchmark
+    public WampusWorld construct() {
+        return new WampusWorld(gridSize, seed++, false);
+    }
+
+    @Benchmark
+    public WampusWorld updatePerceptions() {
+        world.updatePerceptions();
+        return world;
+    }
+}
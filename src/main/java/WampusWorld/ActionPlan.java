@@ -0,0 +1,80 @@
+package WampusWorld;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import static WampusWorld.WampusWorldCore.PerceptionType;
+import static WampusWorld.WampusWorldCore.Action;
+
+
+// план навігатора з кількох дій поспіль. після кожної дії, крім останньої, відомі сприйняття,
+// які має повернути середовище (дії по вже відвіданих клітинках); середовище виконує план
+// пакетом і зупиняється на першій дії, після якої сприйняття відрізняються від очікуваних.
+// текстовий вигляд (онтологія "wampus-plan"): "TURN_LEFT:SAFE,FORWARD:STENCH;BREEZE,FORWARD".
+public class ActionPlan {
+    public static final String ONTOLOGY = "wampus-plan";
+
+    private final List<Action> actions = new ArrayList<>();
+    private final List<Set<PerceptionType>> expected = new ArrayList<>(); // сприйняття після дій 0..size-2
+
+    // додає дію до плану.
+    // @param action дія.
+    // @param expectedPerceptions сприйняття після дії або null для останньої дії плану.
+    public void add(Action action, Set<PerceptionType> expectedPerceptions) {
+        if (!actions.isEmpty() && expected.size() < actions.size()) {
+            throw new IllegalArgumentException("Після дії без очікуваних сприйнять план завершується");
+        }
+        actions.add(action);
+        if (expectedPerceptions != null) {
+            expected.add(expectedPerceptions);
+        }
+    }
+
+    public int size() { return actions.size(); }
+    public Action getAction(int index) { return actions.get(index); }
+    public List<Action> getActions() { return Collections.unmodifiableList(actions); }
+
+    // @return очікувані сприйняття після дії або null, якщо після неї план не продовжується.
+    public Set<PerceptionType> getExpected(int index) {
+        return index < expected.size() ? expected.get(index) : null;
+    }
+
+    // чи збігаються сприйняття середовища з очікуваними (SAFE означає відсутність інших сприйнять).
+    // @param index номер виконаної дії.
+    // @param actual сприйняття, які повернуло середовище.
+    // @return true, якщо план можна продовжувати.
+    public boolean matches(int index, Set<PerceptionType> actual) {
+        Set<PerceptionType> wanted = getExpected(index);
+        return wanted != null && GameEngine.formatPerceptions(wanted).equals(GameEngine.formatPerceptions(actual));
+    }
+
+    // @return текстовий вигляд плану.
+    public String format() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < actions.size(); i++) {
+            if (i > 0) sb.append(',');
+            sb.append(actions.get(i).name());
+            if (i < expected.size()) {
+                sb.append(':').append(GameEngine.formatPerceptions(expected.get(i)));
+            }
+        }
+        return sb.toString();
+    }
+
+    // розбір текстового вигляду плану.
+    // @param content рядок на зразок "TURN_LEFT:SAFE,FORWARD".
+    // @return план.
+    // @throws IllegalArgumentException якщо дія невідома або очікування стоїть після кінця плану.
+    public static ActionPlan parse(String content) {
+        ActionPlan plan = new ActionPlan();
+        if (content == null || content.trim().isEmpty()) {
+            throw new IllegalArgumentException("Порожній план");
+        }
+        for (String step : content.split(",")) {
+            int colon = step.indexOf(':');
+            Action action = Action.valueOf((colon < 0 ? step : step.substring(0, colon)).trim().toUpperCase());
+            plan.add(action, colon < 0 ? null : ExplorerAgent.parsePerceptionString(step.substring(colon + 1)));
+        }
+        return plan;
+    }
+}
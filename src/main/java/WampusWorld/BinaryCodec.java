@@ -0,0 +1,83 @@
+package WampusWorld;
+import jade.lang.acl.ACLMessage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import static WampusWorld.WampusWorldCore.PerceptionType;
+import static WampusWorld.WampusWorldCore.Action;
+
+
+// компактний вміст ACL-повідомлень (мова "wampus-binary"): сприйняття - один байт-маска
+// (біт 1 << ordinal для кожного PerceptionType), дія - один байт з ordinal дії.
+// усі 64 набори сприйнять і байтові масиви створюються наперед, тому кодування і розбір
+// не виділяють пам'яті. агенти, що не вказали цю мову, обмінюються текстом, як раніше.
+public final class BinaryCodec {
+    public static final String LANGUAGE = "wampus-binary";
+
+    private static final PerceptionType[] PERCEPTIONS = PerceptionType.values();
+    private static final Action[] ACTIONS = Action.values();
+    private static final int MASKS = 1 << PERCEPTIONS.length;
+    private static final List<Set<PerceptionType>> PERCEPTION_SETS = newPerceptionSets();
+    private static final byte[][] PERCEPTION_BYTES = new byte[MASKS][];
+    private static final byte[][] ACTION_BYTES = new byte[ACTIONS.length][];
+    static {
+        for (int mask = 0; mask < MASKS; mask++) {
+            PERCEPTION_BYTES[mask] = new byte[] {(byte) mask};
+        }
+        for (int i = 0; i < ACTIONS.length; i++) {
+            ACTION_BYTES[i] = new byte[] {(byte) i};
+        }
+    }
+
+    private BinaryCodec() {
+    }
+
+    private static List<Set<PerceptionType>> newPerceptionSets() {
+        List<Set<PerceptionType>> sets = new ArrayList<>(MASKS);
+        for (int mask = 0; mask < MASKS; mask++) {
+            Set<PerceptionType> set = EnumSet.noneOf(PerceptionType.class);
+            for (PerceptionType type : PERCEPTIONS) {
+                if ((mask & (1 << type.ordinal())) != 0) set.add(type);
+            }
+            sets.add(Collections.unmodifiableSet(set));
+        }
+        return sets;
+    }
+
+    // чи узгоджено двійковий формат для повідомлення.
+    public static boolean isBinary(ACLMessage msg) {
+        return LANGUAGE.equals(msg.getLanguage());
+    }
+
+    // @return спільний незмінний масив з одного байта (не змінювати).
+    public static byte[] encodePerceptions(Set<PerceptionType> perceptions) {
+        int mask = 0;
+        for (PerceptionType type : PERCEPTIONS) {
+            if (perceptions.contains(type)) mask |= 1 << type.ordinal();
+        }
+        return PERCEPTION_BYTES[mask];
+    }
+
+    // @return спільний незмінний набір сприйнять або null, якщо вміст некоректний.
+    public static Set<PerceptionType> decodePerceptions(byte[] content) {
+        if (content == null || content.length != 1 || (content[0] & 0xFF) >= MASKS) {
+            return null;
+        }
+        return PERCEPTION_SETS.get(content[0]);
+    }
+
+    // @return спільний незмінний масив з одного байта (не змінювати).
+    public static byte[] encodeAction(Action action) {
+        return ACTION_BYTES[action.ordinal()];
+    }
+
+    // @return дія або null, якщо вміст некоректний.
+    public static Action decodeAction(byte[] content) {
+        if (content == null || content.length != 1 || (content[0] & 0xFF) >= ACTIONS.length) {
+            return null;
+        }
+        return ACTIONS[content[0]];
+    }
+}
@@ -0,0 +1,218 @@
+package WampusWorld;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import static WampusWorld.WampusWorldCore.Cave;
+import static WampusWorld.WampusWorldCore.PerceptionType;
+
+
+// світ Вампуса для дуже великих печер. карта ділиться на фрагменти 64x64 кімнати,
+// кожен фрагмент генерується із зерна світу лише при першому зверненні до нього
+// і зберігає ями як 64 слова long (по одному на рядок). Вампуси і золото (їх мало)
+// розміщуються одразу вибіркою O(k) і зберігаються як множини індексів кімнат.
+// запах і вітер обчислюються з сусідніх кімнат при читанні, тому пам'ять і час старту
+// залежать від дослідженої частини печери, а не від її площі.
+public class ChunkedWampusWorld implements Cave {
+    public static final int CHUNK_BITS = 6;
+    public static final int CHUNK_SIZE = 1 << CHUNK_BITS; // 64x64 кімнати, рядок фрагмента = одне слово long
+
+    // один фрагмент печери.
+    private static class Chunk {
+        private final long[] pitRows = new long[CHUNK_SIZE]; // біт x рядка y - яма у кімнаті фрагмента
+        private long[] exploredRows; // створюється при першому дослідженні кімнати фрагмента
+    }
+
+    private final int size;
+    private final long seed;
+    private final double pitDensity;
+    private final long chunksPerSide;
+    private final boolean verbose;
+    private final Map<Long, Chunk> chunks = new HashMap<>(); // згенеровані фрагменти за індексом
+    private final Set<Long> wampusCells = new HashSet<>(); // початкові позиції Вампусів (для генерації ям)
+    private final Set<Long> liveWampuses = new HashSet<>(); // живі Вампуси
+    private final Set<Long> goldCells = new HashSet<>(); // золото, яке ще не підняли
+
+    // @param size розмір світу.
+    // @param wampusCount кількість Вампусів.
+    // @param goldCount кількість злитків золота.
+    // @param pitDensity частка ям серед кімнат кожного фрагмента.
+    // @param seed зерно світу: визначає і Вампусів із золотом, і вміст кожного фрагмента.
+    // @param verbose чи друкувати розміщення об'єктів.
+    public ChunkedWampusWorld(int size, int wampusCount, int goldCount, double pitDensity, long seed, boolean verbose) {
+        if (size < 2) {
+            throw new IllegalArgumentException("Розмір світу має бути не менше 2: " + size);
+        }
+        WampusWorldCore.checkObjectCounts(size, wampusCount, goldCount);
+        this.size = size;
+        this.seed = seed;
+        this.pitDensity = pitDensity;
+        this.chunksPerSide = (size + CHUNK_SIZE - 1) >>> CHUNK_BITS;
+        this.verbose = verbose;
+
+        Random rand = new Random(seed);
+        placeUnique(wampusCells, wampusCount, rand);
+        placeUnique(goldCells, goldCount, rand);
+        liveWampuses.addAll(wampusCells);
+        if (verbose) {
+            System.out.println("Світ " + size + "x" + size + " (фрагменти " + CHUNK_SIZE + "x" + CHUNK_SIZE + "): Вампусів "
+                    + wampusCount + ", золота " + goldCount + ", частка ям " + pitDensity + " (seed=" + seed + ")");
+            if (wampusCount + goldCount <= WampusWorldCore.MAX_PRINTED_OBJECTS) {
+                for (long cell : wampusCells) System.out.println("Вампус розміщено у (" + cell % size + ", " + cell / size + ")");
+                for (long cell : goldCells) System.out.println("Золото розміщено у (" + cell % size + ", " + cell / size + ")");
+            }
+        }
+    }
+
+    // вибірка count різних вільних кімнат (не (0,0) і не зайнятих Вампусом чи золотом).
+    private void placeUnique(Set<Long> target, int count, Random rand) {
+        for (int i = 0; i < count; i++) {
+            long cell;
+            do {
+                cell = rand.nextLong(1, (long) size * size);
+            } while (wampusCells.contains(cell) || goldCells.contains(cell) || target.contains(cell));
+            target.add(cell);
+        }
+    }
+
+    private long cellIndex(int x, int y) {
+        return (long) y * size + x;
+    }
+
+    // фрагмент, що містить кімнату (x, y); генерується при першому зверненні.
+    private Chunk chunkAt(int x, int y) {
+        long chunkX = x >>> CHUNK_BITS;
+        long chunkY = y >>> CHUNK_BITS;
+        return chunks.computeIfAbsent(chunkY * chunksPerSide + chunkX, key -> generateChunk(chunkX, chunkY, key));
+    }
+
+    // генерація ям фрагмента вибіркою O(k): кількість ям - частка pitDensity від кімнат фрагмента
+    // з випадковим округленням, позиції обираються з відкиданням зайнятих кімнат.
+    // результат залежить лише від зерна світу та індексу фрагмента, а не від порядку звернень.
+    private Chunk generateChunk(long chunkX, long chunkY, long key) {
+        Chunk chunk = new Chunk();
+        Random rand = new Random(mix(seed ^ key * 0x9E3779B97F4A7C15L));
+        int originX = (int) (chunkX << CHUNK_BITS);
+        int originY = (int) (chunkY << CHUNK_BITS);
+        int width = Math.min(CHUNK_SIZE, size - originX);
+        int height = Math.min(CHUNK_SIZE, size - originY);
+
+        int reserved = 0; // кімнати, де ями бути не може: (0,0), Вампуси, золото
+        if (originX == 0 && originY == 0) reserved++;
+        for (long cell : wampusCells) if (isInChunk(cell, originX, originY, width, height)) reserved++;
+        for (long cell : goldCells) if (isInChunk(cell, originX, originY, width, height)) reserved++;
+
+        double expected = pitDensity * ((double) width * height - reserved);
+        int pits = (int) expected;
+        if (rand.nextDouble() < expected - pits) pits++;
+        pits = Math.min(pits, width * height - reserved);
+
+        for (int i = 0; i < pits; i++) {
+            while (true) {
+                int dx = rand.nextInt(width);
+                int dy = rand.nextInt(height);
+                int x = originX + dx;
+                int y = originY + dy;
+                long bit = 1L << dx;
+                if ((chunk.pitRows[dy] & bit) != 0 || (x == 0 && y == 0)) continue;
+                long cell = cellIndex(x, y);
+                if (wampusCells.contains(cell) || goldCells.contains(cell)) continue;
+                chunk.pitRows[dy] |= bit;
+                break;
+            }
+        }
+        return chunk;
+    }
+
+    private boolean isInChunk(long cell, int originX, int originY, int width, int height) {
+        long x = cell % size;
+        long y = cell / size;
+        return x >= originX && x < originX + width && y >= originY && y < originY + height;
+    }
+
+    // перемішування бітів зерна (фіналізатор SplitMix64), щоб сусідні фрагменти мали незалежні генератори.
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // кількість згенерованих фрагментів (для оцінки використаної пам'яті).
+    public int getLoadedChunkCount() {
+        return chunks.size();
+    }
+
+    public int getSize() { return size; }
+    public long getSeed() { return seed; }
+
+    public boolean isInside(int x, int y) {
+        return x >= 0 && x < size && y >= 0 && y < size;
+    }
+
+    public boolean hasPit(int x, int y) {
+        return (chunkAt(x, y).pitRows[y & (CHUNK_SIZE - 1)] & (1L << x)) != 0;
+    }
+
+    public boolean hasWampus(int x, int y) {
+        return liveWampuses.contains(cellIndex(x, y));
+    }
+
+    public boolean hasGold(int x, int y) {
+        return goldCells.contains(cellIndex(x, y));
+    }
+
+    public boolean hasStench(int x, int y) {
+        if (liveWampuses.isEmpty()) return false;
+        return (y > 0 && hasWampus(x, y - 1)) || (y + 1 < size && hasWampus(x, y + 1))
+                || (x > 0 && hasWampus(x - 1, y)) || (x + 1 < size && hasWampus(x + 1, y));
+    }
+
+    public boolean hasBreeze(int x, int y) {
+        return (y > 0 && hasPit(x, y - 1)) || (y + 1 < size && hasPit(x, y + 1))
+                || (x > 0 && hasPit(x - 1, y)) || (x + 1 < size && hasPit(x + 1, y));
+    }
+
+    public boolean isExplored(int x, int y) {
+        long[] rows = chunkAt(x, y).exploredRows;
+        return rows != null && (rows[y & (CHUNK_SIZE - 1)] & (1L << x)) != 0;
+    }
+
+    public void setExplored(int x, int y, boolean value) {
+        Chunk chunk = chunkAt(x, y);
+        if (chunk.exploredRows == null) {
+            if (!value) return;
+            chunk.exploredRows = new long[CHUNK_SIZE];
+        }
+        if (value) {
+            chunk.exploredRows[y & (CHUNK_SIZE - 1)] |= 1L << x;
+        } else {
+            chunk.exploredRows[y & (CHUNK_SIZE - 1)] &= ~(1L << x);
+        }
+    }
+
+    public void setHasGold(int x, int y, boolean value) {
+        if (value) {
+            goldCells.add(cellIndex(x, y));
+        } else {
+            goldCells.remove(cellIndex(x, y));
+        }
+    }
+
+    public boolean killWampus(int x, int y) {
+        return isInside(x, y) && liveWampuses.remove(cellIndex(x, y));
+    }
+
+    public boolean isWampusAlive() {
+        return !liveWampuses.isEmpty();
+    }
+
+    public Set<PerceptionType> getPerceptions(int x, int y) {
+        Set<PerceptionType> perceptions = EnumSet.noneOf(PerceptionType.class);
+        if (hasStench(x, y)) perceptions.add(PerceptionType.STENCH);
+        if (hasBreeze(x, y)) perceptions.add(PerceptionType.BREEZE);
+        if (hasGold(x, y)) perceptions.add(PerceptionType.GLITTER);
+        return perceptions;
+    }
+}
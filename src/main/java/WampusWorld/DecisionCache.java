@@ -0,0 +1,51 @@
+package WampusWorld;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import static WampusWorld.WampusWorldCore.Action;
+
+
+// обмежений кеш рішень навігатора за хешем Зобріста його стану, спільний для всіх сесій.
+// таблиця фіксованого розміру 2^bits слів long без блокувань: слово містить старші біти хешу
+// (для перевірки збігу) і номер дії в трьох молодших бітах. новий запис заміщує старий у тій
+// самій комірці, тому пам'ять не росте, а повторні стани (у тій самій грі чи в різних іграх)
+// отримують дію без планування. навігатор кешує лише рішення, що є функцією стану з хешу
+// (режим планувальника з плоским пошуком), тому вміст кешу не залежить від порядку ігор і потоків.
+public class DecisionCache {
+    private static final Action[] ACTIONS = Action.values();
+    private static final long ACTION_MASK = 7L;
+
+    private final AtomicLongArray entries;
+    private final int shift;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    // @param bits логарифм кількості комірок (наприклад, 20 - близько мільйона записів, 8 МБ).
+    public DecisionCache(int bits) {
+        if (bits < 1 || bits > 30) {
+            throw new IllegalArgumentException("Розмір кешу рішень має бути від 1 до 30 біт: " + bits);
+        }
+        this.entries = new AtomicLongArray(1 << bits);
+        this.shift = 64 - bits;
+    }
+
+    // @param hash хеш стану навігатора.
+    // @return збережена дія або null.
+    public Action get(long hash) {
+        long entry = entries.get((int) (hash >>> shift));
+        if (entry != 0 && (entry & ~ACTION_MASK) == (hash & ~ACTION_MASK)) {
+            hits.increment();
+            return ACTIONS[(int) (entry & ACTION_MASK) - 1];
+        }
+        misses.increment();
+        return null;
+    }
+
+    // @param hash хеш стану навігатора.
+    // @param action рішення для цього стану.
+    public void put(long hash, Action action) {
+        entries.set((int) (hash >>> shift), (hash & ~ACTION_MASK) | (action.ordinal() + 1));
+    }
+
+    public long getHits() { return hits.sum(); }
+    public long getMisses() { return misses.sum(); }
+}
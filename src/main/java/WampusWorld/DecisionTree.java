@@ -0,0 +1,102 @@
+package WampusWorld;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import static WampusWorld.WampusWorldCore.PerceptionType;
+import static WampusWorld.WampusWorldCore.Action;
+import static WampusWorld.WampusWorldCore.PlannerType;
+
+
+// дерево рішень навігатора на один хід наперед (онтологія "wampus-tree"): дія та наступна дія
+// для кожного можливого набору сприйнять після неї. спелеолог обирає наступну дію сам, щойно
+// середовище поверне сприйняття, а навігатор отримує їх паралельно і вже має готовий стан
+// для обраної гілки. текстовий вигляд: "FORWARD|SAFE=FORWARD|BREEZE=TURN_LEFT|STENCH;BREEZE=TURN_RIGHT".
+public class DecisionTree {
+    public static final String ONTOLOGY = "wampus-tree";
+    // найбільший світ, для якого дерево має гілки: кожна гілка - повна копія навігатора
+    // (карта знань, база знань, планувальник), тож її вартість росте з площею світу.
+    public static final int MAX_BRANCHING_GRID_SIZE = 64;
+
+    private final Action root;
+    private final Map<String, Action> branches = new LinkedHashMap<>(); // за рядком сприйнять GameEngine.formatPerceptions
+    // лише на боці навігатора: стан до сприйнять після root і стани після кожної гілки
+    private final Navigator base;
+    private final Map<String, Navigator> successors = new LinkedHashMap<>();
+
+    private DecisionTree(Action root, Navigator base) {
+        this.root = root;
+        this.base = base;
+    }
+
+    // міркування наперед: для кожного можливого результату root копія навігатора
+    // оновлює знання і обирає наступну дію. бюджет часу ходу ділиться між гілками,
+    // тому дерево будується не довше за звичайне рішення. гілки будуються лише для невеликих світів
+    // з плоским планувальником: ієрархічний та інкрементний планувальники копіюються разом зі своїми
+    // структурами, тому для них (і для великих карт) дерево складається з самого root, а наступну
+    // дію спелеолог запитує звичайним порядком після сприйнять.
+    // @param navigator навігатор, до стану якого root уже застосовано (не змінюється).
+    // @param root дія, яку виконує спелеолог.
+    // @return дерево з гілками для всіх можливих сприйнять або без гілок.
+    public static DecisionTree grow(Navigator navigator, Action root) {
+        DecisionTree tree = new DecisionTree(root, navigator);
+        if (navigator.getGridSize() > MAX_BRANCHING_GRID_SIZE || navigator.getPlannerType() != PlannerType.FLAT) {
+            return tree;
+        }
+        List<Set<PerceptionType>> outcomes = navigator.plausibleOutcomes(root);
+        for (Set<PerceptionType> outcome : outcomes) {
+            Navigator successor = navigator.copy();
+            successor.setVerbose(false); // міркування для гілок, які не буде обрано, не друкуються
+            String key = GameEngine.formatPerceptions(outcome);
+            tree.branches.put(key, successor.nextAction(outcome, outcomes.size()));
+            tree.successors.put(key, successor);
+        }
+        return tree;
+    }
+
+    public Action getRoot() { return root; }
+
+    // навігатор у стані після root, ще без сприйнять (для результату, якого немає в дереві).
+    public Navigator getBase() { return base; }
+
+    // @param key рядок сприйнять (GameEngine.formatPerceptions).
+    // @return навігатор після дії гілки або null.
+    public Navigator getSuccessor(String key) {
+        return successors.get(key);
+    }
+
+    // @return дія для сприйнять або null, якщо такого результату в дереві немає.
+    public Action branch(Set<PerceptionType> perceptions) {
+        return branches.get(GameEngine.formatPerceptions(perceptions));
+    }
+
+    // @param key рядок сприйнять (GameEngine.formatPerceptions).
+    public Action getBranch(String key) {
+        return branches.get(key);
+    }
+
+    // @return текстовий вигляд дерева.
+    public String format() {
+        StringBuilder sb = new StringBuilder(root.name());
+        for (Map.Entry<String, Action> entry : branches.entrySet()) {
+            sb.append('|').append(entry.getKey()).append('=').append(entry.getValue().name());
+        }
+        return sb.toString();
+    }
+
+    // розбір текстового вигляду дерева (без станів навігатора).
+    // @throws IllegalArgumentException якщо дія невідома або гілка некоректна.
+    public static DecisionTree parse(String content) {
+        String[] parts = content.trim().split("\\|");
+        DecisionTree tree = new DecisionTree(Action.valueOf(parts[0].trim().toUpperCase()), null);
+        for (int i = 1; i < parts.length; i++) {
+            int eq = parts[i].indexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("Некоректна гілка дерева: " + parts[i]);
+            }
+            Set<PerceptionType> perceptions = ExplorerAgent.parsePerceptionString(parts[i].substring(0, eq));
+            tree.branches.put(GameEngine.formatPerceptions(perceptions), Action.valueOf(parts[i].substring(eq + 1).trim().toUpperCase()));
+        }
+        return tree;
+    }
+}
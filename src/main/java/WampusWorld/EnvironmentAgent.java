@@ -2,42 +2,81 @@ package WampusWorld;
 import jade.core.Agent;
 import jade.core.AID;
 import jade.core.behaviours.CyclicBehaviour;
+import jade.core.behaviours.TickerBehaviour;
 import jade.lang.acl.ACLMessage;
 import jade.lang.acl.MessageTemplate;
 import jade.domain.DFService;
 import jade.domain.FIPAException;
 import jade.domain.FIPAAgentManagement.DFAgentDescription;
 import jade.domain.FIPAAgentManagement.ServiceDescription;
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
 import java.util.Set;
-import static WampusWorld.WampusWorldCore.WampusWorld;
-import static WampusWorld.WampusWorldCore.Direction;
 import static WampusWorld.WampusWorldCore.PerceptionType;
 import static WampusWorld.WampusWorldCore.Action;
-import static WampusWorld.WampusWorldCore.Room;
 import WampusWorld.AgentState;
 
 
 // агент-середовище, відповідає за моделювання світу Вампуса,
-// управління станом спелеолога та обробку його дій.
+// управління станом спелеологів та обробку їхніх дій.
+// одночасно обслуговує багато ігор: кожна сесія (conversation-id або AID спелеолога)
+// має власний світ, стан спелеолога, лічильник ходів і таймери. агент не завершує роботу
+// після гри, а лише закриває відповідну сесію.
 public class EnvironmentAgent extends Agent {
-    private WampusWorld wampusWorld; // екземпляр світу Вампуса
-    private AgentState explorerState; // поточний стан спелеолога
-    private AID explorerAID; // ідентифікатор агента-спелеолога
-    private long initialTime; // для відстеження часу виконання задачі
-    private int currentTurn; // лічильник ходів
-    private boolean gameOver = false; // флаг завершення гри
+    private static final long DEFAULT_SESSION_TIMEOUT_MS = 5 * 60 * 1000; // час бездіяльності до закриття сесії
+    private static final int MAX_CLOSED_SESSIONS = 10_000; // скільки закритих conversation-id пам'ятати
+    // пряма маршрутизація: сприйняття "STENCH;BREEZE" надсилаються навігатору, вказаному спелеологом у reply-to
+    static final String PERCEPTION_ONTOLOGY = "wampus-perception";
+
+    private final Map<String, GameSession> sessions = new HashMap<>(); // активні ігри за ключем сесії
+    // закриті сесії (conversation-id -> результат): запізнілі повідомлення отримують відмову,
+    // а не починають нову гру; найдавніші записи забуваються
+    private final Map<String, String> closedSessions = new LinkedHashMap<String, String>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > MAX_CLOSED_SESSIONS;
+        }
+    };
+    private GameConfig config; // параметри гри з аргументів агента
+    private Random seedSource; // джерело зерен для світів нових сесій
+    private long sessionCounter = 0; // кількість створених сесій (для зерен seed+N)
+    private long sessionTimeoutMs;
+    private boolean verbose; // чи друкувати перебіг ігор і карту після кожного ходу
+
+    // стан однієї гри, яку веде середовище.
+    private static class GameSession {
+        private final String key; // ключ сесії (conversation-id або ім'я спелеолога)
+        private final GameEngine engine; // правила гри та стан світу і спелеолога
+        private final AID explorerAID; // ідентифікатор агента-спелеолога
+        private final boolean byConversation; // ключ - conversation-id (а не ім'я спелеолога)
+        private int currentTurn; // лічильник ходів (повідомлень)
+        private long lastActivity; // час останнього повідомлення сесії
+
+        GameSession(String key, GameEngine engine, AID explorerAID, boolean byConversation) {
+            this.key = key;
+            this.engine = engine;
+            this.explorerAID = explorerAID;
+            this.byConversation = byConversation;
+            this.lastActivity = System.currentTimeMillis();
+        }
+    }
 
     @Override
     protected void setup() {
         System.out.println("Агент-середовище " + getAID().getName() + " запущений.");
 
-        // ініціалізація світу Вампуса (розмір 4х4)
-        wampusWorld = new WampusWorld(4);
-        // ініціалізація стану спелеолога (починає в (0,0), дивиться на схід)
-        explorerState = new AgentState(0, 0, Direction.EAST);
-        initialTime = System.currentTimeMillis();
-        currentTurn = 0;
+        // зерно першого світу береться з аргументів агента (seed=...), наступні сесії
+        // отримують seed+1, seed+2, ...; без аргументу зерна обираються випадково
+        // і друкуються для кожної сесії, щоб гру можна було відтворити
+        config = GameConfig.fromArguments(getArguments());
+        seedSource = new Random();
+        sessionTimeoutMs = config.getLong("sessiontimeout", DEFAULT_SESSION_TIMEOUT_MS);
+        verbose = config.getBoolean("verbose", true);
+        System.out.println("Середовище: світ " + config.getGridSize() + "x" + config.getGridSize() + ", " + config);
 
         // реєстрація послуги в DF (жовті сторінки)
         DFAgentDescription dfd = new DFAgentDescription();
@@ -54,10 +93,17 @@ public class EnvironmentAgent extends Agent {
             System.err.println("Середовище: помилка реєстрації в DF: " + fe.getMessage());
         }
 
-        // додавання поведінки для прийому повідомлень від спелеолога (тепер обробляє і REQUEST, і CFP)
+        // додавання поведінки для прийому повідомлень від спелеологів (обробляє і REQUEST, і CFP)
         addBehaviour(new ReceiveExplorerActionBehaviour());
+        // закриття сесій, спелеологи яких перестали відповідати
+        addBehaviour(new TickerBehaviour(this, Math.max(1000, sessionTimeoutMs / 2)) {
+            @Override
+            protected void onTick() {
+                evictIdleSessions();
+            }
+        });
 
-        System.out.println("Середовище: готове до прийому першого запиту від спелеолога.");
+        System.out.println("Середовище: готове до прийому запитів від спелеологів.");
     }
 
     @Override
@@ -72,8 +118,44 @@ public class EnvironmentAgent extends Agent {
         System.out.println("Агент-середовище " + getAID().getName() + " завершив роботу.");
     }
 
-    // внутрішня циклічна поведінка для прийому повідомлень від агента-спелеолога
-    // та обробки його дій або запитів на стан.
+    // ключ сесії: conversation-id повідомлення, або ім'я відправника, якщо його не задано.
+    // @param msg повідомлення спелеолога.
+    // @return ключ сесії.
+    static String sessionKey(ACLMessage msg) {
+        String conversationId = msg.getConversationId();
+        if (conversationId != null && !conversationId.isEmpty()) {
+            return conversationId;
+        }
+        return msg.getSender().getName();
+    }
+
+    // пошук сесії за повідомленням або створення нової гри для нового спелеолога.
+    // @return сесія або null, якщо розмову з цим conversation-id уже закрито.
+    private GameSession sessionFor(ACLMessage msg) {
+        String key = sessionKey(msg);
+        GameSession session = sessions.get(key);
+        if (session == null) {
+            if (closedSessions.containsKey(key)) {
+                return null;
+            }
+            long seed = config.hasSeed() ? config.getSeed(0) + sessionCounter++ : seedSource.nextLong();
+            // ініціалізація світу Вампуса (розмір з аргументу size) та стану спелеолога (починає в (0,0), дивиться на схід)
+            GameEngine engine = new GameEngine(config.newWorld(seed, verbose));
+            engine.setVerbose(verbose);
+            AgentState explorerState = engine.getExplorerState();
+            explorerState.setEnvironmentAID(getAID());
+            explorerState.setNavigatorAID(new AID("NavigatorAgent", AID.ISLOCALNAME));
+            String conversationId = msg.getConversationId();
+            session = new GameSession(key, engine, msg.getSender(), conversationId != null && !conversationId.isEmpty());
+            sessions.put(key, session);
+            System.out.println("Середовище: нова сесія '" + key + "' для " + msg.getSender().getName() + ", зерно світу seed=" + seed + ", активних сесій: " + sessions.size());
+        }
+        session.lastActivity = System.currentTimeMillis();
+        return session;
+    }
+
+    // внутрішня циклічна поведінка для прийому повідомлень від агентів-спелеологів
+    // та обробки їхніх дій або запитів на стан.
     private class ReceiveExplorerActionBehaviour extends CyclicBehaviour {
         @Override
         public void action() {
@@ -84,293 +166,184 @@ public class EnvironmentAgent extends Agent {
             );
             ACLMessage msg = myAgent.receive(mt);
 
-            if (msg != null && !gameOver) {
-                currentTurn++;
-                System.out.println("\n--- Хід " + currentTurn + " ---");
-                System.out.println("Середовище: отримано повідомлення від " + msg.getSender().getName() + ": '" + msg.getContent() + "' (Performative: " + ACLMessage.getPerformative(msg.getPerformative()) + ")");
-
-                // встановлення AID спелеолога, якщо ще не встановлено
-                if (explorerAID == null) {
-                    explorerAID = msg.getSender();
-                    explorerState.setEnvironmentAID(getAID());
-                    explorerState.setNavigatorAID(new AID("NavigatorAgent", AID.ISLOCALNAME));
+            if (msg != null) {
+                GameSession session = sessionFor(msg);
+                if (session == null) {
+                    String key = sessionKey(msg);
+                    System.err.println("Середовище: повідомлення для вже закритої сесії '" + key + "' відхилено.");
+                    ACLMessage refuse = msg.createReply();
+                    refuse.setPerformative(ACLMessage.REFUSE);
+                    refuse.setLanguage(null);
+                    refuse.setContent("Сесію '" + key + "' закрито: " + closedSessions.get(key));
+                    myAgent.send(refuse);
+                    return;
+                }
+                GameEngine engine = session.engine;
+                session.currentTurn++;
+                if (verbose) {
+                    System.out.println("\n--- Сесія '" + session.key + "', хід " + session.currentTurn + " ---");
+                    String received = BinaryCodec.isBinary(msg) ? Arrays.toString(msg.getByteSequenceContent()) : msg.getContent();
+                    System.out.println("Середовище: отримано повідомлення від " + msg.getSender().getName() + ": '" + received + "' (Performative: " + ACLMessage.getPerformative(msg.getPerformative()) + ")");
                 }
 
-                Set<PerceptionType> currentPerceptions = new HashSet<>();
-                ACLMessage reply = msg.createReply();
+                Set<PerceptionType> currentPerceptions;
+                ACLMessage reply = msg.createReply(); // адресатами стають агенти з reply-to, якщо їх задано
                 reply.setPerformative(ACLMessage.INFORM); // Завжди відповідаємо INFORM зі сприйняттями
+                Iterator<?> replyTo = msg.getAllReplyTo();
+                boolean direct = replyTo != null && replyTo.hasNext();
+                boolean binary = BinaryCodec.isBinary(msg); // відповідь тією ж мовою (createReply копіює language)
 
                 if (msg.getPerformative() == ACLMessage.REQUEST) {
                     //  якщо це запит на стан, просто надсилаємо сприйняття без зміни стану
-                    currentPerceptions = getPerceptionsForCurrentRoom(false, false);
-                    System.out.println("Середовище: обробляю запит на стан. Відправляю поточні сприйняття.");
-                } else if (msg.getPerformative() == ACLMessage.CFP) {
-                    // якщо це пропозиція виконати дію
-                    String actionStr = msg.getContent();
-                    Action action = null;
+                    currentPerceptions = engine.currentPerceptions();
+                    if (verbose) System.out.println("Середовище: обробляю запит на стан. Відправляю поточні сприйняття.");
+                } else if (MacroCommand.ONTOLOGY.equals(msg.getOntology())) {
+                    // макрокоманда: перехід виконується покроково до першої зміни сприйнять
+                    int executed;
+                    try {
+                        executed = engine.executeMacro(MacroCommand.parse(msg.getContent()));
+                    } catch (IllegalArgumentException e) {
+                        System.err.println("Середовище: макрокоманду відхилено: " + e.getMessage());
+                        reply.setPerformative(ACLMessage.REFUSE);
+                        reply.setContent("Некоректна макрокоманда: " + msg.getContent());
+                        myAgent.send(reply);
+                        return;
+                    }
+                    if (engine.isGameOver()) {
+                        sendGameOutcome(session, engine.getOutcome());
+                        return;
+                    }
+                    // у відповіді - кількість виконаних дій, позиція і напрямок спелеолога та сприйняття
+                    AgentState explorer = engine.getExplorerState();
+                    reply.setOntology(MacroCommand.ONTOLOGY);
+                    reply.setContent(executed + ":" + explorer.getX() + "," + explorer.getY() + "," + explorer.getDirection()
+                            + ":" + GameEngine.formatPerceptions(engine.currentPerceptions()));
+                    myAgent.send(reply);
+                    if (verbose) {
+                        System.out.println("Середовище: виконано макрокоманду '" + msg.getContent() + "', відповідь: '" + reply.getContent() + "'");
+                        engine.printState();
+                    }
+                    return;
+                } else if (ActionPlan.ONTOLOGY.equals(msg.getOntology())) {
+                    // план навігатора: дії виконуються пакетом до першого відхилення сприйнять
+                    ActionPlan plan;
                     try {
-                        action = Action.valueOf(actionStr.toUpperCase());
+                        plan = ActionPlan.parse(msg.getContent());
                     } catch (IllegalArgumentException e) {
+                        System.err.println("Середовище: некоректний план від спелеолога: " + msg.getContent());
+                        reply.setPerformative(ACLMessage.REFUSE);
+                        reply.setContent("Некоректний план: " + msg.getContent());
+                        myAgent.send(reply);
+                        return;
+                    }
+                    int executed = engine.executePlan(plan);
+                    if (engine.isGameOver()) {
+                        sendGameOutcome(session, engine.getOutcome());
+                        return;
+                    }
+                    if (verbose) System.out.println("Середовище: виконано " + executed + " з " + plan.size() + " дій плану. Відправляю нові сприйняття.");
+                    // у відповіді на план - кількість виконаних дій і сприйняття після останньої з них
+                    reply.setOntology(ActionPlan.ONTOLOGY);
+                    reply.setContent(executed + ":" + GameEngine.formatPerceptions(engine.currentPerceptions()));
+                    myAgent.send(reply);
+                    if (verbose) {
+                        System.out.println("Середовище: відправлено відповідь спелеологу: '" + reply.getContent() + "'");
+                        engine.printState();
+                    }
+                    return;
+                } else {
+                    // якщо це пропозиція виконати дію (CFP): байт з номером дії або її назва
+                    Action action = binary ? BinaryCodec.decodeAction(msg.getByteSequenceContent()) : parseAction(msg.getContent());
+                    String actionStr = binary ? (action != null ? action.name() : Arrays.toString(msg.getByteSequenceContent())) : msg.getContent();
+                    if (action == null) {
                         System.err.println("Середовище: невідома дія від спелеолога: " + actionStr);
                         reply.setPerformative(ACLMessage.REFUSE); // Відхиляємо невідому дію
+                        if (direct) { // відмова адресується самому спелеологу, а не навігатору
+                            reply.clearAllReceiver();
+                            reply.addReceiver(msg.getSender());
+                        }
+                        reply.setLanguage(null); // причина відмови - текст
                         reply.setContent("Невідома дія: " + actionStr);
                         myAgent.send(reply);
                         return;
                     }
 
-                    handleExplorerAction(action); // Обробляємо дію спелеолога
+                    currentPerceptions = engine.step(action); // Обробляємо дію спелеолога
 
-                    if (gameOver) {
-                        System.out.println("Середовище: гра завершена. Не надсилаю подальші сприйняття.");
+                    if (engine.isGameOver()) {
+                        sendGameOutcome(session, engine.getOutcome());
                         // Тут ми вже відправили GAME_OVER, тож додаткова відповідь не потрібна
                         return;
                     }
-                    currentPerceptions = getPerceptionsForCurrentRoom(false, false);
-                    System.out.println("Середовище: оброблено дію '" + actionStr + "'. Відправляю нові сприйняття.");
-                }
-
-                reply.setContent(generatePerceptionMessage(currentPerceptions, false, false));
-                myAgent.send(reply);
-                System.out.println("Середовище: відправлено відповідь спелеологу: '" + reply.getContent() + "'");
-
-                // Вивід карти світу і стану спелеолога (переміщено в окремий метод)
-                printEnvironmentState();
-            } else {
-                block();
-            }
-        }
-    }
-
-    // обробка дії спелеолога.
-    // @param action дія, яку виконує спелеолог.
-    private void handleExplorerAction(Action action) {
-        int currentX = explorerState.getX();
-        int currentY = explorerState.getY();
-        Room currentRoom = wampusWorld.getRoom(currentX, currentY);
-        if (currentRoom == null) {
-            System.err.println("Середовище: Помилка, поточна кімната недійсна!");
-            return;
-        }
-
-        boolean bumped = false;
-        boolean screamed = false;
-
-        System.out.println("Середовище: спелеолог виконує дію: " + action.toString()); // Додано логування дії
-
-        switch (action) {
-            case FORWARD:
-                int prevX = explorerState.getX();
-                int prevY = explorerState.getY();
-                boolean moved = explorerState.moveForward(wampusWorld.getSize(), wampusWorld.getSize());
-                if (!moved) {
-                    bumped = true;
-                    explorerState.setX(prevX);
-                    explorerState.setY(prevY);
-                    System.out.println("Середовище: спелеолог зіткнувся зі стіною! Залишається у (" + explorerState.getX() + ", " + explorerState.getY() + ")"); 
-                } else {
-                    currentRoom = wampusWorld.getRoom(explorerState.getX(), explorerState.getY());
-                    System.out.println("Середовище: спелеолог перемістився до (" + explorerState.getX() + ", " + explorerState.getY() + ")"); 
-                    if (currentRoom.hasPit()) {
-                        System.out.println("Середовище: спелеолог впав у яму! Гра завершена.");
-                        sendGameOutcome("FAIL: Впав у яму");
-                        gameOver = true;
-                    } else if (currentRoom.hasWampus() && wampusWorld.isWampusAlive()) {
-                        System.out.println("Середовище: Вампус з'їв спелеолога! Гра завершена.");
-                        sendGameOutcome("FAIL: З'їдений Вампусом");
-                        gameOver = true;
-                    } else {
-                        currentRoom.setExplored(true);
-                    }
+                    if (verbose) System.out.println("Середовище: оброблено дію '" + actionStr + "'. Відправляю нові сприйняття.");
                 }
-                break;
-            case TURN_LEFT:
-                explorerState.turnLeft();
-                System.out.println("Середовище: спелеолог повернув ліворуч. Новий напрямок: " + explorerState.getDirection()); 
-                break;
-            case TURN_RIGHT:
-                explorerState.turnRight();
-                System.out.println("Середовище: спелеолог повернув праворуч. Новий напрямок: " + explorerState.getDirection()); 
-                break;
-            case SHOOT:
-                if (explorerState.hasArrow()) {
-                    explorerState.useArrow();
-                    System.out.println("Середовище: спелеолог вистрілив! Залишилося стріл: 0"); 
-                    // перевірка, чи Вампус був у напрямку стрільби
-                    int targetX = explorerState.getX();
-                    int targetY = explorerState.getY();
-                    
-                    // Вампус знаходиться в прямому напрямку, якщо він на тій же лінії Х/У і між поточною позицією спелеолога та кінцем світу в цьому напрямку.
-                    switch (explorerState.getDirection()) {
-                        case NORTH:
-                            targetY = 0; // стріляє до північного краю карти
-                            break;
-                        case EAST:
-                            targetX = wampusWorld.getSize() - 1; // стріляє до східного краю карти
-                            break;
-                        case SOUTH:
-                            targetY = wampusWorld.getSize() - 1; // стріляє до південного краю карти
-                            break;
-                        case WEST:
-                            targetX = 0; // стріляє до західного краю карти
-                            break;
-                    }
 
-                    boolean wampusHit = false;
-                    // чи Вампус на лінії вогню
-                    if (explorerState.getDirection() == Direction.NORTH || explorerState.getDirection() == Direction.SOUTH) {
-                        // вертикальний постріл по Y
-                        int startY = Math.min(explorerState.getY(), targetY);
-                        int endY = Math.max(explorerState.getY(), targetY);
-                        for (int yCoord = startY; yCoord <= endY; yCoord++) {
-                            // перевірка кімнати вздовж лінії стрільби
-                            if (wampusWorld.getRoom(explorerState.getX(), yCoord) != null &&
-                                    wampusWorld.getRoom(explorerState.getX(), yCoord).hasWampus() && wampusWorld.isWampusAlive()) {
-                                wampusHit = true;
-                                break;
-                            }
-                        }
-                    } else { // EAST or WEST
-                        // горизонтальний постріл по X
-                        int startX = Math.min(explorerState.getX(), targetX);
-                        int endX = Math.max(explorerState.getX(), targetX);
-                        for (int xCoord = startX; xCoord <= endX; xCoord++) {
-                            // перевірка кімнати вздовж лінії стрільби
-                            if (wampusWorld.getRoom(xCoord, explorerState.getY()) != null &&
-                                    wampusWorld.getRoom(xCoord, explorerState.getY()).hasWampus() && wampusWorld.isWampusAlive()) {
-                                wampusHit = true;
-                                break;
-                            }
-                        }
-                    }
-
-
-                    if (wampusHit) {
-                        wampusWorld.setWampusAlive(false);
-                        screamed = true;
-                        System.out.println("Середовище: Вампуса вбито! Крик чутно."); 
-                    } else {
-                        System.out.println("Середовище: Вампус не вбитий. Стріла пролетіла повз."); 
-                    }
-                } else {
-                    System.out.println("Середовище: немає стріл! Дія SHOOT неможлива."); 
+                if (direct) {
+                    // сприйняття йдуть прямо навігатору спелеолога, а той відповідає спелеологу
+                    reply.setOntology(PERCEPTION_ONTOLOGY);
+                    reply.addReplyTo(session.explorerAID);
                 }
-                break;
-            case GRAB:
-                if (currentRoom.hasGold()) {
-                    explorerState.setHasGold(true);
-                    currentRoom.setHasGold(false);
-                    System.out.println("Середовище: спелеолог схопив золото! Тепер має золото: " + explorerState.hasGold()); 
+                if (binary) {
+                    reply.setByteSequenceContent(BinaryCodec.encodePerceptions(currentPerceptions));
                 } else {
-                    System.out.println("Середовище: золота немає в цій кімнаті. Дія GRAB неможлива."); 
+                    reply.setContent(GameEngine.formatPerceptions(currentPerceptions));
                 }
-                break;
-            case CLIMB:
-                System.out.println("Середовище: спелеолог намагається піднятися..."); 
-                if (explorerState.getX() == 0 && explorerState.getY() == 0) {
-                    if (explorerState.hasGold()) {
-                        System.out.println("Середовище: спелеолог піднявся із золотом! Успіх!");
-                        sendGameOutcome("SUCCESS: Золото здобуто");
-                    } else {
-                        System.out.println("Середовище: спелеолог піднявся без золота. Невдача.");
-                        sendGameOutcome("FAIL: Без золота");
-                    }
-                    gameOver = true;
-                } else {
-                    System.out.println("Середовище: можна піднятися лише в початковій кімнаті (0,0). Спелеолог знаходиться у (" + explorerState.getX() + ", " + explorerState.getY() + ")"); 
+                myAgent.send(reply);
+                if (verbose) {
+                    System.out.println("Середовище: відправлено відповідь " + (direct ? "навігатору" : "спелеологу") + ": '" + GameEngine.formatPerceptions(currentPerceptions) + "'");
+                    // Вивід карти світу і стану спелеолога
+                    engine.printState();
                 }
-                break;
+            } else {
+                block();
+            }
         }
-
-        wampusWorld.updatePerceptions();
     }
 
-    // отримання поточних сприйнять для кімнати, де знаходиться спелеолог.
-    // @param bumped чи відбулося зіткнення.
-    // @param screamed чи був крик Вампуса.
-    // @return набір сприйнять.
-    private Set<PerceptionType> getPerceptionsForCurrentRoom(boolean bumped, boolean screamed) {
-        Set<PerceptionType> perceptions = new HashSet<>();
-        int currentX = explorerState.getX();
-        int currentY = explorerState.getY();
-        Room currentRoom = wampusWorld.getRoom(currentX, currentY);
-
-        if (currentRoom == null) {
-            System.err.println("Середовище: Помилка: поточна кімната недійсна при отриманні сприйнять!");
-            return perceptions;
-        }
-
-        perceptions.addAll(currentRoom.getPerceptions());
-
-        if (bumped) {
-            perceptions.add(PerceptionType.BUMP);
-        }
-        if (screamed) {
-            perceptions.add(PerceptionType.SCREAM);
-        }
-
-        if (perceptions.isEmpty()) {
-            perceptions.add(PerceptionType.SAFE);
+    // розбір назви дії.
+    // @return дія або null, якщо назва невідома.
+    private static Action parseAction(String actionStr) {
+        try {
+            return Action.valueOf(actionStr.toUpperCase());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return null;
         }
-        return perceptions;
     }
 
-    // формування повідомлення зі сприйняттями для агента-спелеолога.
-    // @param perceptions набір сприйнять.
-    // @param bumped чи відбулося зіткнення.
-    // @param screamed чи був крик Вампуса.
-    // @return строкове представлення сприйнять.
-    private String generatePerceptionMessage(Set<PerceptionType> perceptions, boolean bumped, boolean screamed) {
-        StringBuilder sb = new StringBuilder();
-        if (perceptions.contains(PerceptionType.STENCH)) sb.append("STENCH;");
-        if (perceptions.contains(PerceptionType.BREEZE)) sb.append("BREEZE;");
-        if (perceptions.contains(PerceptionType.GLITTER)) sb.append("GLITTER;");
-        if (perceptions.contains(PerceptionType.BUMP) || bumped) sb.append("BUMP;");
-        if (perceptions.contains(PerceptionType.SCREAM) || screamed) sb.append("SCREAM;");
-        if (perceptions.contains(PerceptionType.SAFE) && sb.length() == 0) sb.append("SAFE;");
-        if (sb.length() > 0) {
-            sb.setLength(sb.length() - 1);
-        }
-        return sb.toString();
+    // надсилає повідомлення про результат гри спелеологу та закриває сесію.
+    // @param session сесія, гра якої завершилася.
+    // @param outcome результат гри (SUCCESS/FAIL).
+    private void sendGameOutcome(GameSession session, String outcome) {
+        ACLMessage finalMsg = new ACLMessage(ACLMessage.INFORM);
+        finalMsg.addReceiver(session.explorerAID);
+        finalMsg.setConversationId(session.key);
+        finalMsg.setContent("GAME_OVER:" + outcome);
+        send(finalMsg);
+        sessions.remove(session.key);
+        rememberClosed(session, outcome);
+        long elapsed = System.currentTimeMillis() - session.engine.getInitialTime();
+        System.out.println("Середовище: сесія '" + session.key + "' завершена (" + outcome + ") після " + session.currentTurn
+                + " ходів за " + elapsed + " мс. Активних сесій: " + sessions.size());
     }
 
-    // надсилає повідомлення про результат гри спелеологу та завершує гру.
-    // @param outcome результат гри (SUCCESS/FAIL).
-    private void sendGameOutcome(String outcome) {
-        if (explorerAID != null) {
-            ACLMessage finalMsg = new ACLMessage(ACLMessage.INFORM);
-            finalMsg.addReceiver(explorerAID);
-            finalMsg.setContent("GAME_OVER:" + outcome);
-            send(finalMsg);
-            System.out.println("Середовище: відправлено фінальне повідомлення: " + finalMsg.getContent());
+    // закриває сесії, від яких давно не надходило повідомлень.
+    private void evictIdleSessions() {
+        long now = System.currentTimeMillis();
+        Iterator<GameSession> it = sessions.values().iterator();
+        while (it.hasNext()) {
+            GameSession session = it.next();
+            if (now - session.lastActivity > sessionTimeoutMs) {
+                it.remove();
+                rememberClosed(session, "закрито через бездіяльність");
+                System.out.println("Середовище: сесію '" + session.key + "' закрито через бездіяльність.");
+            }
         }
-        long endTime = System.currentTimeMillis();
-        System.out.println("Середовище: гра завершена після " + currentTurn + " ходів за " + (endTime - initialTime) + " мс.");
-        doDelete();
     }
 
-    // допоміжний метод для друку стану середовища
-    private void printEnvironmentState() {
-        StringBuilder sb = new StringBuilder();
-        sb.append("Поточний стан світу Вампуса:\n");
-        for (int i = 0; i < wampusWorld.getSize(); i++) {
-            for (int j = 0; j < wampusWorld.getSize(); j++) {
-                sb.append("|");
-                // отримання кімнати за координатами (враховуйте, що WampusWorld.getRoom приймає (x, y))
-                Room currentRoom = wampusWorld.getRoom(j, i); // змінено на (j, i) для коректного відображення матриці
-                if (explorerState.getX() == j && explorerState.getY() == i) {
-                    sb.append("A"); // Агент
-                } else {
-                    if (currentRoom.hasGold()) sb.append("G");
-                    if (currentRoom.hasPit()) sb.append("P");
-                    if (currentRoom.hasWampus() && wampusWorld.isWampusAlive()) sb.append("W");
-                    if (currentRoom.hasStench()) sb.append("S");
-                    if (currentRoom.hasBreeze()) sb.append("B");
-                    sb.append(" ");
-                }
-            }
-            sb.append("|\n"); // кінець рядка мапи
+    // запам'ятовує conversation-id закритої сесії, щоб не почати за ним нову гру.
+    private void rememberClosed(GameSession session, String outcome) {
+        if (session.byConversation) {
+            closedSessions.put(session.key, outcome);
         }
-        sb.append(explorerState.toString()).append("\n"); // стан спелеолога
-        System.out.print(sb.toString()); // весь зібраний текст одним блоком
     }
 }
@@ -32,6 +32,19 @@ public class ExplorerAgent extends Agent {
     private boolean gameFinished = false; // флаг, що вказує на завершення гри
     private Set<PerceptionType> currentPerceptions; // поточні сприйняття від середовища
     private boolean isReceiveActionBehaviourAdded = false;
+    private String conversationId; // ідентифікатор сесії гри у середовищі та навігаторі
+    private int planSteps; // найбільша довжина плану навігатора (1 - по одній дії на запит)
+    private boolean macros; // навігатор відповідає макрокомандами для середовища
+    // режим дерев рішень: наступна дія обирається з дерева навігатора без очікування на нього
+    private boolean trees;
+    // routing=direct: середовище надсилає сприйняття прямо навігатору (reply-to), а той відповідає спелеологу
+    private boolean directRouting;
+    // codec=binary: сприйняття і дії передаються одним байтом (мова BinaryCodec.LANGUAGE) замість тексту
+    private boolean binary;
+    private DecisionTree decisionTree; // гілки для останньої виконаної дії (null - ще не надійшли)
+    private Set<PerceptionType> pendingPerceptions; // сприйняття після останньої дії, ще не оброблені
+    private boolean treeRequested; // навігатор ще не відповів на останні сприйняття
+    private boolean rootPending; // дію з кореня наступного дерева треба виконати (гілки не знайшлося)
 
     // словник синонімічних англійських речень для кожного типу сприйняття
     private static final Map<PerceptionType, List<String>> PERCEPTION_SYNONYMS = new HashMap<>();
@@ -68,6 +81,9 @@ public class ExplorerAgent extends Agent {
         ));
     }
 
+    // додаток до зерна гри для генератора синонімів, щоб він не повторював послідовність генератора світу
+    private static final long SYNONYM_SALT = 0x5EED5EEDL;
+
     // словник для перетворення природної мови на дію
     private static final Map<String, Action> ACTION_KEYWORDS = new HashMap<>();
     static {
@@ -79,11 +95,33 @@ public class ExplorerAgent extends Agent {
         ACTION_KEYWORDS.put("піднятися", Action.CLIMB);
     }
 
-    private Random random = new Random(); // для випадкового вибору синонімів
+    private Random random; // для випадкового вибору синонімів (детермінований, якщо задано seed)
 
     @Override
     protected void setup() {
         System.out.println("Агент-спелеолог " + getAID().getName() + " запущений.");
+        GameConfig config = GameConfig.fromArguments(getArguments());
+        random = config.newRandom(SYNONYM_SALT);
+        // planSteps>1: навігатор відповідає планом з кількох дій, середовище виконує його пакетом
+        planSteps = (int) Math.max(1, config.getLong("plansteps", 1));
+        // macros=true: переходи і повернення додому виконуються середовищем як макрокоманди
+        macros = config.getBoolean("macros", false);
+        // trees=true: навігатор надсилає дерево рішень, і дія після сприйнять обирається локально
+        trees = config.getBoolean("trees", false);
+        directRouting = "direct".equalsIgnoreCase(config.getString("routing", "explorer"));
+        if (directRouting && (planSteps > 1 || macros || trees)) {
+            System.out.println("Спелеолог: пряма маршрутизація працює з окремими діями, плани, макрокоманди і дерева вимкнено.");
+            planSteps = 1;
+            macros = false;
+            trees = false;
+        }
+        binary = "binary".equalsIgnoreCase(config.getString("codec", "text"));
+        if (binary && (planSteps > 1 || macros || trees)) {
+            System.out.println("Спелеолог: двійковий формат підтримує лише окремі дії, сприйняття передаються текстом.");
+            binary = false;
+        }
+        // середовище і навігатор ведуть окрему сесію для кожного conversation-id
+        conversationId = "wampus-" + getLocalName() + "-" + System.currentTimeMillis();
 
         // реєстрація послуги в DF
         DFAgentDescription dfd = new DFAgentDescription();
@@ -177,7 +215,14 @@ public class ExplorerAgent extends Agent {
             if (environmentAID != null) {
                 ACLMessage msg = new ACLMessage(ACLMessage.REQUEST);
                 msg.addReceiver(environmentAID);
+                msg.setConversationId(conversationId);
                 msg.setContent("request-current-perception"); // Може бути будь-який зміст, який Environment зрозуміє як запит
+                if (binary) {
+                    msg.setLanguage(BinaryCodec.LANGUAGE); // сприйняття надійдуть байт-маскою
+                }
+                if (directRouting) {
+                    msg.addReplyTo(navigatorAID); // сприйняття отримає навігатор
+                }
                 myAgent.send(msg);
                 System.out.println("Спелеолог: відправлено перший запит на сприйняття до середовища."); // Додано логування
             } else {
@@ -192,10 +237,25 @@ public class ExplorerAgent extends Agent {
         @Override
         public void action() {
             // шаблон повідомлення для прийому INFORM від середовища
-            MessageTemplate mt = MessageTemplate.MatchPerformative(ACLMessage.INFORM);
+            MessageTemplate mt = MessageTemplate.and(
+                    MessageTemplate.MatchPerformative(ACLMessage.INFORM),
+                    MessageTemplate.MatchSender(environmentAID)
+            );
             ACLMessage msg = myAgent.receive(mt);
 
             if (msg != null && !gameFinished) {
+                if (BinaryCodec.isBinary(msg)) {
+                    // байт-маска сприйнять (повідомлення GAME_OVER завжди текстові)
+                    Set<PerceptionType> perceptions = BinaryCodec.decodePerceptions(msg.getByteSequenceContent());
+                    if (perceptions == null) {
+                        System.err.println("Спелеолог: некоректні двійкові сприйняття: " + Arrays.toString(msg.getByteSequenceContent()));
+                        return;
+                    }
+                    System.out.println("Спелеолог: отримано сприйняття від середовища: '" + GameEngine.formatPerceptions(perceptions) + "'");
+                    currentPerceptions = perceptions;
+                    myAgent.addBehaviour(new SendPerceptionToNavigatorBehaviour(currentPerceptions, 0, null, null));
+                    return;
+                }
                 String content = msg.getContent();
                 System.out.println("Спелеолог: отримано сприйняття від середовища: '" + content + "'");
 
@@ -208,11 +268,31 @@ public class ExplorerAgent extends Agent {
                     return;
                 }
 
+                // відповідь на план: "кількість виконаних дій:сприйняття після останньої з них"
+                int executed = 0;
+                if (ActionPlan.ONTOLOGY.equals(msg.getOntology())) {
+                    int colon = content.indexOf(':');
+                    executed = Integer.parseInt(content.substring(0, colon));
+                    content = content.substring(colon + 1);
+                }
+                // відповідь на макрокоманду: "кількість дій:x,y,НАПРЯМОК:сприйняття"
+                String pose = null;
+                if (MacroCommand.ONTOLOGY.equals(msg.getOntology())) {
+                    String[] parts = content.split(":", 3);
+                    pose = parts[1];
+                    content = parts[2];
+                }
+
                 // парсинг сприйнять
                 currentPerceptions = parsePerceptionString(content);
 
+                if (trees) {
+                    pendingPerceptions = currentPerceptions;
+                    advanceDecisionTree();
+                    return;
+                }
                 // якщо отримано сприйняття, надіслати їх навігатору
-                myAgent.addBehaviour(new SendPerceptionToNavigatorBehaviour(currentPerceptions));
+                myAgent.addBehaviour(new SendPerceptionToNavigatorBehaviour(currentPerceptions, executed, pose, null));
 
             } else {
                 block();
@@ -223,9 +303,16 @@ public class ExplorerAgent extends Agent {
     // внутрішня одноразова поведінка для надсилання сприйнять навігатору.
     private class SendPerceptionToNavigatorBehaviour extends OneShotBehaviour {
         private Set<PerceptionType> perceptionsToSend;
+        private int executedPlanSteps; // скільки дій попереднього плану виконало середовище
+        private String macroPose; // позиція після попередньої макрокоманди (null - невідома)
+        private String treeBranch; // гілка дерева, вже виконана для цих сприйнять (null - жодна)
 
-        public SendPerceptionToNavigatorBehaviour(Set<PerceptionType> perceptions) {
+        public SendPerceptionToNavigatorBehaviour(Set<PerceptionType> perceptions, int executedPlanSteps, String macroPose,
+                                                  String treeBranch) {
             this.perceptionsToSend = perceptions;
+            this.executedPlanSteps = executedPlanSteps;
+            this.macroPose = macroPose;
+            this.treeBranch = treeBranch;
         }
 
         @Override
@@ -233,8 +320,31 @@ public class ExplorerAgent extends Agent {
             if (navigatorAID != null) {
                 ACLMessage msg = new ACLMessage(ACLMessage.REQUEST);
                 msg.addReceiver(navigatorAID);
-                String naturalLanguagePerception = generatePerceptionMessage(perceptionsToSend);
-                msg.setContent(naturalLanguagePerception);
+                msg.setConversationId(conversationId);
+                String naturalLanguagePerception;
+                if (binary) {
+                    naturalLanguagePerception = GameEngine.formatPerceptions(perceptionsToSend);
+                    msg.setLanguage(BinaryCodec.LANGUAGE);
+                    msg.setByteSequenceContent(BinaryCodec.encodePerceptions(perceptionsToSend));
+                } else {
+                    naturalLanguagePerception = generatePerceptionMessage(perceptionsToSend, random);
+                    msg.setContent(naturalLanguagePerception);
+                }
+                if (trees) {
+                    msg.setOntology(DecisionTree.ONTOLOGY);
+                    if (treeBranch != null) {
+                        msg.addUserDefinedParameter(NavigatorAgent.BRANCH_PARAMETER, treeBranch);
+                    }
+                } else if (macros) {
+                    msg.setOntology(MacroCommand.ONTOLOGY);
+                    if (macroPose != null) {
+                        msg.addUserDefinedParameter(NavigatorAgent.POSE_PARAMETER, macroPose);
+                    }
+                } else if (planSteps > 1) {
+                    msg.setOntology(ActionPlan.ONTOLOGY);
+                    msg.addUserDefinedParameter(NavigatorAgent.PLAN_STEPS_PARAMETER, Integer.toString(planSteps));
+                    msg.addUserDefinedParameter(NavigatorAgent.EXECUTED_PARAMETER, Integer.toString(executedPlanSteps));
+                }
                 myAgent.send(msg);
                 System.out.println("Спелеолог: відправлено сприйняття навігатору: '" + naturalLanguagePerception + "'"); // Додано логування
             } else {
@@ -248,13 +358,44 @@ public class ExplorerAgent extends Agent {
         @Override
         public void action() {
             // шаблон повідомлення для прийому INFORM (рекомендована дія) від навігатора
-            MessageTemplate mt = MessageTemplate.MatchPerformative(ACLMessage.INFORM);
+            MessageTemplate mt = MessageTemplate.and(
+                    MessageTemplate.MatchPerformative(ACLMessage.INFORM),
+                    MessageTemplate.MatchSender(navigatorAID)
+            );
             ACLMessage msg = myAgent.receive(mt);
 
             if (msg != null && !gameFinished) {
+                if (BinaryCodec.isBinary(msg)) {
+                    // номер дії одним байтом
+                    Action action = BinaryCodec.decodeAction(msg.getByteSequenceContent());
+                    if (action == null) {
+                        System.err.println("Спелеолог: некоректна двійкова дія: " + Arrays.toString(msg.getByteSequenceContent()));
+                        return;
+                    }
+                    System.out.println("Спелеолог: отримано рекомендацію від навігатора: '" + action + "'");
+                    myAgent.addBehaviour(new SendActionToEnvironmentBehaviour(action));
+                    return;
+                }
                 String actionContent = msg.getContent();
                 System.out.println("Спелеолог: отримано рекомендацію від навігатора: '" + actionContent + "'"); // Додано логування
 
+                if (DecisionTree.ONTOLOGY.equals(msg.getOntology())) {
+                    treeRequested = false;
+                    decisionTree = DecisionTree.parse(actionContent);
+                    if (rootPending) {
+                        rootPending = false;
+                        myAgent.addBehaviour(new SendActionToEnvironmentBehaviour(decisionTree.getRoot()));
+                    }
+                    advanceDecisionTree();
+                    return;
+                }
+
+                // план з кількох дій або макрокоманда пересилається середовищу без змін одним повідомленням
+                if (ActionPlan.ONTOLOGY.equals(msg.getOntology()) || MacroCommand.ONTOLOGY.equals(msg.getOntology())) {
+                    myAgent.addBehaviour(new SendPlanToEnvironmentBehaviour(actionContent, msg.getOntology()));
+                    return;
+                }
+
                 // парсинг дії з природної мови
                 Action recommendedAction = parseActionMessage(actionContent);
 
@@ -283,7 +424,16 @@ public class ExplorerAgent extends Agent {
             if (environmentAID != null) {
                 ACLMessage msg = new ACLMessage(ACLMessage.CFP);
                 msg.addReceiver(environmentAID);
-                msg.setContent(actionToSend.toString());
+                msg.setConversationId(conversationId);
+                if (binary) {
+                    msg.setLanguage(BinaryCodec.LANGUAGE);
+                    msg.setByteSequenceContent(BinaryCodec.encodeAction(actionToSend));
+                } else {
+                    msg.setContent(actionToSend.toString());
+                }
+                if (directRouting) {
+                    msg.addReplyTo(navigatorAID); // сприйняття отримає навігатор
+                }
                 myAgent.send(msg);
                 System.out.println("Спелеолог: відправлено дію середовищу: '" + actionToSend.toString() + "'"); // Додано логування
             } else {
@@ -292,10 +442,57 @@ public class ExplorerAgent extends Agent {
         }
     }
 
+    // внутрішня одноразова поведінка для надсилання плану дій або макрокоманди агенту-середовищу.
+    private class SendPlanToEnvironmentBehaviour extends OneShotBehaviour {
+        private String planContent;
+        private String ontology; // ActionPlan.ONTOLOGY або MacroCommand.ONTOLOGY
+
+        public SendPlanToEnvironmentBehaviour(String planContent, String ontology) {
+            this.planContent = planContent;
+            this.ontology = ontology;
+        }
+
+        @Override
+        public void action() {
+            if (environmentAID != null) {
+                ACLMessage msg = new ACLMessage(ACLMessage.CFP);
+                msg.addReceiver(environmentAID);
+                msg.setConversationId(conversationId);
+                msg.setOntology(ontology);
+                msg.setContent(planContent);
+                myAgent.send(msg);
+                System.out.println("Спелеолог: відправлено план середовищу: '" + planContent + "'");
+            } else {
+                System.err.println("Спелеолог: середовища не знайдено, не можу надіслати план.");
+            }
+        }
+    }
+
+    // крок режиму дерев: коли є і сприйняття після останньої дії, і дерево для неї, наступна дія
+    // береться з гілки і одразу надсилається середовищу, а сприйняття - навігатору паралельно.
+    // якщо гілки немає, навігатор обирає дію сам і спелеолог виконає корінь його відповіді.
+    private void advanceDecisionTree() {
+        if (pendingPerceptions == null || treeRequested || rootPending) {
+            return;
+        }
+        Action next = decisionTree == null ? null : decisionTree.branch(pendingPerceptions);
+        String branch = null;
+        if (next != null) {
+            addBehaviour(new SendActionToEnvironmentBehaviour(next));
+            branch = GameEngine.formatPerceptions(pendingPerceptions);
+        } else {
+            rootPending = true;
+        }
+        addBehaviour(new SendPerceptionToNavigatorBehaviour(pendingPerceptions, 0, null, branch));
+        treeRequested = true;
+        decisionTree = null;
+        pendingPerceptions = null;
+    }
+
     // парсинг строкового представлення сприйнять від середовища в Set<PerceptionType>.
     // @param perceptionString рядок сприйнять (наприклад, "STENCH;BREEZE").
     // @return набір сприйнять.
-    private Set<PerceptionType> parsePerceptionString(String perceptionString) {
+    static Set<PerceptionType> parsePerceptionString(String perceptionString) {
         Set<PerceptionType> perceptions = new HashSet<>();
         if (perceptionString == null || perceptionString.isEmpty()) {
             return perceptions;
@@ -313,42 +510,42 @@ public class ExplorerAgent extends Agent {
 
     // формування природно-мовного повідомлення зі сприйнять для навігатора.
     // @param perceptions набір сприйнять.
+    // @param random генератор для вибору синонімів.
     // @return природно-мовне повідомлення.
-    private String generatePerceptionMessage(Set<PerceptionType> perceptions) {
+    static String generatePerceptionMessage(Set<PerceptionType> perceptions, Random random) {
         StringBuilder sb = new StringBuilder();
-        // перевірка, чи є спеціальні сприйняття, які мають пріоритет
+        // удар об стіну і крик ідуть першими, але сприйняття кімнати після них не губляться
+        List<String> perceptionPhrases = new ArrayList<>();
         if (perceptions.contains(PerceptionType.BUMP)) {
-            sb.append(getRandomSynonym(PerceptionType.BUMP));
-        } else if (perceptions.contains(PerceptionType.SCREAM)) {
-            sb.append(getRandomSynonym(PerceptionType.SCREAM));
-        } else {
-            // якщо немає BUMP або SCREAM, додаємо інші сприйняття
-            List<String> perceptionPhrases = new ArrayList<>();
-            if (perceptions.contains(PerceptionType.STENCH)) {
-                perceptionPhrases.add(getRandomSynonym(PerceptionType.STENCH));
-            }
-            if (perceptions.contains(PerceptionType.BREEZE)) {
-                perceptionPhrases.add(getRandomSynonym(PerceptionType.BREEZE));
-            }
-            if (perceptions.contains(PerceptionType.GLITTER)) {
-                perceptionPhrases.add(getRandomSynonym(PerceptionType.GLITTER));
-            }
+            perceptionPhrases.add(getRandomSynonym(PerceptionType.BUMP, random));
+        }
+        if (perceptions.contains(PerceptionType.SCREAM)) {
+            perceptionPhrases.add(getRandomSynonym(PerceptionType.SCREAM, random));
+        }
+        if (perceptions.contains(PerceptionType.STENCH)) {
+            perceptionPhrases.add(getRandomSynonym(PerceptionType.STENCH, random));
+        }
+        if (perceptions.contains(PerceptionType.BREEZE)) {
+            perceptionPhrases.add(getRandomSynonym(PerceptionType.BREEZE, random));
+        }
+        if (perceptions.contains(PerceptionType.GLITTER)) {
+            perceptionPhrases.add(getRandomSynonym(PerceptionType.GLITTER, random));
+        }
 
-            if (perceptionPhrases.isEmpty() && perceptions.contains(PerceptionType.SAFE)) {
-                perceptionPhrases.add(getRandomSynonym(PerceptionType.SAFE));
-            }
+        if (perceptionPhrases.isEmpty() && perceptions.contains(PerceptionType.SAFE)) {
+            perceptionPhrases.add(getRandomSynonym(PerceptionType.SAFE, random));
+        }
 
-            for (int i = 0; i < perceptionPhrases.size(); i++) {
-                sb.append(perceptionPhrases.get(i));
-                if (i < perceptionPhrases.size() - 1) {
-                    sb.append(". ");
-                }
+        for (int i = 0; i < perceptionPhrases.size(); i++) {
+            sb.append(perceptionPhrases.get(i));
+            if (i < perceptionPhrases.size() - 1) {
+                sb.append(". ");
             }
         }
 
         // якщо жодних сприйнять, але є SAFE
         if (sb.length() == 0 && perceptions.contains(PerceptionType.SAFE)) {
-            sb.append(getRandomSynonym(PerceptionType.SAFE));
+            sb.append(getRandomSynonym(PerceptionType.SAFE, random));
         } else if (sb.length() == 0) {
             sb.append("I perceive nothing unusual.");
         }
@@ -358,7 +555,7 @@ public class ExplorerAgent extends Agent {
     }
 
     // отримання випадкового синоніму для даного типу сприйняття
-    private String getRandomSynonym(PerceptionType type) {
+    private static String getRandomSynonym(PerceptionType type, Random random) {
         List<String> synonyms = PERCEPTION_SYNONYMS.get(type);
         if (synonyms != null && !synonyms.isEmpty()) {
             return synonyms.get(random.nextInt(synonyms.size()));
@@ -369,7 +566,7 @@ public class ExplorerAgent extends Agent {
     // граматичний розбір природно-мовного повідомлення від навігатора
     // @param actionMessage природно-мовне повідомлення про дію.
     // @return об'єкт Action або null, якщо дію не розпізнано.
-    private Action parseActionMessage(String actionMessage) {
+    static Action parseActionMessage(String actionMessage) {
         String lowerCaseMessage = actionMessage.toLowerCase().trim();
         for (Map.Entry<String, Action> entry : ACTION_KEYWORDS.entrySet()) {
             if (lowerCaseMessage.contains(entry.getKey())) {
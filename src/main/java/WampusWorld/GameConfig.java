@@ -0,0 +1,242 @@
+package WampusWorld;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import static WampusWorld.WampusWorldCore.Cave;
+import static WampusWorld.WampusWorldCore.WampusWorld;
+import static WampusWorld.WampusWorldCore.DEFAULT_PIT_DENSITY;
+import static WampusWorld.WampusWorldCore.DecisionMode;
+import static WampusWorld.WampusWorldCore.PlannerType;
+
+
+// параметри гри, які передаються агентам через аргументи JADE у вигляді "ключ=значення",
+// наприклад: -agents env:WampusWorld.EnvironmentAgent(seed=42,size=64,pitDensity=0.15)
+// однакові аргументи для всіх агентів дають відтворювану гру з однаковим розміром світу.
+public class GameConfig {
+    // розмір, починаючи з якого світ за замовчуванням зберігається фрагментами (storage=chunked).
+    public static final int CHUNKED_STORAGE_THRESHOLD = 1024;
+    // розмір, починаючи з якого навігатор за замовчуванням планує шляхи ієрархічно (planner=hierarchical).
+    public static final int HIERARCHICAL_PLANNER_THRESHOLD = 256;
+
+    private final Map<String, String> values;
+
+    private GameConfig(Map<String, String> values) {
+        this.values = values;
+    }
+
+    // конфігурація за замовчуванням (без аргументів).
+    public static GameConfig defaults() {
+        return new GameConfig(new HashMap<>());
+    }
+
+    // розбір аргументів агента.
+    // @param args аргументи, отримані через getArguments() (може бути null).
+    // @return конфігурація гри.
+    public static GameConfig fromArguments(Object[] args) {
+        Map<String, String> values = new HashMap<>();
+        if (args != null) {
+            for (Object arg : args) {
+                if (arg == null) continue;
+                String text = arg.toString().trim();
+                int eq = text.indexOf('=');
+                if (eq > 0) {
+                    values.put(text.substring(0, eq).trim().toLowerCase(), text.substring(eq + 1).trim());
+                } else {
+                    System.err.println("Конфігурація: аргумент без '=' проігноровано: " + text);
+                }
+            }
+        }
+        return new GameConfig(values);
+    }
+
+    // чи задано зерно генерації явно.
+    public boolean hasSeed() {
+        return values.containsKey("seed");
+    }
+
+    // зерно генерації світу (ідентифікатор світу).
+    // @param fallback значення, якщо зерно не задано.
+    public long getSeed(long fallback) {
+        return getLong("seed", fallback);
+    }
+
+    // розмір світу (кількість кімнат по кожній стороні).
+    // @throws IllegalArgumentException якщо розмір менший за 2 або більший за Navigator.MAX_GRID_SIZE.
+    public int getGridSize() {
+        long size = getLong("size", 4);
+        if (size < 2 || size > Navigator.MAX_GRID_SIZE) {
+            throw new IllegalArgumentException("Розмір світу size має бути від 2 до " + Navigator.MAX_GRID_SIZE + ": " + size);
+        }
+        return (int) size;
+    }
+
+    // частка ям серед вільних кімнат.
+    // @throws IllegalArgumentException якщо частка поза межами [0, 1].
+    public double getPitDensity() {
+        double density = getDouble("pitdensity", DEFAULT_PIT_DENSITY);
+        if (!(density >= 0 && density <= 1)) {
+            throw new IllegalArgumentException("Частка ям pitDensity має бути від 0 до 1: " + values.get("pitdensity"));
+        }
+        return density;
+    }
+
+    // кількість потоків турніру (аргумент threads, за замовчуванням - кількість процесорів).
+    // @throws IllegalArgumentException якщо задано не додатне число потоків.
+    public int getThreads() {
+        long threads = getLong("threads", Runtime.getRuntime().availableProcessors());
+        if (threads <= 0 || threads > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Кількість потоків threads має бути додатним цілим числом: " + values.get("threads"));
+        }
+        return (int) threads;
+    }
+
+    // кількість Вампусів (аргумент wampuses, за замовчуванням 1).
+    // @throws IllegalArgumentException якщо кількість від'ємна або не вміщується в int.
+    public int getWampusCount() {
+        return getCount("wampuses", 1);
+    }
+
+    // кількість золота (аргумент gold, за замовчуванням 1).
+    // @throws IllegalArgumentException якщо кількість від'ємна або не вміщується в int.
+    public int getGoldCount() {
+        return getCount("gold", 1);
+    }
+
+    private int getCount(String key, long fallback) {
+        long count = getLong(key, fallback);
+        if (count < 0 || count > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Кількість " + key + " має бути невід'ємним цілим числом: " + values.get(key));
+        }
+        return (int) count;
+    }
+
+    // чи зберігати світ лінивими фрагментами замість повної бітової карти
+    // (аргумент storage=dense|chunked, за замовчуванням - фрагменти для дуже великих світів).
+    public boolean isChunkedStorage() {
+        String storage = getString("storage", getGridSize() > CHUNKED_STORAGE_THRESHOLD ? "chunked" : "dense");
+        return storage.equalsIgnoreCase("chunked");
+    }
+
+    // створення світу з параметрами цієї конфігурації.
+    // @param seed зерно світу.
+    // @param verbose чи друкувати розміщення об'єктів.
+    public Cave newWorld(long seed, boolean verbose) {
+        if (isChunkedStorage()) {
+            return new ChunkedWampusWorld(getGridSize(), getWampusCount(), getGoldCount(), getPitDensity(), seed, verbose);
+        }
+        return new WampusWorld(getGridSize(), getWampusCount(), getGoldCount(), getPitDensity(), seed, verbose);
+    }
+
+    // режим прийняття рішень навігатора (аргумент mode=planner|probabilistic|hindsight).
+    public DecisionMode getDecisionMode() {
+        String mode = getString("mode", DecisionMode.PLANNER.name());
+        try {
+            return DecisionMode.valueOf(mode.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Конфігурація: невідомий режим mode=" + mode + ", використовую " + DecisionMode.PLANNER);
+            return DecisionMode.PLANNER;
+        }
+    }
+
+    // планувальник шляхів навігатора (аргумент planner=flat|hierarchical|incremental,
+    // за замовчуванням - ієрархічний для великих світів).
+    public PlannerType getPlannerType() {
+        String planner = getString("planner", getGridSize() >= HIERARCHICAL_PLANNER_THRESHOLD ? "hierarchical" : "flat");
+        try {
+            return PlannerType.valueOf(planner.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Конфігурація: невідомий планувальник planner=" + planner + ", використовую " + PlannerType.FLAT);
+            return PlannerType.FLAT;
+        }
+    }
+
+    // створення навігатора з режимом і параметрами цієї конфігурації:
+    // maxRisk - найбільша допустима ймовірність загибелі для кроку в невідоме,
+    // riskBudgetMs - бюджет часу на оцінку ризиків за хід,
+    // maxComponentCells - найбільша компонента межі, що перебирається точно,
+    // hindsightBudgetMs - дедлайн пошуку режиму hindsight за хід, hindsightWorkers - кількість паралельних пошуків
+    // (за замовчуванням - кількість процесорів, а в турнірі з кількома потоками - 1).
+    public Navigator newNavigator() {
+        return newNavigator(null);
+    }
+
+    // те саме зі спільним кешем рішень.
+    // @param decisionCache кеш рішень за хешем стану (null - без кешу).
+    public Navigator newNavigator(DecisionCache decisionCache) {
+        return newNavigator(decisionCache, Runtime.getRuntime().availableProcessors());
+    }
+
+    // те саме з іншою кількістю паралельних пошуків Монте-Карло за замовчуванням.
+    // @param defaultWorkers кількість пошуків, якщо аргумент hindsightWorkers не задано.
+    public Navigator newNavigator(DecisionCache decisionCache, int defaultWorkers) {
+        Navigator navigator = new Navigator(getGridSize(), getWampusCount());
+        navigator.setDecisionCache(decisionCache);
+        navigator.setPlannerType(getPlannerType());
+        DecisionMode mode = getDecisionMode();
+        if (mode == DecisionMode.PROBABILISTIC) {
+            navigator.enableRiskEstimation(
+                    new RiskEstimator(getPitDensity(), (int) getLong("maxcomponentcells", RiskEstimator.DEFAULT_MAX_COMPONENT_CELLS)),
+                    getDouble("maxrisk", Navigator.DEFAULT_MAX_RISK),
+                    getLong("riskbudgetms", Navigator.DEFAULT_RISK_BUDGET_MS));
+        } else if (mode == DecisionMode.HINDSIGHT) {
+            navigator.enableMonteCarlo(
+                    new MonteCarloPlanner(getPitDensity(), (int) getLong("hindsightworkers", defaultWorkers)),
+                    getLong("hindsightbudgetms", MonteCarloPlanner.DEFAULT_BUDGET_MS));
+        }
+        return navigator;
+    }
+
+    // спільний кеш рішень навігаторів (аргумент decisionCacheBits - логарифм кількості записів,
+    // за замовчуванням 20, тобто близько мільйона записів і 8 МБ; 0 вимикає кеш).
+    // кеш діє лише в режимі planner з плоским планувальником, де рішення залежить тільки від стану.
+    // @return кеш або null, якщо кеш вимкнено або не застосовний.
+    public DecisionCache newDecisionCache() {
+        int bits = (int) getLong("decisioncachebits", 20);
+        if (getDecisionMode() != DecisionMode.PLANNER || getPlannerType() != PlannerType.FLAT) {
+            return null;
+        }
+        return bits > 0 ? new DecisionCache(bits) : null;
+    }
+
+    // генератор випадкових чисел: детермінований, якщо задано зерно.
+    // @param salt додаток до зерна, щоб різні споживачі не отримували однакову послідовність.
+    public Random newRandom(long salt) {
+        return hasSeed() ? new Random(getSeed(0) ^ salt) : new Random();
+    }
+
+    public long getLong(String key, long fallback) {
+        String value = values.get(key);
+        if (value == null) return fallback;
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            System.err.println("Конфігурація: некоректне значення " + key + "=" + value + ", використовую " + fallback);
+            return fallback;
+        }
+    }
+
+    public double getDouble(String key, double fallback) {
+        String value = values.get(key);
+        if (value == null) return fallback;
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            System.err.println("Конфігурація: некоректне значення " + key + "=" + value + ", використовую " + fallback);
+            return fallback;
+        }
+    }
+
+    public boolean getBoolean(String key, boolean fallback) {
+        String value = values.get(key);
+        return value == null ? fallback : Boolean.parseBoolean(value);
+    }
+
+    public String getString(String key, String fallback) {
+        return values.getOrDefault(key, fallback);
+    }
+
+    @Override
+    public String toString() {
+        return "Конфігурація гри " + values;
+    }
+}
@@ -0,0 +1,339 @@
+package WampusWorld;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import static WampusWorld.WampusWorldCore.Cave;
+import static WampusWorld.WampusWorldCore.Direction;
+import static WampusWorld.WampusWorldCore.PerceptionType;
+import static WampusWorld.WampusWorldCore.Action;
+import static WampusWorld.WampusWorldCore.MAX_PRINTED_GRID_SIZE;
+
+
+// ігровий рушій світу Вампуса без JADE: правила середовища (переміщення, постріл,
+// підбирання золота, підйом) виконуються безпосередньо в одному потоці.
+// агент-середовище є лише адаптером, що перетворює ACL-повідомлення на виклики рушія.
+public class GameEngine {
+    private final Cave wampusWorld; // світ Вампуса (щільний або фрагментований)
+    private final AgentState explorerState; // поточний стан спелеолога
+    private final long initialTime; // для відстеження часу виконання задачі
+    private int currentTurn; // лічильник виконаних дій
+    private boolean gameOver = false; // флаг завершення гри
+    private String outcome; // результат гри (SUCCESS/FAIL), якщо гра завершена
+    private boolean verbose = false; // чи друкувати перебіг гри в консоль
+    // події останньої дії (BUMP після удару об стіну, SCREAM після вбивства Вампуса),
+    // які додаються до сприйнять кімнати лише до наступної дії
+    private final Set<PerceptionType> lastEvents = EnumSet.noneOf(PerceptionType.class);
+
+    // результат однієї повністю зіграної гри.
+    public static class GameResult {
+        private final boolean success;
+        private final int turns;
+        private final String outcome;
+        private final long elapsedNanos;
+
+        public GameResult(boolean success, int turns, String outcome, long elapsedNanos) {
+            this.success = success;
+            this.turns = turns;
+            this.outcome = outcome;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public boolean isSuccess() { return success; }
+        public int getTurns() { return turns; }
+        public String getOutcome() { return outcome; }
+        public long getElapsedNanos() { return elapsedNanos; }
+
+        @Override
+        public String toString() {
+            return outcome + " (ходів: " + turns + ", " + (elapsedNanos / 1000) + " мкс)";
+        }
+    }
+
+    // спелеолог починає в (0,0) і дивиться на схід.
+    // @param wampusWorld світ, у якому відбувається гра.
+    public GameEngine(Cave wampusWorld) {
+        this.wampusWorld = wampusWorld;
+        this.explorerState = new AgentState(0, 0, Direction.EAST);
+        this.initialTime = System.currentTimeMillis();
+        this.currentTurn = 0;
+    }
+
+    public Cave getWorld() { return wampusWorld; }
+    public AgentState getExplorerState() { return explorerState; }
+    public int getCurrentTurn() { return currentTurn; }
+    public boolean isGameOver() { return gameOver; }
+    public String getOutcome() { return outcome; }
+    public long getInitialTime() { return initialTime; }
+    public void setVerbose(boolean verbose) { this.verbose = verbose; }
+
+    public boolean isSuccess() {
+        return outcome != null && outcome.startsWith("SUCCESS");
+    }
+
+    // обробка дії спелеолога.
+    // @param action дія, яку виконує спелеолог.
+    // @return сприйняття в новому стані або порожній набір, якщо гра завершилася.
+    public Set<PerceptionType> step(Action action) {
+        if (gameOver) {
+            return EnumSet.noneOf(PerceptionType.class);
+        }
+        currentTurn++;
+        lastEvents.clear();
+        int currentX = explorerState.getX();
+        int currentY = explorerState.getY();
+
+        log("Середовище: спелеолог виконує дію: " + action);
+
+        switch (action) {
+            case FORWARD:
+                boolean moved = explorerState.moveForward(wampusWorld.getSize(), wampusWorld.getSize());
+                if (!moved) {
+                    explorerState.setX(currentX);
+                    explorerState.setY(currentY);
+                    lastEvents.add(PerceptionType.BUMP);
+                    log("Середовище: спелеолог зіткнувся зі стіною! Залишається у (" + currentX + ", " + currentY + ")");
+                } else {
+                    int x = explorerState.getX();
+                    int y = explorerState.getY();
+                    log("Середовище: спелеолог перемістився до (" + x + ", " + y + ")");
+                    if (wampusWorld.hasPit(x, y)) {
+                        log("Середовище: спелеолог впав у яму! Гра завершена.");
+                        finish("FAIL: Впав у яму");
+                    } else if (wampusWorld.hasWampus(x, y) && wampusWorld.isWampusAlive()) {
+                        log("Середовище: Вампус з'їв спелеолога! Гра завершена.");
+                        finish("FAIL: З'їдений Вампусом");
+                    } else {
+                        wampusWorld.setExplored(x, y, true);
+                    }
+                }
+                break;
+            case TURN_LEFT:
+                explorerState.turnLeft();
+                log("Середовище: спелеолог повернув ліворуч. Новий напрямок: " + explorerState.getDirection());
+                break;
+            case TURN_RIGHT:
+                explorerState.turnRight();
+                log("Середовище: спелеолог повернув праворуч. Новий напрямок: " + explorerState.getDirection());
+                break;
+            case SHOOT:
+                if (explorerState.useArrow()) {
+                    log("Середовище: спелеолог вистрілив! Залишилося стріл: 0");
+                    if (shootAlong(explorerState.getDirection(), currentX, currentY)) {
+                        lastEvents.add(PerceptionType.SCREAM);
+                        log("Середовище: Вампуса вбито! Крик чутно.");
+                    } else {
+                        log("Середовище: Вампус не вбитий. Стріла пролетіла повз.");
+                    }
+                } else {
+                    log("Середовище: немає стріл! Дія SHOOT неможлива.");
+                }
+                break;
+            case GRAB:
+                if (wampusWorld.hasGold(currentX, currentY)) {
+                    explorerState.setHasGold(true);
+                    wampusWorld.setHasGold(currentX, currentY, false);
+                    log("Середовище: спелеолог схопив золото! Тепер має золото: " + explorerState.hasGold());
+                } else {
+                    log("Середовище: золота немає в цій кімнаті. Дія GRAB неможлива.");
+                }
+                break;
+            case CLIMB:
+                log("Середовище: спелеолог намагається піднятися...");
+                if (currentX == 0 && currentY == 0) {
+                    if (explorerState.hasGold()) {
+                        log("Середовище: спелеолог піднявся із золотом! Успіх!");
+                        finish("SUCCESS: Золото здобуто");
+                    } else {
+                        log("Середовище: спелеолог піднявся без золота. Невдача.");
+                        finish("FAIL: Без золота");
+                    }
+                } else {
+                    log("Середовище: можна піднятися лише в початковій кімнаті (0,0). Спелеолог знаходиться у (" + currentX + ", " + currentY + ")");
+                }
+                break;
+        }
+        // сприйняття світу підтримуються інкрементно (вбивство Вампуса, підбирання золота),
+        // тому дії, що не змінюють небезпек, не потребують перерахунку
+        if (gameOver) {
+            return EnumSet.noneOf(PerceptionType.class);
+        }
+        return currentPerceptions();
+    }
+
+    // пакетне виконання плану навігатора: дії виконуються по черзі, поки сприйняття після
+    // кожної з них збігаються з очікуваними, і до завершення гри.
+    // сприйняття після останньої виконаної дії повертає currentPerceptions().
+    // @param plan план дій з очікуваними сприйняттями.
+    // @return кількість виконаних дій (щонайменше одна, якщо гра ще триває).
+    public int executePlan(ActionPlan plan) {
+        int executed = 0;
+        while (executed < plan.size() && !gameOver) {
+            Set<PerceptionType> perceptions = step(plan.getAction(executed));
+            executed++;
+            if (!plan.matches(executed - 1, perceptions)) {
+                if (executed < plan.size()) {
+                    log("Середовище: сприйняття " + perceptions + " після дії " + executed + " плану не збігаються з очікуваними, план перервано.");
+                }
+                break;
+            }
+        }
+        return executed;
+    }
+
+    // покрокове виконання макрокоманди: перехід переривається на першому кроці, що дає спелеологу
+    // нову інформацію, - вхід у ще не досліджену клітинку або удар об стіну. сприйняття досліджених
+    // клітинок навігатор уже знає, тому вони можуть відрізнятися від початкових без переривання.
+    // сприйняття і позицію після останньої виконаної дії повертають currentPerceptions() і getExplorerState().
+    // @param macro макрокоманда.
+    // @return кількість виконаних примітивних дій.
+    // @throws IllegalArgumentException якщо шлях некоректний або ціль недосяжна дослідженими клітинками.
+    public int executeMacro(MacroCommand macro) {
+        List<Action> actions = macro.expand(wampusWorld, explorerState);
+        if (actions == null) {
+            throw new IllegalArgumentException("Ціль недосяжна дослідженими клітинками: " + macro.format());
+        }
+        int executed = 0;
+        for (Action action : actions) {
+            boolean unexplored = action == Action.FORWARD && !isAheadExplored();
+            Set<PerceptionType> perceptions = step(action);
+            executed++;
+            if (gameOver) {
+                return executed;
+            }
+            boolean bump = perceptions.contains(PerceptionType.BUMP);
+            if (bump || unexplored) {
+                if (executed < actions.size()) {
+                    log("Середовище: макрокоманду " + macro.format() + " перервано після " + executed + " дій"
+                            + (bump ? " (удар об стіну)." : " (нова клітинка, сприйняття: " + perceptions + ")."));
+                }
+                return executed;
+            }
+        }
+        if (macro.isHomeClimb()) {
+            step(Action.CLIMB);
+            executed++;
+        }
+        return executed;
+    }
+
+    // чи досліджена клітинка перед спелеологом (стартова вважається дослідженою, стіна - теж,
+    // бо крок у неї закінчується ударом).
+    private boolean isAheadExplored() {
+        int x = explorerState.getX();
+        int y = explorerState.getY();
+        switch (explorerState.getDirection()) {
+            case NORTH: y--; break;
+            case EAST: x++; break;
+            case SOUTH: y++; break;
+            case WEST: x--; break;
+        }
+        return !wampusWorld.isInside(x, y) || (x == 0 && y == 0) || wampusWorld.isExplored(x, y);
+    }
+
+    // політ стріли від позиції спелеолога до краю карти у заданому напрямку.
+    // @return true, якщо стріла влучила у живого Вампуса.
+    private boolean shootAlong(Direction direction, int fromX, int fromY) {
+        int dx = 0, dy = 0;
+        switch (direction) {
+            case NORTH: dy = -1; break;
+            case EAST: dx = 1; break;
+            case SOUTH: dy = 1; break;
+            case WEST: dx = -1; break;
+        }
+        for (int x = fromX, y = fromY; wampusWorld.isInside(x, y); x += dx, y += dy) {
+            // запах прибирається лише навколо вбитого Вампуса
+            if (wampusWorld.killWampus(x, y)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // отримання поточних сприйнять для кімнати, де знаходиться спелеолог,
+    // разом з ударом об стіну чи криком після останньої дії.
+    // @return набір сприйнять.
+    public Set<PerceptionType> currentPerceptions() {
+        Set<PerceptionType> perceptions = wampusWorld.getPerceptions(explorerState.getX(), explorerState.getY());
+        perceptions.addAll(lastEvents);
+        if (perceptions.isEmpty()) {
+            perceptions.add(PerceptionType.SAFE);
+        }
+        return perceptions;
+    }
+
+    // фіксує результат гри.
+    // @param gameOutcome результат гри (SUCCESS/FAIL).
+    private void finish(String gameOutcome) {
+        gameOver = true;
+        outcome = gameOutcome;
+        long endTime = System.currentTimeMillis();
+        log("Середовище: гра завершена після " + currentTurn + " ходів за " + (endTime - initialTime) + " мс.");
+    }
+
+    // формування рядка сприйнять для агента-спелеолога (наприклад, "STENCH;BREEZE").
+    // @param perceptions набір сприйнять.
+    // @return строкове представлення сприйнять.
+    public static String formatPerceptions(Set<PerceptionType> perceptions) {
+        StringBuilder sb = new StringBuilder();
+        if (perceptions.contains(PerceptionType.STENCH)) sb.append("STENCH;");
+        if (perceptions.contains(PerceptionType.BREEZE)) sb.append("BREEZE;");
+        if (perceptions.contains(PerceptionType.GLITTER)) sb.append("GLITTER;");
+        if (perceptions.contains(PerceptionType.BUMP)) sb.append("BUMP;");
+        if (perceptions.contains(PerceptionType.SCREAM)) sb.append("SCREAM;");
+        if (perceptions.contains(PerceptionType.SAFE) && sb.length() == 0) sb.append("SAFE;");
+        if (sb.length() > 0) {
+            sb.setLength(sb.length() - 1);
+        }
+        return sb.toString();
+    }
+
+    // повна гра навігатора в цьому рушії без обміну повідомленнями.
+    // @param navigator політика навігатора.
+    // @param maxTurns обмеження кількості дій (захист від нескінченних ігор).
+    // @return результат гри.
+    public GameResult play(Navigator navigator, int maxTurns) {
+        long start = System.nanoTime();
+        Set<PerceptionType> perceptions = currentPerceptions();
+        while (!gameOver && currentTurn < maxTurns) {
+            perceptions = step(navigator.nextAction(perceptions));
+        }
+        if (!gameOver) {
+            finish("FAIL: Ліміт ходів");
+        }
+        return new GameResult(isSuccess(), currentTurn, outcome, System.nanoTime() - start);
+    }
+
+    // друк карти світу і стану спелеолога (для великих світів лише стан спелеолога).
+    public void printState() {
+        if (wampusWorld.getSize() > MAX_PRINTED_GRID_SIZE) {
+            System.out.println(explorerState);
+            return;
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append("Поточний стан світу Вампуса:\n");
+        for (int i = 0; i < wampusWorld.getSize(); i++) {
+            for (int j = 0; j < wampusWorld.getSize(); j++) {
+                sb.append("|");
+                if (explorerState.getX() == j && explorerState.getY() == i) {
+                    sb.append("A"); // Агент
+                } else {
+                    if (wampusWorld.hasGold(j, i)) sb.append("G");
+                    if (wampusWorld.hasPit(j, i)) sb.append("P");
+                    if (wampusWorld.hasWampus(j, i) && wampusWorld.isWampusAlive()) sb.append("W");
+                    if (wampusWorld.hasStench(j, i)) sb.append("S");
+                    if (wampusWorld.hasBreeze(j, i)) sb.append("B");
+                    sb.append(" ");
+                }
+            }
+            sb.append("|\n"); // кінець рядка мапи
+        }
+        sb.append(explorerState.toString()).append("\n"); // стан спелеолога
+        System.out.print(sb.toString()); // весь зібраний текст одним блоком
+    }
+
+    private void log(String message) {
+        if (verbose) {
+            System.out.println(message);
+        }
+    }
+}
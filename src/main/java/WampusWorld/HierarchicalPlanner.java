@@ -0,0 +1,440 @@
+package WampusWorld;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import static WampusWorld.WampusWorldCore.Direction;
+import static WampusWorld.WampusWorldCore.Action;
+
+
+// ієрархічний планувальник шляху (у стилі HPA*) для великих печер.
+// карта ділиться на кластери clusterSize x clusterSize. на спільній межі двох кластерів кожен
+// максимальний відрізок прохідних пар клітинок дає вхід - середню пару відрізка. для кожного
+// кластера кешуються його входи і відстані між ними всередині кластера; кластер перебудовується
+// лише після invalidate() для клітинки в ньому або на його межі (нова безпечна клітинка).
+// абстрактний пошук Дейкстри йде графом входів від поточної клітинки до найближчої цілі,
+// а уточнення ледаче: пласкому PathPlanner передається лише наступна проміжна точка,
+// обмежена двома сусідніми кластерами, тому затримка ходу не залежить від площі печери.
+public class HierarchicalPlanner {
+    public static final int DEFAULT_CLUSTER_SIZE = 16;
+    private static final int SINK = -1; // вершина "ціль досягнута" абстрактного пошуку
+    private static final int[] DX = {0, 1, 0, -1};
+    private static final int[] DY = {-1, 0, 1, 0};
+
+    private final int gridSize;
+    private final int clusterSize;
+    private final int clustersPerSide;
+    private final Map<Integer, Cluster> clusters = new HashMap<>(); // лише кластери, до яких зверталися
+    private final PathPlanner local; // уточнення шляху до наступної проміжної точки
+    private PathPlanner.CellPredicate passable;
+    private int[] bfsQueue;
+    private int[] bfsDistance;
+
+    // кешований абстрактний шлях: проміжні точки до цілі (остання - сама ціль)
+    private final ArrayDeque<Integer> waypoints = new ArrayDeque<>();
+    private long pathVersion = -1;
+    private Object pathGoal;
+    private int targetX = -1;
+    private int targetY = -1;
+
+    // входи кластера і відстані між ними всередині кластера.
+    private static class Cluster {
+        int[] entrances = new int[0]; // індекси клітинок y*gridSize+x
+        int[][] distances; // [i][j] - кроків від входу i до входу j, -1 - недосяжний
+        boolean dirty = true;
+    }
+
+    // @param gridSize розмір світу.
+    // @param clusterSize сторона кластера.
+    public HierarchicalPlanner(int gridSize, int clusterSize) {
+        this.gridSize = gridSize;
+        this.clusterSize = clusterSize;
+        this.clustersPerSide = (gridSize + clusterSize - 1) / clusterSize;
+        this.local = new PathPlanner(gridSize);
+        this.bfsQueue = new int[clusterSize * clusterSize];
+        this.bfsDistance = new int[clusterSize * clusterSize];
+    }
+
+    private HierarchicalPlanner(HierarchicalPlanner other) {
+        this.gridSize = other.gridSize;
+        this.clusterSize = other.clusterSize;
+        this.clustersPerSide = other.clustersPerSide;
+        for (Map.Entry<Integer, Cluster> entry : other.clusters.entrySet()) {
+            Cluster source = entry.getValue();
+            Cluster cluster = new Cluster();
+            cluster.entrances = source.entrances; // масиви кластера лише замінюються при перебудові
+            cluster.distances = source.distances;
+            cluster.dirty = source.dirty;
+            clusters.put(entry.getKey(), cluster);
+        }
+        this.local = other.local.copy();
+        this.bfsQueue = new int[clusterSize * clusterSize];
+        this.bfsDistance = new int[clusterSize * clusterSize];
+        this.waypoints.addAll(other.waypoints);
+        this.pathVersion = other.pathVersion;
+        this.pathGoal = other.pathGoal;
+        this.targetX = other.targetX;
+        this.targetY = other.targetY;
+    }
+
+    // незалежна копія з уже побудованими графами входів кластерів і кешованим шляхом.
+    public HierarchicalPlanner copy() {
+        return new HierarchicalPlanner(this);
+    }
+
+    // ціль останнього знайденого плану.
+    public int getTargetX() { return targetX; }
+    public int getTargetY() { return targetY; }
+
+    // кількість кластерів, для яких побудовано граф входів.
+    public int getClusterCount() { return clusters.size(); }
+
+    // позначає кластер клітинки (і сусідній, якщо клітинка на межі) для перебудови.
+    // викликається при кожній зміні прохідності клітинки.
+    public void invalidate(int x, int y) {
+        markDirty(x, y);
+        int cx = x % clusterSize;
+        int cy = y % clusterSize;
+        if (cx == 0 && x > 0) markDirty(x - 1, y);
+        if (cx == clusterSize - 1 && x + 1 < gridSize) markDirty(x + 1, y);
+        if (cy == 0 && y > 0) markDirty(x, y - 1);
+        if (cy == clusterSize - 1 && y + 1 < gridSize) markDirty(x, y + 1);
+    }
+
+    private void markDirty(int x, int y) {
+        Cluster cluster = clusters.get(clusterOf(x, y));
+        if (cluster != null) {
+            cluster.dirty = true;
+        }
+    }
+
+    // наступна дія на шляху до найближчої клітинки-цілі.
+    // @param passable прохідні клітинки; між викликами змінюється лише разом з invalidate().
+    // @param goalCells індекси клітинок-цілей (ціль може бути непрохідною - тоді це кінцевий крок).
+    // @param goalKey ідентифікатор цілі для кешу абстрактного шляху.
+    // @param knowledgeVersion версія знань; абстрактний шлях перераховується при її зміні.
+    // @return дія або null, якщо жодна інша клітинка-ціль недосяжна.
+    public Action nextStep(int x, int y, Direction direction, PathPlanner.CellPredicate passable,
+                           Collection<Integer> goalCells, Object goalKey, long knowledgeVersion) {
+        this.passable = passable;
+        int here = y * gridSize + x;
+        boolean replanned = false;
+        if (knowledgeVersion != pathVersion || !goalKey.equals(pathGoal)) {
+            replan(here, goalCells, goalKey, knowledgeVersion);
+            replanned = true;
+        }
+        while (true) {
+            while (!waypoints.isEmpty() && waypoints.peekFirst() == here) {
+                waypoints.pollFirst();
+            }
+            Action action = waypoints.isEmpty() ? null : refine(x, y, direction, waypoints.peekFirst(), knowledgeVersion);
+            if (action != null || replanned) {
+                return action;
+            }
+            // спелеолог відхилився від шляху або шлях вичерпано - пошук заново
+            replan(here, goalCells, goalKey, knowledgeVersion);
+            replanned = true;
+        }
+    }
+
+    private void replan(int start, Collection<Integer> goalCells, Object goalKey, long knowledgeVersion) {
+        pathVersion = knowledgeVersion;
+        pathGoal = goalKey;
+        waypoints.clear();
+        targetX = -1;
+        targetY = -1;
+        search(start, goalCells);
+        if (!waypoints.isEmpty()) {
+            targetX = waypoints.peekLast() % gridSize;
+            targetY = waypoints.peekLast() / gridSize;
+        }
+    }
+
+    // крок плаского планувальника до проміжної точки в межах поточного кластера і кластера точки.
+    private Action refine(int x, int y, Direction direction, int waypoint, long knowledgeVersion) {
+        int wx = waypoint % gridSize;
+        int wy = waypoint / gridSize;
+        int minX = Math.min(x, wx) / clusterSize * clusterSize;
+        int minY = Math.min(y, wy) / clusterSize * clusterSize;
+        int maxX = Math.max(x, wx) / clusterSize * clusterSize + clusterSize;
+        int maxY = Math.max(y, wy) / clusterSize * clusterSize + clusterSize;
+        PathPlanner.CellPredicate cells = passable;
+        return local.nextStep(x, y, direction,
+                (cx, cy) -> cx >= minX && cx < maxX && cy >= minY && cy < maxY
+                        && ((cx == wx && cy == wy) || cells.test(cx, cy)),
+                (cx, cy) -> cx == wx && cy == wy, waypoint, knowledgeVersion);
+    }
+
+    // абстрактний пошук Дейкстри від start до найближчої цілі; результат - у waypoints.
+    private void search(int start, Collection<Integer> goalCells) {
+        if (goalCells.size() > clusterSize * clusterSize && searchStartCluster(start, goalCells)) {
+            return;
+        }
+        // цілі за кластерами: невеликі множини розкладаються одразу, великі - лише в кластерах,
+        // до яких дійшов пошук, щоб час пошуку не залежав від розміру межі
+        boolean lazyGoals = goalCells.size() > clusterSize * clusterSize;
+        Map<Integer, List<Integer>> goalsByCluster = new HashMap<>();
+        if (!lazyGoals) {
+            for (int goal : goalCells) {
+                if (goal != start) {
+                    goalsByCluster.computeIfAbsent(clusterOf(goal % gridSize, goal / gridSize), k -> new ArrayList<>()).add(goal);
+                }
+            }
+            if (goalsByCluster.isEmpty()) {
+                return;
+            }
+        }
+        Map<Integer, Integer> distance = new HashMap<>();
+        Map<Integer, Integer> parent = new HashMap<>();
+        PriorityQueue<Long> queue = new PriorityQueue<>();
+        int[] sink = {Integer.MAX_VALUE, -1, -1}; // відстань, клітинка-ціль, вершина, з якої до неї йдемо
+
+        // початкова клітинка: відстані до входів і цілей свого кластера
+        int startCluster = clusterOf(start % gridSize, start / gridSize);
+        Cluster cluster = cluster(startCluster);
+        int[] bounds = bounds(startCluster);
+        localSearch(start, bounds);
+        distance.put(start, 0);
+        if (indexOf(cluster.entrances, start) >= 0) {
+            queue.add(start & 0xFFFFFFFFL);
+        }
+        for (int entrance : cluster.entrances) {
+            int d = localDistance(entrance, bounds);
+            if (d > 0) relax(entrance, d, start, distance, parent, queue);
+        }
+        reachGoals(start, 0, goalsIn(startCluster, start, goalCells, lazyGoals, goalsByCluster), bounds, sink, queue);
+
+        while (!queue.isEmpty()) {
+            long entry = queue.poll();
+            int node = (int) entry;
+            int d = (int) (entry >>> 32);
+            if (node == SINK) break;
+            if (d > distance.get(node)) continue;
+            int nx = node % gridSize;
+            int ny = node / gridSize;
+            int index = clusterOf(nx, ny);
+            cluster = cluster(index);
+            int from = indexOf(cluster.entrances, node);
+            if (from < 0) continue; // кластер перебудовано, вхід зник
+            for (int j = 0; j < cluster.entrances.length; j++) {
+                int step = cluster.distances[from][j];
+                if (step > 0) relax(cluster.entrances[j], d + step, node, distance, parent, queue);
+            }
+            // перехід через межу до входу сусіднього кластера
+            for (int i = 0; i < 4; i++) {
+                int ax = nx + DX[i];
+                int ay = ny + DY[i];
+                if (ax < 0 || ax >= gridSize || ay < 0 || ay >= gridSize || clusterOf(ax, ay) == index
+                        || !passable.test(ax, ay)) continue;
+                int across = ay * gridSize + ax;
+                if (indexOf(cluster(clusterOf(ax, ay)).entrances, across) >= 0) {
+                    relax(across, d + 1, node, distance, parent, queue);
+                }
+            }
+            List<Integer> goals = goalsIn(index, start, goalCells, lazyGoals, goalsByCluster);
+            if (goals != null) {
+                bounds = bounds(index);
+                localSearch(node, bounds);
+                reachGoals(node, d, goals, bounds, sink, queue);
+            }
+        }
+        if (sink[1] < 0) {
+            return;
+        }
+        waypoints.addFirst(sink[1]);
+        for (int node = sink[2]; node != start; node = parent.get(node)) {
+            waypoints.addFirst(node);
+        }
+    }
+
+    // швидкий шлях для великих множин цілей (межа дослідженої частини): найближча ціль,
+    // досяжна всередині кластера спелеолога, без розкладання всіх цілей по кластерах.
+    // приймається, лише якщо ціль поза кластером не може бути ближчою (не далі межі кластера).
+    // @return true, якщо ціль знайдено (записано в waypoints).
+    private boolean searchStartCluster(int start, Collection<Integer> goalCells) {
+        int[] b = bounds(clusterOf(start % gridSize, start / gridSize));
+        int best = localSearch(start, b, goalCells);
+        if (best < 0) {
+            return false;
+        }
+        int sx = start % gridSize;
+        int sy = start / gridSize;
+        int toBorder = Math.min(Math.min(sx - b[0], b[2] - 1 - sx), Math.min(sy - b[1], b[3] - 1 - sy));
+        if (localDistance(best, b) > toBorder + 1) {
+            return false;
+        }
+        waypoints.add(best);
+        return true;
+    }
+
+    // цілі в кластері (без початкової клітинки) або null, якщо їх немає.
+    private List<Integer> goalsIn(int index, int start, Collection<Integer> goalCells, boolean lazyGoals,
+                                  Map<Integer, List<Integer>> goalsByCluster) {
+        if (!lazyGoals || goalsByCluster.containsKey(index)) {
+            return goalsByCluster.get(index);
+        }
+        int[] b = bounds(index);
+        List<Integer> goals = null;
+        for (int y = b[1]; y < b[3]; y++) {
+            for (int x = b[0]; x < b[2]; x++) {
+                int cell = y * gridSize + x;
+                if (cell != start && goalCells.contains(cell)) {
+                    if (goals == null) goals = new ArrayList<>();
+                    goals.add(cell);
+                }
+            }
+        }
+        goalsByCluster.put(index, goals);
+        return goals;
+    }
+
+    private static void relax(int node, int d, int from, Map<Integer, Integer> distance,
+                              Map<Integer, Integer> parent, PriorityQueue<Long> queue) {
+        Integer known = distance.get(node);
+        if (known == null || d < known) {
+            distance.put(node, d);
+            parent.put(node, from);
+            queue.add(((long) d << 32) | (node & 0xFFFFFFFFL));
+        }
+    }
+
+    // оновлення найкращої цілі відстанями останнього локального пошуку від вершини node.
+    private void reachGoals(int node, int d, List<Integer> goals, int[] bounds, int[] sink, PriorityQueue<Long> queue) {
+        if (goals == null) return;
+        for (int goal : goals) {
+            int step = localDistance(goal, bounds);
+            if (step >= 0 && d + step < sink[0]) {
+                sink[0] = d + step;
+                sink[1] = goal;
+                sink[2] = node;
+                queue.add(((long) sink[0] << 32) | (SINK & 0xFFFFFFFFL));
+            }
+        }
+    }
+
+    // кластер з актуальним графом входів.
+    private Cluster cluster(int index) {
+        Cluster cluster = clusters.computeIfAbsent(index, k -> new Cluster());
+        if (cluster.dirty) {
+            rebuild(index, cluster);
+        }
+        return cluster;
+    }
+
+    // пошук входів на чотирьох сторонах кластера і відстаней між ними.
+    private void rebuild(int index, Cluster cluster) {
+        int[] b = bounds(index);
+        Set<Integer> entrances = new LinkedHashSet<>();
+        if (b[0] > 0) scanSide(b[0], b[1], 0, 1, b[3] - b[1], -1, 0, entrances);
+        if (b[2] < gridSize) scanSide(b[2] - 1, b[1], 0, 1, b[3] - b[1], 1, 0, entrances);
+        if (b[1] > 0) scanSide(b[0], b[1], 1, 0, b[2] - b[0], 0, -1, entrances);
+        if (b[3] < gridSize) scanSide(b[0], b[3] - 1, 1, 0, b[2] - b[0], 0, 1, entrances);
+        cluster.entrances = entrances.stream().mapToInt(Integer::intValue).toArray();
+        int n = cluster.entrances.length;
+        cluster.distances = new int[n][n];
+        for (int i = 0; i < n; i++) {
+            localSearch(cluster.entrances[i], b);
+            for (int j = 0; j < n; j++) {
+                cluster.distances[i][j] = localDistance(cluster.entrances[j], b);
+            }
+        }
+        cluster.dirty = false;
+    }
+
+    // відрізки прохідних пар уздовж сторони: клітинка (x,y) кластера і (x+ox, y+oy) за межею.
+    private void scanSide(int x, int y, int stepX, int stepY, int length, int ox, int oy, Set<Integer> entrances) {
+        int runStart = -1;
+        for (int i = 0; i <= length; i++) {
+            int cx = x + stepX * i;
+            int cy = y + stepY * i;
+            boolean open = i < length && passable.test(cx, cy) && passable.test(cx + ox, cy + oy);
+            if (open && runStart < 0) {
+                runStart = i;
+            } else if (!open && runStart >= 0) {
+                int middle = (runStart + i - 1) / 2;
+                entrances.add((y + stepY * middle) * gridSize + x + stepX * middle);
+                runStart = -1;
+            }
+        }
+    }
+
+    // межі кластера: {minX, minY, maxX, maxY} (max - не включно).
+    private int[] bounds(int index) {
+        int minX = index % clustersPerSide * clusterSize;
+        int minY = index / clustersPerSide * clusterSize;
+        return new int[] {minX, minY, Math.min(minX + clusterSize, gridSize), Math.min(minY + clusterSize, gridSize)};
+    }
+
+    private int clusterOf(int x, int y) {
+        return y / clusterSize * clustersPerSide + x / clusterSize;
+    }
+
+    // пошук у ширину прохідними клітинками кластера; відстані - у bfsDistance.
+    private void localSearch(int from, int[] b) {
+        localSearch(from, b, null);
+    }
+
+    // те саме з зупинкою на першій (найближчій) клітинці з stopAt.
+    // @return знайдена клітинка або -1 (тоді пройдено весь кластер).
+    private int localSearch(int from, int[] b, Collection<Integer> stopAt) {
+        int width = b[2] - b[0];
+        Arrays.fill(bfsDistance, -1);
+        int head = 0;
+        int tail = 0;
+        int fx = from % gridSize;
+        int fy = from / gridSize;
+        bfsDistance[(fy - b[1]) * width + fx - b[0]] = 0;
+        bfsQueue[tail++] = (fy - b[1]) * width + fx - b[0];
+        while (head < tail) {
+            int cell = bfsQueue[head++];
+            int cx = cell % width + b[0];
+            int cy = cell / width + b[1];
+            if (stopAt != null && head > 1 && stopAt.contains(cy * gridSize + cx)) {
+                return cy * gridSize + cx;
+            }
+            for (int i = 0; i < 4; i++) {
+                int nx = cx + DX[i];
+                int ny = cy + DY[i];
+                if (nx < b[0] || nx >= b[2] || ny < b[1] || ny >= b[3]) continue;
+                int next = (ny - b[1]) * width + nx - b[0];
+                if (bfsDistance[next] < 0 && passable.test(nx, ny)) {
+                    bfsDistance[next] = bfsDistance[cell] + 1;
+                    bfsQueue[tail++] = next;
+                }
+            }
+        }
+        return -1;
+    }
+
+    // відстань останнього локального пошуку до клітинки; до непрохідної цілі - через прохідного сусіда.
+    // @return кроків або -1, якщо недосяжна.
+    private int localDistance(int cellKey, int[] b) {
+        int width = b[2] - b[0];
+        int x = cellKey % gridSize;
+        int y = cellKey / gridSize;
+        int own = bfsDistance[(y - b[1]) * width + x - b[0]];
+        if (own >= 0) return own;
+        int best = -1;
+        for (int i = 0; i < 4; i++) {
+            int nx = x + DX[i];
+            int ny = y + DY[i];
+            if (nx < b[0] || nx >= b[2] || ny < b[1] || ny >= b[3]) continue;
+            int d = bfsDistance[(ny - b[1]) * width + nx - b[0]];
+            if (d >= 0 && (best < 0 || d + 1 < best)) best = d + 1;
+        }
+        return best;
+    }
+
+    private static int indexOf(int[] cells, int cell) {
+        for (int i = 0; i < cells.length; i++) {
+            if (cells[i] == cell) return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,386 @@
+package WampusWorld;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import static WampusWorld.WampusWorldCore.Direction;
+import static WampusWorld.WampusWorldCore.Action;
+
+
+// інкрементний планувальник шляху (D* Lite) по станах (x, y, напрямок), як у PathPlanner.
+// пошук іде від цілі до спелеолога: до клітинок-цілей веде ребро нульової вартості у спільну
+// вершину-стік. дерево пошуку зберігається між ходами окремо для кожної цілі; після нової
+// безпечної клітинки перераховуються лише вершини, чия вартість змінилася, а рух спелеолога
+// враховується зміщенням km без перебудови черги.
+// значення g і rhs зберігаються сторінками, що створюються при першому скінченному значенні
+// (як у KnowledgeMap), тому пам'ять дерева пропорційна станам, яких торкнувся пошук.
+// застарілі записи черги (вершина вже узгоджена або ключ змінився) відкидаються ліниво,
+// а коли їх стає забагато, чергу перебудовано з поточними ключами неузгоджених вершин.
+public class IncrementalPlanner {
+    private static final int INFINITY = Integer.MAX_VALUE / 4;
+    private static final int MAX_SEARCHES = 4; // дерева пошуку для різних цілей (найдавніші відкидаються)
+    private static final int MIN_COMPACT_SIZE = 1024; // менша черга не перебудовується
+    private static final int[] DX = {0, 1, 0, -1};
+    private static final int[] DY = {-1, 0, 1, 0};
+
+    private final int gridSize;
+    private final int sink; // номер вершини-стоку
+    private final int pageBits; // log2 довжини сторінки значень g і rhs
+    private final Map<Object, Search> searches = new LinkedHashMap<>(MAX_SEARCHES * 2, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Object, Search> eldest) {
+            return size() > MAX_SEARCHES;
+        }
+    };
+    private PathPlanner.CellPredicate passable;
+
+    public IncrementalPlanner(int gridSize) {
+        this.gridSize = gridSize;
+        this.sink = 4 * gridSize * gridSize;
+        this.pageBits = KnowledgeMap.pageBits(sink + 1L);
+    }
+
+    private IncrementalPlanner(IncrementalPlanner other, PathPlanner.CellPredicate passable) {
+        this.gridSize = other.gridSize;
+        this.sink = other.sink;
+        this.pageBits = other.pageBits;
+        this.passable = passable;
+        for (Map.Entry<Object, Search> entry : other.searches.entrySet()) {
+            searches.put(entry.getKey(), new Search(entry.getValue()));
+        }
+    }
+
+    // незалежна копія з уже обчисленими деревами пошуку.
+    // @param passable прохідні клітинки для власника копії (cellChanged() перевіряє їх одразу).
+    public IncrementalPlanner copy(PathPlanner.CellPredicate passable) {
+        return new IncrementalPlanner(this, passable);
+    }
+
+    // клітинка стала прохідною: перераховуються стани, з яких у неї можна ступити.
+    public void cellChanged(int x, int y) {
+        for (Search search : searches.values()) {
+            search.cellChanged(x, y);
+        }
+    }
+
+    // наступна дія на найкоротшому шляху до найближчої клітинки-цілі.
+    // @param passable прохідні клітинки; зміни повідомляються через cellChanged().
+    // @param goalCells клітинки-цілі (стала множина для goalKey); непрохідна ціль досяжна як кінцевий крок.
+    // @param goalKey ідентифікатор цілі, для якого зберігається дерево пошуку.
+    // @return дія або null, якщо жодна інша клітинка-ціль недосяжна.
+    public Action nextStep(int x, int y, Direction direction, PathPlanner.CellPredicate passable,
+                           Collection<Integer> goalCells, Object goalKey) {
+        this.passable = passable;
+        Search search = searches.get(goalKey);
+        if (search == null) {
+            search = new Search(goalCells);
+            searches.put(goalKey, search);
+        }
+        return search.nextStep(((y * gridSize + x) << 2) | direction.ordinal());
+    }
+
+    // дерево пошуку D* Lite для однієї цілі.
+    private class Search {
+        private final Set<Integer> goals;
+        private final int[][] gPages; // null - усі значення сторінки нескінченні
+        private final int[][] rhsPages;
+        private int inconsistent = 0; // кількість вершин з g != rhs (кожна має запис у черзі)
+        private final OpenList open = new OpenList();
+        private int start = -1;
+        private int last = -1; // стан спелеолога на момент останніх змін
+        private int km = 0;
+
+        Search(Collection<Integer> goalCells) {
+            goals = new HashSet<>(goalCells);
+            int pages = (int) ((sink + 1L + (1 << pageBits) - 1) >>> pageBits); // + вершина-стік
+            gPages = new int[pages][];
+            rhsPages = new int[pages][];
+            setRhs(sink, 0);
+            open.add(key(sink), sink);
+        }
+
+        Search(Search other) {
+            goals = other.goals; // множина цілей не змінюється
+            gPages = copyPages(other.gPages);
+            rhsPages = copyPages(other.rhsPages);
+            inconsistent = other.inconsistent;
+            open.copyFrom(other.open);
+            start = other.start;
+            last = other.last;
+            km = other.km;
+        }
+
+        void cellChanged(int x, int y) {
+            for (int dir = 0; dir < 4; dir++) {
+                int px = x - DX[dir];
+                int py = y - DY[dir];
+                if (inside(px, py)) {
+                    changed(((py * gridSize + px) << 2) | dir);
+                }
+            }
+        }
+
+        // зміна вартості ребер з вершини: поправка km на рух спелеолога і оновлення вершини.
+        private void changed(int state) {
+            if (last >= 0 && start >= 0 && last != start) {
+                km += heuristic(last, start);
+                last = start;
+            }
+            updateVertex(state);
+        }
+
+        Action nextStep(int state) {
+            if (start < 0) {
+                last = state;
+            }
+            start = state;
+            computeShortestPath();
+            int best = INFINITY;
+            Action action = null;
+            int cell = state >>> 2;
+            int dir = state & 3;
+            int nx = cell % gridSize + DX[dir];
+            int ny = cell / gridSize + DY[dir];
+            if (inside(nx, ny) && enterable(nx, ny)) {
+                int forward = ((ny * gridSize + nx) << 2) | dir;
+                if (1 + g(forward) < best) {
+                    best = 1 + g(forward);
+                    action = Action.FORWARD;
+                }
+            }
+            int right = (cell << 2) | ((dir + 1) & 3);
+            if (1 + g(right) < best) {
+                best = 1 + g(right);
+                action = Action.TURN_RIGHT;
+            }
+            int left = (cell << 2) | ((dir + 3) & 3);
+            if (1 + g(left) < best) {
+                best = 1 + g(left);
+                action = Action.TURN_LEFT;
+            }
+            if (goals.contains(cell) || best >= INFINITY) {
+                return null; // спелеолог уже в цілі або жодна ціль недосяжна
+            }
+            return action;
+        }
+
+        private void computeShortestPath() {
+            while (!open.isEmpty()) {
+                long top = open.peekKey();
+                if (top >= key(start) && g(start) == rhs(start)) {
+                    break;
+                }
+                int u = open.poll();
+                int gu = g(u);
+                int rhsU = rhs(u);
+                if (gu == rhsU) {
+                    continue; // застарілий запис черги
+                }
+                long current = key(u);
+                if (top < current) {
+                    enqueue(current, u);
+                } else if (gu > rhsU) {
+                    setG(u, rhsU);
+                    updatePredecessors(u);
+                } else {
+                    setG(u, INFINITY);
+                    updateVertex(u);
+                    updatePredecessors(u);
+                }
+            }
+        }
+
+        private void updatePredecessors(int u) {
+            if (u == sink) {
+                for (int goal : goals) {
+                    for (int dir = 0; dir < 4; dir++) {
+                        updateVertex((goal << 2) | dir);
+                    }
+                }
+                return;
+            }
+            int cell = u >>> 2;
+            int dir = u & 3;
+            // повороти в напрямок dir
+            updateVertex((cell << 2) | ((dir + 1) & 3));
+            updateVertex((cell << 2) | ((dir + 3) & 3));
+            // крок уперед у клітинку cell
+            int x = cell % gridSize;
+            int y = cell / gridSize;
+            int px = x - DX[dir];
+            int py = y - DY[dir];
+            if (inside(px, py) && enterable(x, y)) {
+                updateVertex(((py * gridSize + px) << 2) | dir);
+            }
+        }
+
+        private void updateVertex(int u) {
+            if (u != sink) {
+                int cell = u >>> 2;
+                int dir = u & 3;
+                int best = goals.contains(cell) ? g(sink) : INFINITY;
+                best = Math.min(best, 1 + g((cell << 2) | ((dir + 1) & 3)));
+                best = Math.min(best, 1 + g((cell << 2) | ((dir + 3) & 3)));
+                int nx = cell % gridSize + DX[dir];
+                int ny = cell / gridSize + DY[dir];
+                if (inside(nx, ny) && enterable(nx, ny)) {
+                    best = Math.min(best, 1 + g(((ny * gridSize + nx) << 2) | dir));
+                }
+                setRhs(u, Math.min(best, INFINITY));
+            }
+            if (g(u) != rhs(u)) {
+                enqueue(key(u), u);
+            }
+        }
+
+        private void enqueue(long key, int u) {
+            open.add(key, u);
+            if (open.size() >= MIN_COMPACT_SIZE && open.size() > 4 * inconsistent) {
+                compactOpen();
+            }
+        }
+
+        // перебудова черги: по одному запису з поточним ключем для кожної неузгодженої вершини.
+        private void compactOpen() {
+            Set<Integer> queued = new HashSet<>();
+            OpenList fresh = new OpenList();
+            while (!open.isEmpty()) {
+                int u = open.poll();
+                if (g(u) != rhs(u) && queued.add(u)) {
+                    fresh.add(key(u), u);
+                }
+            }
+            open.copyFrom(fresh);
+        }
+
+        // ключ вершини [min(g, rhs) + h + km, min(g, rhs)], упакований в одне число
+        // (лексикографічний порядок пари збігається з порядком чисел).
+        private long key(int u) {
+            int m = Math.min(g(u), rhs(u));
+            long h = u == sink || start < 0 ? 0 : heuristic(start, u);
+            long first = m >= INFINITY ? INFINITY : m + h + km;
+            return (first << 31) | m;
+        }
+
+        private int g(int u) {
+            return read(gPages, u);
+        }
+
+        private int rhs(int u) {
+            return read(rhsPages, u);
+        }
+
+        private void setG(int u, int value) {
+            boolean wasInconsistent = g(u) != rhs(u);
+            write(gPages, u, value);
+            countConsistency(u, wasInconsistent);
+        }
+
+        private void setRhs(int u, int value) {
+            boolean wasInconsistent = g(u) != rhs(u);
+            write(rhsPages, u, value);
+            countConsistency(u, wasInconsistent);
+        }
+
+        private void countConsistency(int u, boolean wasInconsistent) {
+            boolean isInconsistent = g(u) != rhs(u);
+            if (isInconsistent != wasInconsistent) {
+                inconsistent += isInconsistent ? 1 : -1;
+            }
+        }
+
+        private int read(int[][] pages, int u) {
+            int[] page = pages[u >>> pageBits];
+            return page == null ? INFINITY : page[u & ((1 << pageBits) - 1)];
+        }
+
+        private void write(int[][] pages, int u, int value) {
+            int[] page = pages[u >>> pageBits];
+            if (page == null) {
+                if (value >= INFINITY) return; // нескінченність - значення за замовчуванням
+                page = new int[1 << pageBits];
+                Arrays.fill(page, INFINITY);
+                pages[u >>> pageBits] = page;
+            }
+            page[u & ((1 << pageBits) - 1)] = value;
+        }
+
+        private boolean enterable(int x, int y) {
+            return passable.test(x, y) || goals.contains(y * gridSize + x);
+        }
+    }
+
+    // двійкова купа вершин за ключами без створення об'єктів на кожен запис.
+    private static class OpenList {
+        private long[] keys = new long[64];
+        private int[] states = new int[64];
+        private int size = 0;
+
+        boolean isEmpty() { return size == 0; }
+        int size() { return size; }
+
+        void copyFrom(OpenList other) {
+            keys = other.keys.clone();
+            states = other.states.clone();
+            size = other.size;
+        }
+        long peekKey() { return keys[0]; }
+
+        void add(long key, int state) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                states = Arrays.copyOf(states, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (keys[parent] <= key) break;
+                keys[i] = keys[parent];
+                states[i] = states[parent];
+                i = parent;
+            }
+            keys[i] = key;
+            states[i] = state;
+        }
+
+        int poll() {
+            int result = states[0];
+            long key = keys[--size];
+            int state = states[size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) break;
+                if (child + 1 < size && keys[child + 1] < keys[child]) child++;
+                if (keys[child] >= key) break;
+                keys[i] = keys[child];
+                states[i] = states[child];
+                i = child;
+            }
+            keys[i] = key;
+            states[i] = state;
+            return result;
+        }
+    }
+
+    private static int[][] copyPages(int[][] pages) {
+        int[][] copy = new int[pages.length][];
+        for (int i = 0; i < pages.length; i++) {
+            if (pages[i] != null) copy[i] = pages[i].clone();
+        }
+        return copy;
+    }
+
+    // манхеттенська відстань між клітинками станів (допустима: кожна дія змінює її не більше ніж на 1).
+    private int heuristic(int a, int b) {
+        int ca = a >>> 2;
+        int cb = b >>> 2;
+        return Math.abs(ca % gridSize - cb % gridSize) + Math.abs(ca / gridSize - cb / gridSize);
+    }
+
+    private boolean inside(int x, int y) {
+        return x >= 0 && x < gridSize && y >= 0 && y < gridSize;
+    }
+}
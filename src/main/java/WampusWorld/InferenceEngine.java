@@ -0,0 +1,236 @@
+package WampusWorld;
+import java.util.Arrays;
+
+
+// пропозиційна база знань навігатора: для кожної клітинки є змінні P (яма) і W (Вампус).
+// правила світу кодуються диз'юнктами:
+//   вітер у (x,y)        -> P(n1) | P(n2) | ... по сусідах;
+//   немає вітру у (x,y)  -> !P(n) для кожного сусіда (одиничні факти);
+//   запах / немає запаху -> те саме для W.
+// нові факти поширюються одиничним виведенням зі спостережуваними літералами (watched literals):
+// кожен диз'юнкт стежить за двома незаперечними літералами і переглядається лише тоді,
+// коли один з них стає хибним, тому час виведення пропорційний зачепленим диз'юнктам.
+// усі виведені літерали записуються в стрічку (trail), яку навігатор читає з останньої позиції.
+// значення змінних і списки спостереження зберігаються сторінками, що створюються при першому
+// записі (як у KnowledgeMap), а стрічка росте за потреби, тому пам'ять бази знань пропорційна
+// зачепленим клітинкам, а не площі печери.
+public class InferenceEngine {
+    public static final int PIT = 0;
+    public static final int WAMPUS = 1;
+
+    private final int gridSize;
+    private final int valueBits; // log2 довжини сторінки значень
+    private final byte[][] values; // значення змінних: 0 - невідомо, 1 - істина, -1 - хибність
+    private int[][] clauses = new int[16][]; // диз'юнкти з двох і більше літералів; [0] і [1] - спостережувані
+    private int clauseCount = 0;
+    private final int watchBits; // log2 довжини сторінки списків спостереження
+    private final int[][][] watches; // індекси диз'юнктів, що спостерігають літерал
+    private final int[][] watchCounts;
+    private int[] trail = new int[16]; // виведені літерали в порядку виведення
+    private int trailSize = 0;
+    private int propagated = 0; // позиція стрічки, до якої виконано поширення
+    private boolean conflict = false; // суперечність (неузгоджені сприйняття)
+
+    // @param gridSize розмір світу.
+    public InferenceEngine(int gridSize) {
+        this.gridSize = gridSize;
+        long variables = 2L * gridSize * gridSize;
+        this.valueBits = KnowledgeMap.pageBits(variables);
+        this.values = new byte[pageCount(variables, valueBits)][];
+        this.watchBits = KnowledgeMap.pageBits(2 * variables);
+        this.watches = new int[pageCount(2 * variables, watchBits)][][];
+        this.watchCounts = new int[watches.length][];
+    }
+
+    private InferenceEngine(InferenceEngine other) {
+        this.gridSize = other.gridSize;
+        this.valueBits = other.valueBits;
+        this.values = new byte[other.values.length][];
+        for (int i = 0; i < values.length; i++) {
+            if (other.values[i] != null) values[i] = other.values[i].clone();
+        }
+        this.clauses = new int[other.clauses.length][];
+        for (int i = 0; i < other.clauseCount; i++) {
+            this.clauses[i] = other.clauses[i].clone(); // поширення переставляє спостережувані літерали
+        }
+        this.clauseCount = other.clauseCount;
+        this.watchBits = other.watchBits;
+        this.watches = new int[other.watches.length][][];
+        this.watchCounts = new int[other.watchCounts.length][];
+        for (int p = 0; p < watches.length; p++) {
+            if (other.watches[p] == null) continue;
+            watches[p] = new int[other.watches[p].length][];
+            for (int i = 0; i < watches[p].length; i++) {
+                if (other.watches[p][i] != null) watches[p][i] = other.watches[p][i].clone();
+            }
+            watchCounts[p] = other.watchCounts[p].clone();
+        }
+        this.trail = Arrays.copyOf(other.trail, Math.max(16, other.trailSize));
+        this.trailSize = other.trailSize;
+        this.propagated = other.propagated;
+        this.conflict = other.conflict;
+    }
+
+    private static int pageCount(long entries, int pageBits) {
+        return (int) ((entries + (1 << pageBits) - 1) >>> pageBits);
+    }
+
+    // незалежна копія бази знань (для міркувань наперед).
+    public InferenceEngine copy() {
+        return new InferenceEngine(this);
+    }
+
+    // змінна клітинки.
+    // @param type PIT або WAMPUS.
+    public int variable(int x, int y, int type) {
+        return ((y * gridSize + x) << 1) | type;
+    }
+
+    // літерал змінної: позитивний (var істинна) або заперечний.
+    public static int literal(int variable, boolean positive) {
+        return (variable << 1) | (positive ? 0 : 1);
+    }
+
+    public static int variableOf(int literal) { return literal >>> 1; }
+    public static boolean isPositive(int literal) { return (literal & 1) == 0; }
+
+    // X/Y-координати клітинки змінної.
+    public int xOf(int variable) { return (variable >>> 1) % gridSize; }
+    public int yOf(int variable) { return (variable >>> 1) / gridSize; }
+    public static int typeOf(int variable) { return variable & 1; }
+
+    // значення змінної клітинки.
+    // @return 1 - доведено, -1 - спростовано, 0 - невідомо.
+    public int valueOf(int x, int y, int type) {
+        return value(variable(x, y, type));
+    }
+
+    private int value(int variable) {
+        byte[] page = values[variable >>> valueBits];
+        return page == null ? 0 : page[variable & ((1 << valueBits) - 1)];
+    }
+
+    public boolean hasConflict() { return conflict; }
+    public int getTrailSize() { return trailSize; }
+    public int getTrailLiteral(int index) { return trail[index]; }
+
+    // додає факт (одиничний диз'юнкт).
+    // @param literal літерал, що є істинним.
+    public void addFact(int literal) {
+        assign(literal);
+    }
+
+    // додає диз'юнкт літералів; одиничні та вже виконані диз'юнкти не зберігаються.
+    // @param literals літерали диз'юнкта.
+    public void addClause(int[] literals) {
+        int[] clause = new int[literals.length];
+        int size = 0;
+        for (int lit : literals) {
+            int value = litValue(lit);
+            if (value > 0) return; // диз'юнкт уже виконано
+            if (value == 0) clause[size++] = lit;
+        }
+        if (size == 0) {
+            conflict = true;
+            return;
+        }
+        if (size == 1) {
+            assign(clause[0]);
+            return;
+        }
+        clause = Arrays.copyOf(clause, size);
+        if (clauseCount == clauses.length) {
+            clauses = Arrays.copyOf(clauses, clauseCount * 2);
+        }
+        int index = clauseCount++;
+        clauses[index] = clause;
+        watch(clause[0], index);
+        watch(clause[1], index);
+    }
+
+    // одиничне виведення для всіх ще не оброблених літералів стрічки.
+    public void propagate() {
+        while (propagated < trailSize) {
+            int falseLiteral = trail[propagated++] ^ 1; // літерал, що щойно став хибним
+            int page = falseLiteral >>> watchBits;
+            int slot = falseLiteral & ((1 << watchBits) - 1);
+            if (watches[page] == null) continue; // за літералом ще ніхто не спостерігає
+            int[] list = watches[page][slot];
+            int count = watchCounts[page][slot];
+            int kept = 0;
+            for (int i = 0; i < count; i++) {
+                int index = list[i];
+                int[] clause = clauses[index];
+                if (clause[0] == falseLiteral) { // хибний літерал тримаємо в позиції [1]
+                    clause[0] = clause[1];
+                    clause[1] = falseLiteral;
+                }
+                if (litValue(clause[0]) > 0) { // диз'юнкт уже виконано
+                    list[kept++] = index;
+                    continue;
+                }
+                boolean moved = false;
+                for (int j = 2; j < clause.length; j++) {
+                    if (litValue(clause[j]) >= 0) { // знайдено новий незаперечний літерал для спостереження
+                        clause[1] = clause[j];
+                        clause[j] = falseLiteral;
+                        watch(clause[1], index);
+                        moved = true;
+                        break;
+                    }
+                }
+                if (moved) continue;
+                list[kept++] = index;
+                if (litValue(clause[0]) < 0) {
+                    conflict = true; // усі літерали хибні
+                } else {
+                    assign(clause[0]); // лишився єдиний можливий літерал
+                }
+            }
+            watchCounts[page][slot] = kept;
+        }
+    }
+
+    private int litValue(int literal) {
+        int value = value(literal >>> 1);
+        return (literal & 1) == 0 ? value : -value;
+    }
+
+    private void assign(int literal) {
+        int value = litValue(literal);
+        if (value > 0) return;
+        if (value < 0) {
+            conflict = true;
+            return;
+        }
+        int variable = literal >>> 1;
+        byte[] page = values[variable >>> valueBits];
+        if (page == null) {
+            page = new byte[1 << valueBits];
+            values[variable >>> valueBits] = page;
+        }
+        page[variable & ((1 << valueBits) - 1)] = (byte) ((literal & 1) == 0 ? 1 : -1);
+        if (trailSize == trail.length) {
+            trail = Arrays.copyOf(trail, trailSize * 2);
+        }
+        trail[trailSize++] = literal;
+    }
+
+    private void watch(int literal, int clauseIndex) {
+        int page = literal >>> watchBits;
+        int slot = literal & ((1 << watchBits) - 1);
+        if (watches[page] == null) {
+            watches[page] = new int[1 << watchBits][];
+            watchCounts[page] = new int[1 << watchBits];
+        }
+        int[] list = watches[page][slot];
+        if (list == null) {
+            list = new int[4];
+            watches[page][slot] = list;
+        } else if (watchCounts[page][slot] == list.length) {
+            list = Arrays.copyOf(list, list.length * 2);
+            watches[page][slot] = list;
+        }
+        list[watchCounts[page][slot]++] = clauseIndex;
+    }
+}
@@ -0,0 +1,110 @@
+package WampusWorld;
+
+
+// карта знань навігатора: прапорці всіх клітинок упаковані в один масив short
+// (індекс y*gridSize+x, біт 1<<flag), тому карта 4x4 займає 32 байти замість шістнадцяти
+// об'єктів з десятьма полями boolean, а тисячі карт сесій не навантажують купу заголовками
+// і посиланнями. прапорці відповідають полям колишнього NavigatorCellInfo; правило "безпечна
+// клітинка не буває підозрілою" підтримує навігатор, через який проходять усі записи.
+// масив поділено на сторінки до PAGE_SIZE клітинок, які створюються при першому записі,
+// тому у великій печері пам'ять пропорційна дослідженій частині, а не площі.
+public class KnowledgeMap {
+    // прапорці клітинки (номери збігаються з ознаками клітинки Zobrist)
+    public static final int VISITED = 0;
+    public static final int SAFE = 1;
+    public static final int WAMPUS_SUSPECT = 2;
+    public static final int PIT_SUSPECT = 3;
+    public static final int WAMPUS_CONFIRMED = 4;
+    public static final int PIT_CONFIRMED = 5;
+    public static final int GOLD_CONFIRMED = 6;
+    public static final int GLITTER = 7;
+    public static final int STENCH = 8;
+    public static final int BREEZE = 9;
+    public static final int FLAG_COUNT = 10;
+
+    private static final int PAGE_BITS = 12;
+    public static final int PAGE_SIZE = 1 << PAGE_BITS; // 4096 клітинок (8 КБ) на сторінку
+
+    private final int gridSize;
+    private final int pageBits; // log2 довжини сторінки (менша за PAGE_BITS для малих карт)
+    private final short[][] pages; // null - сторінка ще не записувалася (усі прапорці зняті)
+
+    // @param gridSize розмір світу.
+    public KnowledgeMap(int gridSize) {
+        this.gridSize = gridSize;
+        this.pageBits = pageBits((long) gridSize * gridSize);
+        this.pages = new short[(int) (((long) gridSize * gridSize + (1 << pageBits) - 1) >>> pageBits)][];
+    }
+
+    private KnowledgeMap(KnowledgeMap other) {
+        this.gridSize = other.gridSize;
+        this.pageBits = other.pageBits;
+        this.pages = new short[other.pages.length][];
+        for (int i = 0; i < pages.length; i++) {
+            if (other.pages[i] != null) pages[i] = other.pages[i].clone();
+        }
+    }
+
+    // log2 довжини сторінки для масиву з entries елементів: не більше PAGE_BITS,
+    // а мала карта займає одну сторінку точно свого розміру.
+    static int pageBits(long entries) {
+        return Math.min(PAGE_BITS, 64 - Long.numberOfLeadingZeros(Math.max(1, entries - 1)));
+    }
+
+    // незалежна копія карти.
+    public KnowledgeMap copy() {
+        return new KnowledgeMap(this);
+    }
+
+    public int getGridSize() { return gridSize; }
+
+    // @param flag VISITED ... BREEZE.
+    // @return чи встановлено прапорець клітинки.
+    public boolean get(int x, int y, int flag) {
+        return (getFlags(x, y) & (1 << flag)) != 0;
+    }
+
+    // встановлення або зняття прапорця. записує лише Navigator.setFlag, який разом з прапорцем
+    // оновлює хеш стану і повідомляє планувальники про нові безпечні клітинки.
+    // @param flag VISITED ... BREEZE.
+    // @param value нове значення.
+    // @return true, якщо значення змінилося.
+    boolean set(int x, int y, int flag, boolean value) {
+        int index = y * gridSize + x;
+        int bits = getFlags(x, y);
+        int updated = value ? bits | (1 << flag) : bits & ~(1 << flag);
+        if (updated == bits) {
+            return false;
+        }
+        page(index)[index & ((1 << pageBits) - 1)] = (short) updated;
+        return true;
+    }
+
+    // усі прапорці клітинки одним значенням (біт 1<<flag).
+    public int getFlags(int x, int y) {
+        int index = y * gridSize + x;
+        short[] page = pages[index >>> pageBits];
+        return page == null ? 0 : page[index & ((1 << pageBits) - 1)];
+    }
+
+    // сторінка клітинки для запису (створюється при першому зверненні).
+    private short[] page(int index) {
+        short[] page = pages[index >>> pageBits];
+        if (page == null) {
+            page = new short[1 << pageBits];
+            pages[index >>> pageBits] = page;
+        }
+        return page;
+    }
+
+    public boolean isVisited(int x, int y) { return get(x, y, VISITED); }
+    public boolean isSafe(int x, int y) { return get(x, y, SAFE); }
+    public boolean isWampusSuspect(int x, int y) { return get(x, y, WAMPUS_SUSPECT); }
+    public boolean isPitSuspect(int x, int y) { return get(x, y, PIT_SUSPECT); }
+    public boolean isWampusConfirmed(int x, int y) { return get(x, y, WAMPUS_CONFIRMED); }
+    public boolean isPitConfirmed(int x, int y) { return get(x, y, PIT_CONFIRMED); }
+    public boolean isGoldConfirmed(int x, int y) { return get(x, y, GOLD_CONFIRMED); }
+    public boolean isPerceivedGlitter(int x, int y) { return get(x, y, GLITTER); }
+    public boolean isPerceivedStench(int x, int y) { return get(x, y, STENCH); }
+    public boolean isPerceivedBreeze(int x, int y) { return get(x, y, BREEZE); }
+}
@@ -0,0 +1,163 @@
+package WampusWorld;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import static WampusWorld.WampusWorldCore.Cave;
+import static WampusWorld.WampusWorldCore.Direction;
+import static WampusWorld.WampusWorldCore.Action;
+
+
+// макрокоманда для середовища (онтологія "wampus-macro"): одна дія або довгий перехід,
+// який середовище виконує покроково за одне повідомлення.
+//   "FORWARD"                 - одна примітивна дія;
+//   "GOTO:3,2"                - перехід до клітинки (3,2) найкоротшим шляхом по дослідженим клітинкам;
+//   "GOTO:3,2:1,0;2,0;2,1;3,1;3,2" - перехід уздовж заданих клітинок (кожна сусідня з попередньою);
+//   "HOME_CLIMB"              - повернення до (0,0) по дослідженим клітинкам і підйом.
+// перехід переривається на першому кроці в ще не досліджену клітинку або після удару об стіну:
+// лише тоді спелеолог дізнається щось нове, і навігатор має обрати наступну дію заново.
+public class MacroCommand {
+    public static final String ONTOLOGY = "wampus-macro";
+
+    private final Action action; // примітивна дія (null для переходів)
+    private final boolean climb; // HOME_CLIMB
+    private final int targetX;
+    private final int targetY;
+    private final List<int[]> path; // клітинки шляху (null - шлях обирає середовище)
+
+    private MacroCommand(Action action, boolean climb, int targetX, int targetY, List<int[]> path) {
+        this.action = action;
+        this.climb = climb;
+        this.targetX = targetX;
+        this.targetY = targetY;
+        this.path = path;
+    }
+
+    public static MacroCommand of(Action action) {
+        return new MacroCommand(action, false, -1, -1, null);
+    }
+
+    // @param path клітинки {x, y} від першого кроку до цілі включно або null.
+    public static MacroCommand goTo(int x, int y, List<int[]> path) {
+        return new MacroCommand(null, false, x, y, path);
+    }
+
+    public static MacroCommand homeClimb() {
+        return new MacroCommand(null, true, 0, 0, null);
+    }
+
+    public Action getAction() { return action; }
+    public boolean isPrimitive() { return action != null; }
+    public boolean isHomeClimb() { return climb; }
+
+    // @return текстовий вигляд команди.
+    public String format() {
+        if (action != null) {
+            return action.name();
+        }
+        if (climb) {
+            return "HOME_CLIMB";
+        }
+        StringBuilder sb = new StringBuilder("GOTO:").append(targetX).append(',').append(targetY);
+        if (path != null) {
+            sb.append(':');
+            for (int i = 0; i < path.size(); i++) {
+                if (i > 0) sb.append(';');
+                sb.append(path.get(i)[0]).append(',').append(path.get(i)[1]);
+            }
+        }
+        return sb.toString();
+    }
+
+    // розбір текстового вигляду команди.
+    // @throws IllegalArgumentException якщо команда або координати некоректні.
+    public static MacroCommand parse(String content) {
+        if (content == null) {
+            throw new IllegalArgumentException("Порожня команда");
+        }
+        String text = content.trim().toUpperCase();
+        if (text.equals("HOME_CLIMB")) {
+            return homeClimb();
+        }
+        if (!text.startsWith("GOTO:")) {
+            return of(Action.valueOf(text));
+        }
+        String[] parts = text.substring("GOTO:".length()).split(":");
+        int[] target = parseCell(parts[0]);
+        List<int[]> path = null;
+        if (parts.length > 1) {
+            path = new ArrayList<>();
+            for (String cell : parts[1].split(";")) {
+                path.add(parseCell(cell));
+            }
+            int[] last = path.get(path.size() - 1);
+            if (last[0] != target[0] || last[1] != target[1]) {
+                throw new IllegalArgumentException("Шлях не закінчується в цілі: " + content);
+            }
+        }
+        return goTo(target[0], target[1], path);
+    }
+
+    private static int[] parseCell(String text) {
+        String[] xy = text.split(",");
+        if (xy.length != 2) {
+            throw new IllegalArgumentException("Некоректна клітинка: " + text);
+        }
+        return new int[] {Integer.parseInt(xy[0].trim()), Integer.parseInt(xy[1].trim())};
+    }
+
+    // примітивні дії переходу (без підйому) з поточної позиції спелеолога.
+    // @param world світ (дослідженість клітинок для вибору шляху).
+    // @param explorer стан спелеолога.
+    // @return дії або null, якщо ціль недосяжна дослідженими клітинками.
+    // @throws IllegalArgumentException якщо заданий шлях виходить за межі світу або має розриви.
+    List<Action> expand(Cave world, AgentState explorer) {
+        if (action != null) {
+            List<Action> single = new ArrayList<>();
+            single.add(action);
+            return single;
+        }
+        int x = explorer.getX();
+        int y = explorer.getY();
+        if (path == null) {
+            if (x == targetX && y == targetY) {
+                return new ArrayList<>();
+            }
+            // шлях лише по клітинках, які спелеолог уже пройшов (середовище не підказує невідоме)
+            ArrayDeque<Action> planned = new PathPlanner(world.getSize()).plan(x, y, explorer.getDirection(),
+                    (cx, cy) -> world.isExplored(cx, cy) || (cx == 0 && cy == 0) || (cx == targetX && cy == targetY),
+                    (cx, cy) -> cx == targetX && cy == targetY);
+            return planned.isEmpty() ? null : new ArrayList<>(planned);
+        }
+        List<Action> actions = new ArrayList<>();
+        int dir = explorer.getDirection().ordinal();
+        for (int[] cell : path) {
+            if (!world.isInside(cell[0], cell[1])) {
+                throw new IllegalArgumentException("Клітинка шляху поза світом: " + cell[0] + "," + cell[1]);
+            }
+            int wanted = directionTo(cell[0] - x, cell[1] - y);
+            if (wanted < 0) {
+                throw new IllegalArgumentException("Клітинка шляху не сусідня з попередньою: " + cell[0] + "," + cell[1]);
+            }
+            int turns = (wanted - dir) & 3;
+            if (turns == 3) {
+                actions.add(Action.TURN_LEFT);
+            } else {
+                for (int i = 0; i < turns; i++) actions.add(Action.TURN_RIGHT);
+            }
+            actions.add(Action.FORWARD);
+            dir = wanted;
+            x = cell[0];
+            y = cell[1];
+        }
+        return actions;
+    }
+
+    // напрямок (порядок Direction) кроку на сусідню клітинку або -1.
+    private static int directionTo(int dx, int dy) {
+        if (dx == 0 && dy == -1) return Direction.NORTH.ordinal();
+        if (dx == 1 && dy == 0) return Direction.EAST.ordinal();
+        if (dx == 0 && dy == 1) return Direction.SOUTH.ordinal();
+        if (dx == -1 && dy == 0) return Direction.WEST.ordinal();
+        return -1;
+    }
+}
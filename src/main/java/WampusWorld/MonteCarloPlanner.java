@@ -0,0 +1,392 @@
+package WampusWorld;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import static WampusWorld.WampusWorldCore.Direction;
+import static WampusWorld.WampusWorldCore.Action;
+
+
+// оптимізація "заднім числом" (hindsight optimization) за методом Монте-Карло з обмеженням часу.
+// кожна симуляція вибирає світ, узгоджений зі знаннями навігатора (ями в компонентах межі -
+// вибіркою з відкиданням, решта ям - за апріорною щільністю, Вампус і золото - рівномірно серед
+// можливих клітинок, кілька Вампусів - з урахуванням клітинок із запахом). варіанти дій -
+// макродії рівня навігатора: "дійти відомо безпечним шляхом до клітинки межі і ступити в неї"
+// для кожної підозрілої клітинки та "повернутися і піднятися".
+// це одноярусний бандит, а не пошук у дереві переконань (не POMCP): макродія для симуляції
+// обирається за правилом UCB1, а все після неї оцінюється у вибраному світі так, ніби спелеолог
+// його повністю знає (найкоротший безпечний шлях до золота і додому). така оцінка завищує цінність
+// подальшої розвідки, тому обережність забезпечують штраф загибелі і вибір "повернутися".
+// кілька незалежних пошуків виконуються паралельно, після дедлайну кількості симуляцій
+// макродій підсумовуються і обирається найчастіша.
+public class MonteCarloPlanner {
+    public static final long DEFAULT_BUDGET_MS = 5;
+
+    // винагороди: золото винесене з печери, загибель, кожна дія
+    static final double GOLD_REWARD = 1000;
+    static final double DEATH_REWARD = -1000;
+    static final double ACTION_REWARD = -1;
+
+    private static final double EXPLORATION = 500; // коефіцієнт UCB1 (масштаб винагород)
+    private static final int MAX_ROLLOUT_CELLS = 4096; // обмеження пошуку шляху в оцінці листка
+
+    private final double pitDensity;
+    private final int workers;
+    private final ForkJoinPool pool;
+    private final AtomicLong seedCounter = new AtomicLong(); // decide() викликається і з копій навігатора
+
+    // @param pitDensity апріорна ймовірність ями в клітинці.
+    // @param workers кількість незалежних паралельних пошуків.
+    public MonteCarloPlanner(double pitDensity, int workers) {
+        this.pitDensity = pitDensity;
+        this.workers = Math.max(1, workers);
+        this.pool = ForkJoinPool.commonPool();
+    }
+
+    // макродія: ціль (клітинка межі або -1 для повернення) і кількість дій до неї.
+    private static class Macro {
+        private final int target;
+        private final int cost;
+
+        Macro(int target, int cost) {
+            this.target = target;
+            this.cost = cost;
+        }
+    }
+
+    // найкраща макродія, знайдена до дедлайну.
+    // @param navigator знання навігатора (читаються лише до початку пошуку).
+    // @param candidates клітинки межі, в які можна ступити.
+    // @param deadlineNanos момент System.nanoTime(), коли пошук має завершитися.
+    // @return індекс клітинки, в яку варто ступити, або -1, якщо краще повернутися і піднятися.
+    public int decide(Navigator navigator, Set<Integer> candidates, long deadlineNanos) {
+        Belief belief = new Belief(navigator, pitDensity);
+        List<Macro> macros = macros(navigator, belief, candidates);
+        if (macros.size() <= 1) {
+            return -1;
+        }
+        long baseSeed = mix(seedCounter.incrementAndGet() * 0x9E3779B97F4A7C15L);
+        List<Future<long[]>> parts = new ArrayList<>();
+        for (int i = 1; i < workers; i++) {
+            long seed = baseSeed + i;
+            parts.add(pool.submit(() -> new Search(belief, macros, new Random(seed)).run(deadlineNanos)));
+        }
+        long[] visits = new Search(belief, macros, new Random(baseSeed)).run(deadlineNanos);
+        for (Future<long[]> part : parts) {
+            try {
+                long[] other = part.get();
+                for (int m = 0; m < visits.length; m++) visits[m] += other[m];
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                System.err.println("Монте-Карло: помилка пошуку: " + e.getCause());
+            }
+        }
+        // без жодної симуляції перевага лишається за першою макродією - поверненням
+        int best = 0;
+        for (int m = 1; m < visits.length; m++) {
+            if (visits[m] > visits[best]) best = m;
+        }
+        return macros.get(best).target;
+    }
+
+    // варіанти дій: повернення (перший) і крок у кожну досяжну клітинку межі без доведеної небезпеки.
+    private static List<Macro> macros(Navigator navigator, Belief belief, Set<Integer> candidates) {
+        int size = belief.gridSize;
+        PathPlanner planner = new PathPlanner(size);
+        List<Macro> macros = new ArrayList<>();
+        int home = belief.startX == 0 && belief.startY == 0 ? 0
+                : planner.plan(belief.startX, belief.startY, belief.startDirection,
+                        (x, y) -> navigator.isSafe(x, y), (x, y) -> x == 0 && y == 0).size();
+        macros.add(new Macro(-1, home + 1));
+        for (int cell : candidates) {
+            if (belief.pitKnown(cell) > 0 || belief.wampusKnown(cell) > 0) continue;
+            int tx = cell % size;
+            int ty = cell / size;
+            ArrayDeque<Action> path = planner.plan(belief.startX, belief.startY, belief.startDirection,
+                    (x, y) -> navigator.isSafe(x, y) || (x == tx && y == ty), (x, y) -> x == tx && y == ty);
+            if (!path.isEmpty()) {
+                macros.add(new Macro(cell, path.size()));
+            }
+        }
+        return macros;
+    }
+
+    // знання навігатора, з яких вибираються узгоджені світи. з карти копіюються лише розріджені
+    // індекси (обмеження межі, клітинки із запахом, доведені Вампуси), тож побудова не залежить
+    // від площі світу; значення окремих клітинок читаються з навігатора на вимогу. навігатор
+    // не змінюється, поки decide() чекає на всі пошуки, тому паралельне читання безпечне.
+    private static class Belief {
+        private final Navigator navigator;
+        private final int gridSize;
+        private final int startX, startY;
+        private final Direction startDirection;
+        private final boolean wampusAlive;
+        private final int wampusCount; // кількість Вампусів у світі
+        private final double pitDensity;
+        private final List<RiskEstimator.Component> components; // компоненти обмежень на ями
+        private final List<List<int[]>> componentConstraints = new ArrayList<>(); // обмеження кожної компоненти
+        private final BitSet constrained = new BitSet(); // клітинки, що входять у компоненти
+        private final int[] wampusCandidates; // null - будь-яка клітинка, де Вампус не спростований
+        private final List<int[]> wampusConstraints; // невідомі сусіди клітинок із запахом (кілька Вампусів)
+        private final List<Integer> confirmedWampuses;
+
+        Belief(Navigator navigator, double pitDensity) {
+            this.navigator = navigator;
+            gridSize = navigator.getGridSize();
+            startX = navigator.getExplorerX();
+            startY = navigator.getExplorerY();
+            startDirection = navigator.getExplorerDirection();
+            wampusAlive = navigator.isWampusAliveInMind();
+            wampusCount = navigator.getWampusCount();
+            this.pitDensity = pitDensity;
+            confirmedWampuses = navigator.confirmedWampusCells();
+            List<int[]> pitConstraints = navigator.pitConstraints();
+            components = RiskEstimator.split(pitConstraints);
+            Map<Integer, Integer> componentOf = new HashMap<>();
+            for (int i = 0; i < components.size(); i++) {
+                for (int cell : components.get(i).cells) {
+                    constrained.set(cell);
+                    componentOf.put(cell, i);
+                }
+                componentConstraints.add(new ArrayList<>());
+            }
+            for (int[] constraint : pitConstraints) {
+                if (constraint.length > 0) componentConstraints.get(componentOf.get(constraint[0])).add(constraint);
+            }
+            wampusConstraints = wampusCount > 1 ? navigator.wampusConstraints() : new ArrayList<>();
+            Set<Integer> candidates = navigator.getWampusCandidates();
+            if (wampusCount > 1) {
+                wampusCandidates = null;
+            } else if (!confirmedWampuses.isEmpty()) {
+                wampusCandidates = new int[] {confirmedWampuses.get(0)};
+            } else if (candidates != null) {
+                wampusCandidates = candidates.stream().filter(c -> wampusKnown(c) >= 0).mapToInt(Integer::intValue).toArray();
+            } else {
+                wampusCandidates = null;
+            }
+        }
+
+        // @return 1 - яма доведена, -1 - спростована, 0 - невідомо.
+        int pitKnown(int cell) { return navigator.pitValue(cell % gridSize, cell / gridSize); }
+        int wampusKnown(int cell) { return navigator.wampusValue(cell % gridSize, cell / gridSize); }
+        boolean visited(int cell) { return navigator.isVisited(cell % gridSize, cell / gridSize); }
+    }
+
+    // світ, вибраний для однієї симуляції, та стан спелеолога в ньому.
+    private static class SampledWorld {
+        private final Belief belief;
+        private final BitSet sampledPits = new BitSet();
+        private long pitSalt; // ями поза компонентами визначаються хешем (клітинка, сіль) лише при зверненні
+        private final BitSet wampusCells = new BitSet(); // живі Вампуси вибраного світу
+        private int goldCell;
+
+        SampledWorld(Belief belief) {
+            this.belief = belief;
+        }
+
+        void sample(Random random) {
+            int cells = belief.gridSize * belief.gridSize;
+            sampledPits.clear();
+            pitSalt = random.nextLong();
+            for (int i = 0; i < belief.components.size(); i++) {
+                samplePits(belief.components.get(i).cells, belief.componentConstraints.get(i), random);
+            }
+            wampusCells.clear();
+            if (belief.wampusAlive && belief.wampusCount > 1) {
+                sampleWampuses(random);
+            } else if (belief.wampusAlive) {
+                if (belief.wampusCandidates != null) {
+                    if (belief.wampusCandidates.length > 0) {
+                        wampusCells.set(belief.wampusCandidates[random.nextInt(belief.wampusCandidates.length)]);
+                    }
+                } else {
+                    for (int tries = 0; tries < 64 && wampusCells.isEmpty(); tries++) {
+                        int cell = random.nextInt(cells);
+                        if (!belief.visited(cell) && belief.wampusKnown(cell) >= 0) wampusCells.set(cell);
+                    }
+                }
+            }
+            goldCell = -1;
+            for (int tries = 0; tries < 64 && goldCell < 0; tries++) {
+                int cell = random.nextInt(cells);
+                if (!belief.visited(cell) && belief.pitKnown(cell) <= 0) goldCell = cell;
+            }
+        }
+
+        // кілька Вампусів: доведені, потім по випадковому сусіду для кожної ще не поясненої
+        // клітинки із запахом, решта - рівномірно серед клітинок, де Вампус не спростований.
+        private void sampleWampuses(Random random) {
+            int cells = belief.gridSize * belief.gridSize;
+            for (int cell : belief.confirmedWampuses) wampusCells.set(cell);
+            for (int[] constraint : belief.wampusConstraints) {
+                if (wampusCells.cardinality() >= belief.wampusCount) break;
+                boolean satisfied = false;
+                for (int cell : constraint) satisfied |= wampusCells.get(cell);
+                if (!satisfied) wampusCells.set(constraint[random.nextInt(constraint.length)]);
+            }
+            for (int tries = 0; tries < 64 && wampusCells.cardinality() < belief.wampusCount; tries++) {
+                int cell = random.nextInt(cells);
+                if (!belief.visited(cell) && belief.wampusKnown(cell) >= 0) wampusCells.set(cell);
+            }
+        }
+
+        // ями компоненти: вибірка з відкиданням, поки кожне обмеження не виконане. обмеження
+        // перевіряються за номерами клітинок, тому розмір компоненти не обмежений бітовою маскою.
+        private void samplePits(int[] cells, List<int[]> constraints, Random random) {
+            for (int tries = 0; tries < 256; tries++) {
+                for (int cell : cells) {
+                    sampledPits.set(cell, random.nextDouble() < belief.pitDensity);
+                }
+                if (unsatisfied(constraints) == null) return;
+            }
+            // після невдалих спроб кожне невиконане обмеження задовольняється випадковою ямою
+            for (int[] constraint = unsatisfied(constraints); constraint != null; constraint = unsatisfied(constraints)) {
+                sampledPits.set(constraint[random.nextInt(constraint.length)]);
+            }
+        }
+
+        // @return перше обмеження без ями або null, якщо виконані всі.
+        private int[] unsatisfied(List<int[]> constraints) {
+            for (int[] constraint : constraints) {
+                boolean hasPit = false;
+                for (int cell : constraint) {
+                    if (sampledPits.get(cell)) {
+                        hasPit = true;
+                        break;
+                    }
+                }
+                if (!hasPit) return constraint;
+            }
+            return null;
+        }
+
+        boolean hasPit(int cell) {
+            if (cell == goldCell) return false;
+            int known = belief.pitKnown(cell);
+            if (known != 0) return known > 0;
+            if (belief.constrained.get(cell)) return sampledPits.get(cell);
+            long h = mix(cell * 0x9E3779B97F4A7C15L ^ pitSalt);
+            return (h >>> 11) * 0x1.0p-53 < belief.pitDensity;
+        }
+
+        boolean hasLiveWampus(int cell) {
+            return wampusCells.get(cell);
+        }
+
+        // значення макродії в цьому світі: шлях до клітинки, загибель при кроці в небезпеку,
+        // далі оцінка "заднім числом" - у вибраному світі спелеолог знає все, тож іде найкоротшим
+        // безпечним шляхом по золото і додому (або одразу додому, якщо золото недосяжне).
+        double evaluate(Macro macro) {
+            double value = macro.cost * ACTION_REWARD;
+            if (macro.target < 0) {
+                return value;
+            }
+            if (hasPit(macro.target) || hasLiveWampus(macro.target)) {
+                return value + DEATH_REWARD;
+            }
+            int toHome = distance(macro.target, 0);
+            double giveUp = toHome < 0 ? 0 : (toHome + 1) * ACTION_REWARD;
+            if (goldCell < 0) return value + giveUp;
+            int toGold = distance(macro.target, goldCell);
+            int goldHome = toGold < 0 ? -1 : distance(goldCell, 0);
+            if (goldHome < 0) return value + giveUp;
+            return value + Math.max(giveUp, (toGold + goldHome + 2) * ACTION_REWARD + GOLD_REWARD);
+        }
+
+        // довжина найкоротшого шляху через клітинки без небезпек (без урахування поворотів).
+        // @return кількість кроків або -1, якщо шлях не знайдено в межах MAX_ROLLOUT_CELLS.
+        private int distance(int from, int to) {
+            if (from == to) return 0;
+            int size = belief.gridSize;
+            Map<Integer, Integer> dist = new HashMap<>();
+            ArrayList<Integer> frontier = new ArrayList<>();
+            dist.put(from, 0);
+            frontier.add(from);
+            for (int head = 0; head < frontier.size() && dist.size() < MAX_ROLLOUT_CELLS; head++) {
+                int cell = frontier.get(head);
+                int cx = cell % size;
+                int cy = cell / size;
+                for (int d = 0; d < 4; d++) {
+                    int nx = cx + DX[d];
+                    int ny = cy + DY[d];
+                    if (nx < 0 || nx >= size || ny < 0 || ny >= size) continue;
+                    int next = ny * size + nx;
+                    if (dist.containsKey(next) || hasPit(next) || hasLiveWampus(next)) continue;
+                    int steps = dist.get(cell) + 1;
+                    if (next == to) return steps;
+                    dist.put(next, steps);
+                    frontier.add(next);
+                }
+            }
+            return -1;
+        }
+    }
+
+    // один пошук (один потік): UCB1 над макродіями, кожна симуляція - новий вибраний світ.
+    private static class Search {
+        private final SampledWorld world;
+        private final List<Macro> macros;
+        private final Random random;
+        private final long[] visits;
+        private final double[] values;
+
+        Search(Belief belief, List<Macro> macros, Random random) {
+            this.world = new SampledWorld(belief);
+            this.macros = macros;
+            this.random = random;
+            this.visits = new long[macros.size()];
+            this.values = new double[macros.size()];
+        }
+
+        // симуляції до дедлайну; дедлайн перевіряється перед кожною симуляцією.
+        // @return кількість симуляцій кожної макродії (нулі, якщо дедлайн уже минув).
+        long[] run(long deadlineNanos) {
+            long total = 0;
+            while (System.nanoTime() < deadlineNanos) {
+                int m = select(total);
+                world.sample(random);
+                values[m] += world.evaluate(macros.get(m));
+                visits[m]++;
+                total++;
+            }
+            return visits;
+        }
+
+        // спершу кожна макродія пробується один раз, далі - UCB1.
+        private int select(long total) {
+            int best = 0;
+            double bestScore = Double.NEGATIVE_INFINITY;
+            double logTotal = Math.log(total + 1);
+            for (int m = 0; m < visits.length; m++) {
+                double score = visits[m] == 0
+                        ? Double.MAX_VALUE / 2 + random.nextDouble()
+                        : values[m] / visits[m] + EXPLORATION * Math.sqrt(logTotal / visits[m]);
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = m;
+                }
+            }
+            return best;
+        }
+    }
+
+    // напрямки в порядку NORTH, EAST, SOUTH, WEST
+    private static final int[] DX = {0, 1, 0, -1};
+    private static final int[] DY = {-1, 0, 1, 0};
+
+    // перемішування бітів (фіналізатор SplitMix64).
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
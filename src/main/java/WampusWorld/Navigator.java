@@ -0,0 +1,1205 @@
+package WampusWorld;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import static WampusWorld.WampusWorldCore.Direction;
+import static WampusWorld.WampusWorldCore.PerceptionType;
+import static WampusWorld.WampusWorldCore.Action;
+import static WampusWorld.WampusWorldCore.DecisionMode;
+import static WampusWorld.WampusWorldCore.PlannerType;
+import static WampusWorld.WampusWorldCore.MAX_PRINTED_GRID_SIZE;
+
+
+// політика навігатора без JADE: внутрішня карта світу, оновлення знань за сприйняттями
+// та вибір наступної дії. агент-навігатор лише перетворює ACL-повідомлення на виклики цього класу,
+// а ігровий рушій може грати з навігатором напряму в одному потоці.
+public class Navigator {
+    // найбільший розмір світу: стан (клітинка << 2 | напрямок) і літерали бази знань
+    // (клітинка << 2 | тип << 1 | знак) мають уміщатися в int, тобто 4*size*size < 2^31
+    public static final int MAX_GRID_SIZE = 23170;
+
+    private final KnowledgeMap worldMap; // внутрішнє представлення світу (упаковані прапорці клітинок)
+    private final int gridSize;
+    // кількість Вампусів у світі: правила, що спираються на єдиного Вампуса (перетин сусідств
+    // клітинок із запахом, останній кандидат, постріл у підтвердженого), діють лише для одного
+    private final int wampusCount;
+    private int currentExplorerX;
+    private int currentExplorerY;
+    private Direction currentExplorerDirection;
+    private boolean hasArrow;
+    private boolean hasGold;
+    private boolean wampusAliveInMind; // чи вважає навігатор, що вампус живий
+    private boolean wampusKilledReported; // чи повідомлено про вбивство вампуса
+    private boolean verbose = false; // чи друкувати міркування в консоль
+    private final PathPlanner planner; // пошук найкоротших шляхів з урахуванням поворотів
+    private HierarchicalPlanner hierarchicalPlanner; // для великих печер замість плаского пошуку (null - вимкнено)
+    private IncrementalPlanner incrementalPlanner; // інкрементне перепланування (null - вимкнено)
+    private long knowledgeVersion = 0; // збільшується при зміні відвіданих або безпечних клітинок
+
+    // індекси клітинок (y * gridSize + x), що оновлюються разом із картою,
+    // щоб міркування за хід не залежали від площі карти
+    private final Set<Integer> frontierCells = new LinkedHashSet<>(); // безпечні, ще не відвідані
+    private final Set<Integer> wampusSuspectCells = new LinkedHashSet<>(); // можливий Вампус
+    private final Set<Integer> pitSuspectCells = new LinkedHashSet<>(); // можлива яма
+    private int confirmedWampusX = -1; // підтверджена позиція Вампуса (-1, якщо невідома)
+    private int confirmedWampusY = -1;
+
+    // логічне виведення ям і Вампуса зі сприйнять
+    private final InferenceEngine inference;
+    private int inferenceTrailRead = 0; // кількість уже застосованих до карти виведених фактів
+    private Set<Integer> wampusCandidates = null; // перетин сусідів усіх клітинок із запахом (Вампус один)
+    private final List<Integer> stenchCells = new ArrayList<>(); // відвідані клітинки із запахом
+    private int wampusRefutedCount = 0; // кількість клітинок, де Вампуса точно немає
+
+    // ймовірнісний режим: крок у невідоме, коли доведено безпечних клітинок не лишилося
+    public static final double DEFAULT_MAX_RISK = 0.35;
+    public static final long DEFAULT_RISK_BUDGET_MS = 20;
+    private DecisionMode decisionMode = DecisionMode.PLANNER;
+    private RiskEstimator riskEstimator;
+    private double maxRisk;
+    private long riskBudgetNanos;
+    private MonteCarloPlanner monteCarloPlanner;
+    private long monteCarloBudgetNanos;
+    private int budgetShares = 1; // на скільки частин ділиться бюджет часу ходу (гілки дерева рішень)
+    // хеш Зобріста поточного стану (карта, виведені факти, позиція, стріла, золото)
+    // і спільний кеш рішень за цим хешем
+    private long stateHash;
+    private DecisionCache decisionCache;
+    private final List<Integer> breezeCells = new ArrayList<>(); // відвідані клітинки з вітром
+    private int riskTarget = -1; // обрана ризикована клітинка
+    private long riskTargetVersion = -1; // версія знань, для якої її обрано
+
+    // для збереження попередньої дії, щоб відстежувати BUMP
+    private Action lastActionAttempted = null;
+    private boolean lastForwardMoved = false; // чи змінив останній FORWARD позицію в стані навігатора
+
+    // план, відправлений спелеологу (дії вже застосовано до стану навігатора),
+    // і стани (клітинка << 2 | напрямок) після кожної його дії для відкату при відхиленні
+    private ActionPlan pendingPlan;
+    private int[] pendingPlanStates;
+
+    // навігатор для класичного світу з одним Вампусом.
+    // @param gridSize розмір світу.
+    public Navigator(int gridSize) {
+        this(gridSize, 1);
+    }
+
+    // @param gridSize розмір світу.
+    // @param wampusCount кількість Вампусів у світі.
+    // @throws IllegalArgumentException якщо розмір більший за MAX_GRID_SIZE або кількість Вампусів від'ємна.
+    public Navigator(int gridSize, int wampusCount) {
+        if (gridSize < 1 || gridSize > MAX_GRID_SIZE) {
+            throw new IllegalArgumentException("Розмір світу навігатора має бути від 1 до " + MAX_GRID_SIZE + ": " + gridSize);
+        }
+        if (wampusCount < 0) {
+            throw new IllegalArgumentException("Кількість Вампусів не може бути від'ємною: " + wampusCount);
+        }
+        this.gridSize = gridSize;
+        this.wampusCount = wampusCount;
+        this.planner = new PathPlanner(gridSize);
+        this.inference = new InferenceEngine(gridSize);
+
+        // ініціалізація внутрішньої карти світу
+        worldMap = new KnowledgeMap(gridSize);
+
+        // початковий стан спелеолога
+        currentExplorerX = 0;
+        currentExplorerY = 0;
+        currentExplorerDirection = Direction.EAST;
+        hasArrow = true;
+        hasGold = false;
+        wampusAliveInMind = wampusCount > 0;
+        wampusKilledReported = false;
+        stateHash = Zobrist.base(gridSize, decisionMode.ordinal())
+                ^ Zobrist.pose(0, Direction.EAST)
+                ^ Zobrist.global(Zobrist.HAS_ARROW)
+                ^ Zobrist.wampusCount(wampusCount)
+                ^ (wampusAliveInMind ? Zobrist.global(Zobrist.WAMPUS_ALIVE) : 0);
+
+        // початкова клітинка (0,0) завжди безпечна і відвідана
+        markVisited(0, 0);
+        markSafe(0, 0);
+    }
+
+    // копія для міркувань наперед: знання, позиція і режим рішень копіюються, спільними лишаються
+    // кеш рішень та оцінювачі ризику. планувальники шляхів копіюються разом
+    // з кешованими планами, графами кластерів і деревами D* Lite, тож гілка, яку буде обрано,
+    // продовжує гру без перебудови планувальників.
+    private Navigator(Navigator other) {
+        this.gridSize = other.gridSize;
+        this.wampusCount = other.wampusCount;
+        this.worldMap = other.worldMap.copy();
+        this.inference = other.inference.copy();
+        this.planner = other.planner.copy();
+        if (other.hierarchicalPlanner != null) {
+            this.hierarchicalPlanner = other.hierarchicalPlanner.copy();
+        }
+        if (other.incrementalPlanner != null) {
+            this.incrementalPlanner = other.incrementalPlanner.copy((x, y) -> worldMap.isSafe(x, y));
+        }
+        this.currentExplorerX = other.currentExplorerX;
+        this.currentExplorerY = other.currentExplorerY;
+        this.currentExplorerDirection = other.currentExplorerDirection;
+        this.hasArrow = other.hasArrow;
+        this.hasGold = other.hasGold;
+        this.wampusAliveInMind = other.wampusAliveInMind;
+        this.wampusKilledReported = other.wampusKilledReported;
+        this.verbose = other.verbose;
+        this.knowledgeVersion = other.knowledgeVersion;
+        this.frontierCells.addAll(other.frontierCells);
+        this.wampusSuspectCells.addAll(other.wampusSuspectCells);
+        this.pitSuspectCells.addAll(other.pitSuspectCells);
+        this.confirmedWampusX = other.confirmedWampusX;
+        this.confirmedWampusY = other.confirmedWampusY;
+        this.inferenceTrailRead = other.inferenceTrailRead;
+        this.wampusCandidates = other.wampusCandidates == null ? null : new LinkedHashSet<>(other.wampusCandidates);
+        this.wampusRefutedCount = other.wampusRefutedCount;
+        this.stenchCells.addAll(other.stenchCells);
+        this.decisionMode = other.decisionMode;
+        this.riskEstimator = other.riskEstimator;
+        this.maxRisk = other.maxRisk;
+        this.riskBudgetNanos = other.riskBudgetNanos;
+        this.monteCarloPlanner = other.monteCarloPlanner;
+        this.monteCarloBudgetNanos = other.monteCarloBudgetNanos;
+        this.stateHash = other.stateHash;
+        this.decisionCache = other.decisionCache;
+        this.breezeCells.addAll(other.breezeCells);
+        this.riskTarget = other.riskTarget;
+        this.riskTargetVersion = other.riskTargetVersion;
+        this.lastActionAttempted = other.lastActionAttempted;
+        this.lastForwardMoved = other.lastForwardMoved;
+    }
+
+    // @return незалежна копія навігатора в поточному стані.
+    public Navigator copy() {
+        return new Navigator(this);
+    }
+
+    public int getGridSize() { return gridSize; }
+    public int getWampusCount() { return wampusCount; }
+    public int getExplorerX() { return currentExplorerX; }
+    public int getExplorerY() { return currentExplorerY; }
+    public Direction getExplorerDirection() { return currentExplorerDirection; }
+    public long getKnowledgeVersion() { return knowledgeVersion; }
+    public int getFrontierSize() { return frontierCells.size(); }
+    public int getWampusSuspectCount() { return wampusSuspectCells.size(); }
+    public int getPitSuspectCount() { return pitSuspectCells.size(); }
+    public DecisionMode getDecisionMode() { return decisionMode; }
+    public long getStateHash() { return stateHash; }
+    public void setDecisionCache(DecisionCache decisionCache) { this.decisionCache = decisionCache; }
+    public void setVerbose(boolean verbose) { this.verbose = verbose; }
+
+    // вибір планувальника шляхів (PlannerType.HIERARCHICAL - кластери по
+    // HierarchicalPlanner.DEFAULT_CLUSTER_SIZE клітинок, PlannerType.INCREMENTAL - D* Lite).
+    public void setPlannerType(PlannerType type) {
+        hierarchicalPlanner = type == PlannerType.HIERARCHICAL
+                ? new HierarchicalPlanner(gridSize, HierarchicalPlanner.DEFAULT_CLUSTER_SIZE) : null;
+        incrementalPlanner = type == PlannerType.INCREMENTAL ? new IncrementalPlanner(gridSize) : null;
+    }
+
+    public PlannerType getPlannerType() {
+        if (hierarchicalPlanner != null) return PlannerType.HIERARCHICAL;
+        return incrementalPlanner != null ? PlannerType.INCREMENTAL : PlannerType.FLAT;
+    }
+
+    // вмикає режим оптимізації "заднім числом" (DecisionMode.HINDSIGHT).
+    // @param planner пошук у вибраних узгоджених світах.
+    // @param budgetMs дедлайн пошуку за один хід.
+    public void enableMonteCarlo(MonteCarloPlanner planner, long budgetMs) {
+        setDecisionMode(DecisionMode.HINDSIGHT);
+        this.monteCarloPlanner = planner;
+        this.monteCarloBudgetNanos = budgetMs * 1_000_000L;
+    }
+
+    private void setDecisionMode(DecisionMode mode) {
+        stateHash ^= Zobrist.base(gridSize, decisionMode.ordinal()) ^ Zobrist.base(gridSize, mode.ordinal());
+        decisionMode = mode;
+    }
+
+    // знання навігатора для оцінювачів ризику і пошуку Монте-Карло (лише читання).
+    boolean isVisited(int x, int y) { return worldMap.isVisited(x, y); }
+    boolean isSafe(int x, int y) { return worldMap.isSafe(x, y); }
+    int pitValue(int x, int y) { return inference.valueOf(x, y, InferenceEngine.PIT); }
+    int wampusValue(int x, int y) { return inference.valueOf(x, y, InferenceEngine.WAMPUS); }
+    boolean hasArrow() { return hasArrow; }
+    boolean isWampusAliveInMind() { return wampusAliveInMind; }
+    Set<Integer> getWampusCandidates() { return wampusCandidates; }
+    boolean hasKnowledgeConflict() { return inference.hasConflict(); }
+
+    // вмикає ймовірнісний режим (DecisionMode.PROBABILISTIC).
+    // @param estimator обчислювач ймовірностей ям на межі.
+    // @param maxRisk найбільша допустима ймовірність загибелі кроку в невідоме.
+    // @param budgetMs бюджет часу на оцінку ризиків за один хід.
+    public void enableRiskEstimation(RiskEstimator estimator, double maxRisk, long budgetMs) {
+        setDecisionMode(DecisionMode.PROBABILISTIC);
+        this.riskEstimator = estimator;
+        this.maxRisk = maxRisk;
+        this.riskBudgetNanos = budgetMs * 1_000_000L;
+    }
+
+    // повний цикл навігатора для одного ходу: оновлення знань за сприйняттями,
+    // вибір дії та застосування її до внутрішнього стану.
+    // @param currentPerceptions сприйняття в поточній клітинці спелеолога.
+    // @return рекомендована дія.
+    public Action nextAction(Set<PerceptionType> currentPerceptions) {
+        observe(currentPerceptions);
+        Action nextAction = decideNextAction();
+        applyActionToNavigatorState(nextAction);
+        return nextAction;
+    }
+
+    // те саме для гілки дерева рішень: бюджети оцінки ризиків і пошуку Монте-Карло діляться
+    // на shares частин, щоб усі гілки дерева разом укладалися в бюджет одного ходу.
+    // @param shares кількість гілок, між якими ділиться бюджет.
+    Action nextAction(Set<PerceptionType> currentPerceptions, int shares) {
+        budgetShares = Math.max(1, shares);
+        try {
+            return nextAction(currentPerceptions);
+        } finally {
+            budgetShares = 1;
+        }
+    }
+
+    // оновлення знань за сприйняттями в поточній клітинці (з відкатом позиції після удару об стіну).
+    private void observe(Set<PerceptionType> currentPerceptions) {
+        // навігатор не переходить за межі світу, тому удар об стіну означає лише, що останній
+        // крок уперед, застосований до його стану, насправді не відбувся: позиція відкочується
+        // до застосування сприйнять, щоб вони потрапили у правильну клітинку
+        if (currentPerceptions.contains(PerceptionType.BUMP) && lastActionAttempted == Action.FORWARD && lastForwardMoved) {
+            int x = currentExplorerX;
+            int y = currentExplorerY;
+            switch (currentExplorerDirection) {
+                case NORTH: y++; break;
+                case EAST: x--; break;
+                case SOUTH: y--; break;
+                case WEST: x++; break;
+            }
+            setPose(x, y, currentExplorerDirection);
+            lastForwardMoved = false;
+            log("Навігатор: Спелеолог зіткнувся зі стіною, відкотив позицію до (" + currentExplorerX + ", " + currentExplorerY + ").");
+        }
+        updateKnowledgeBase(currentPerceptions, currentExplorerX, currentExplorerY);
+    }
+
+    // кілька ходів наперед: після першої дії навігатор продовжує план, поки наступна дія
+    // веде по вже відвіданих клітинках і її сприйняття відомі з карти (повороти і кроки
+    // назад по дослідженій частині печери). стан навігатора просувається до кінця плану;
+    // якщо середовище виконало не всі дії, слід викликати planExecuted().
+    // @param currentPerceptions сприйняття в поточній клітинці спелеолога.
+    // @param maxSteps найбільша кількість дій у плані.
+    // @return план щонайменше з однієї дії.
+    public ActionPlan nextPlan(Set<PerceptionType> currentPerceptions, int maxSteps) {
+        return buildPlan(currentPerceptions, maxSteps, false);
+    }
+
+    // @param walkOnly зупинити план перед першою дією, що не є поворотом чи кроком
+    //                 (вона не застосовується і буде обрана знову на наступному ході).
+    private ActionPlan buildPlan(Set<PerceptionType> currentPerceptions, int maxSteps, boolean walkOnly) {
+        ActionPlan plan = new ActionPlan();
+        int[] states = new int[Math.max(1, maxSteps)];
+        Set<PerceptionType> perceptions = currentPerceptions;
+        while (true) {
+            observe(perceptions);
+            Action action = decideNextAction();
+            if (walkOnly && plan.size() > 0 && !isWalk(action)) {
+                break;
+            }
+            applyActionToNavigatorState(action);
+            states[plan.size()] = (cellKey(currentExplorerX, currentExplorerY) << 2) | currentExplorerDirection.ordinal();
+            perceptions = plan.size() + 1 < maxSteps ? predictedPerceptions(action) : null;
+            plan.add(action, perceptions);
+            if (perceptions == null) {
+                break;
+            }
+        }
+        pendingPlan = plan;
+        pendingPlanStates = states;
+        return plan;
+    }
+
+    private static boolean isWalk(Action action) {
+        return action == Action.FORWARD || action == Action.TURN_LEFT || action == Action.TURN_RIGHT;
+    }
+
+    // макрокоманда для середовища замість окремих дій: перехід по вже відвіданих клітинках
+    // (разом із першим кроком у нову клітинку) стає одним GOTO з явним шляхом, а повернення
+    // із золотом у (0,0) - командою HOME_CLIMB. стан навігатора просувається до кінця переходу;
+    // фактичну позицію після виконання (перехід може перерватися) слід передати в macroExecuted().
+    // @param currentPerceptions сприйняття в поточній клітинці спелеолога.
+    // @param maxSteps найбільша кількість примітивних дій у переході.
+    // @return макрокоманда (одна примітивна дія, якщо переходу немає).
+    public MacroCommand nextMacro(Set<PerceptionType> currentPerceptions, int maxSteps) {
+        int startCell = cellKey(currentExplorerX, currentExplorerY);
+        ActionPlan plan = buildPlan(currentPerceptions, maxSteps, true);
+        int[] states = pendingPlanStates;
+        pendingPlan = null;
+        pendingPlanStates = null;
+        List<int[]> path = new ArrayList<>();
+        int previous = startCell;
+        for (int i = 0; i < plan.size(); i++) {
+            int cell = states[i] >>> 2;
+            if (cell != previous) {
+                path.add(new int[] {cell % gridSize, cell / gridSize});
+                previous = cell;
+            }
+        }
+        if (plan.size() == 1 || path.isEmpty()) {
+            if (plan.size() > 1) { // лише повороти: виконується перший, решта обирається знову
+                rewind(states[0], plan.getAction(0));
+            }
+            return MacroCommand.of(plan.getAction(0));
+        }
+        // середовище закінчує перехід обличчям у напрямку останнього кроку:
+        // повороти після нього не виконуються і будуть обрані знову
+        int lastForward = plan.size() - 1;
+        while (plan.getAction(lastForward) != Action.FORWARD) lastForward--;
+        if (lastForward < plan.size() - 1) {
+            rewind(states[lastForward], Action.FORWARD);
+        }
+        if (hasGold && currentExplorerX == 0 && currentExplorerY == 0) {
+            return MacroCommand.homeClimb();
+        }
+        int[] target = path.get(path.size() - 1);
+        return MacroCommand.goTo(target[0], target[1], path);
+    }
+
+    // узгодження позиції з фактичною після виконання макрокоманди середовищем.
+    // перехід проходив лише відвіданими клітинками, тому знання не змінювалися,
+    // а сприйняття в кінцевій клітинці обробляються наступним викликом nextMacro().
+    public void macroExecuted(int x, int y, Direction direction) {
+        if (x != currentExplorerX || y != currentExplorerY || direction != currentExplorerDirection) {
+            setPose(x, y, direction);
+            log("Навігатор: позицію узгоджено із середовищем: (" + x + ", " + y + "), " + direction + ".");
+        }
+    }
+
+    // середовище виконало лише частину плану: позиція навігатора повертається до стану
+    // після останньої виконаної дії (знання за планом не змінювалися, бо він проходив
+    // лише відвіданими клітинками).
+    // @param executed кількість виконаних дій плану.
+    public void planExecuted(int executed) {
+        if (pendingPlan != null && executed >= 1 && executed < pendingPlan.size()) {
+            rewind(pendingPlanStates[executed - 1], pendingPlan.getAction(executed - 1));
+            log("Навігатор: виконано " + executed + " з " + pendingPlan.size() + " дій плану, позицію відкочено до ("
+                    + currentExplorerX + ", " + currentExplorerY + ").");
+        }
+        pendingPlan = null;
+        pendingPlanStates = null;
+    }
+
+    // повернення до стану плану (клітинка << 2 | напрямок) після дії lastAction.
+    private void rewind(int state, Action lastAction) {
+        int cell = state >>> 2;
+        setPose(cell % gridSize, cell / gridSize, Direction.values()[state & 3]);
+        lastActionAttempted = lastAction;
+        lastForwardMoved = lastAction == Action.FORWARD; // кроки плану ведуть лише в межах світу
+    }
+
+    // сприйняття, які поверне середовище після щойно застосованої дії, якщо вони відомі.
+    // @return сприйняття або null, якщо дія веде в невідоме чи змінює світ (постріл, золото, вихід).
+    private Set<PerceptionType> predictedPerceptions(Action action) {
+        if (action != Action.TURN_LEFT && action != Action.TURN_RIGHT && action != Action.FORWARD) {
+            return null;
+        }
+        if (!worldMap.isVisited(currentExplorerX, currentExplorerY)) {
+            return null;
+        }
+        return rememberedPerceptions();
+    }
+
+    // сприйняття в поточній (відвіданій) клітинці за картою.
+    private Set<PerceptionType> rememberedPerceptions() {
+        int x = currentExplorerX;
+        int y = currentExplorerY;
+        Set<PerceptionType> perceptions = EnumSet.noneOf(PerceptionType.class);
+        if (worldMap.isPerceivedStench(x, y)) perceptions.add(PerceptionType.STENCH);
+        if (worldMap.isPerceivedBreeze(x, y)) perceptions.add(PerceptionType.BREEZE);
+        if (worldMap.isPerceivedGlitter(x, y) && !hasGold) perceptions.add(PerceptionType.GLITTER);
+        if (perceptions.isEmpty()) perceptions.add(PerceptionType.SAFE);
+        return perceptions;
+    }
+
+    // усі сприйняття, які може повернути середовище після щойно застосованої дії:
+    // одне відоме для відвіданої клітинки, будь-яке поєднання запаху, вітру і блиску для нової,
+    // зникнення запаху і крик після пострілу. після CLIMB гра завершується.
+    // @return можливі сприйняття (без повторів).
+    List<Set<PerceptionType>> plausibleOutcomes(Action action) {
+        List<Set<PerceptionType>> outcomes = new ArrayList<>();
+        if (action == Action.CLIMB) {
+            return outcomes;
+        }
+        Set<PerceptionType> known = predictedPerceptions(action);
+        if (known != null) {
+            outcomes.add(known);
+        } else if (action == Action.FORWARD) {
+            for (int mask = 0; mask < 8; mask++) {
+                Set<PerceptionType> perceptions = EnumSet.noneOf(PerceptionType.class);
+                if ((mask & 1) != 0) perceptions.add(PerceptionType.STENCH);
+                if ((mask & 2) != 0) perceptions.add(PerceptionType.BREEZE);
+                if ((mask & 4) != 0) perceptions.add(PerceptionType.GLITTER);
+                if (perceptions.isEmpty()) perceptions.add(PerceptionType.SAFE);
+                outcomes.add(perceptions);
+            }
+        } else {
+            Set<PerceptionType> here = rememberedPerceptions();
+            if (here.remove(PerceptionType.GLITTER) && here.isEmpty()) { // після GRAB блиску вже немає
+                here.add(PerceptionType.SAFE);
+            }
+            outcomes.add(here);
+            if (action == Action.SHOOT) {
+                Set<PerceptionType> quiet = EnumSet.copyOf(here);
+                if (quiet.remove(PerceptionType.STENCH) && quiet.isEmpty()) quiet.add(PerceptionType.SAFE);
+                Set<PerceptionType> scream = EnumSet.copyOf(here);
+                scream.add(PerceptionType.SCREAM);
+                Set<PerceptionType> quietScream = EnumSet.copyOf(quiet);
+                quietScream.add(PerceptionType.SCREAM);
+                for (Set<PerceptionType> outcome : Arrays.asList(quiet, scream, quietScream)) {
+                    if (!outcomes.contains(outcome)) outcomes.add(outcome);
+                }
+            }
+        }
+        return outcomes;
+    }
+
+    // оновлення внутрішньої карти світу навігатора на основі отриманих сприйнять.
+    // @param perceptions поточні сприйняття.
+    // @param x поточна X-координата спелеолога.
+    // @param y поточна Y-координата спелеолога.
+    public void updateKnowledgeBase(Set<PerceptionType> perceptions, int x, int y) {
+        boolean firstVisit = !worldMap.isVisited(x, y);
+        markVisited(x, y);
+        log("Навігатор: оновлення знань для (" + x + ", " + y + ") зі сприйняттями: " + perceptions);
+
+        setFlag(x, y, Zobrist.GLITTER, perceptions.contains(PerceptionType.GLITTER));
+        setFlag(x, y, Zobrist.STENCH, perceptions.contains(PerceptionType.STENCH));
+        setFlag(x, y, Zobrist.BREEZE, perceptions.contains(PerceptionType.BREEZE));
+
+        if (perceptions.contains(PerceptionType.GLITTER)) {
+            setHasGold();
+            setFlag(x, y, Zobrist.GOLD_CONFIRMED, true);
+        }
+        // крик після пострілу; навігатор стріляє лише тоді, коли Вампус один (див. computeNextAction)
+        if (perceptions.contains(PerceptionType.SCREAM) && wampusAliveInMind && wampusCount == 1) {
+            wampusAliveInMind = false;
+            stateHash ^= Zobrist.global(Zobrist.WAMPUS_ALIVE);
+            wampusKilledReported = true;
+            log("Навігатор: Вампуса вбито!");
+            // мертвий Вампус більше не загрожує: знімаємо підозри і підтвердження
+            for (int cell : wampusSuspectCells) {
+                setFlag(cell % gridSize, cell / gridSize, Zobrist.WAMPUS_SUSPECT, false);
+            }
+            wampusSuspectCells.clear();
+            if (wampusCandidates != null) {
+                wampusCandidates = null;
+                stateHash ^= Zobrist.global(Zobrist.WAMPUS_CANDIDATES);
+            }
+            if (confirmedWampusX >= 0) {
+                setFlag(confirmedWampusX, confirmedWampusY, Zobrist.WAMPUS_CONFIRMED, false);
+                confirmedWampusX = -1;
+                confirmedWampusY = -1;
+            }
+            // клітинки, де ями точно немає, тепер безпечні
+            for (int i = 0; i < inference.getTrailSize(); i++) {
+                int lit = inference.getTrailLiteral(i);
+                int var = InferenceEngine.variableOf(lit);
+                if (!InferenceEngine.isPositive(lit) && InferenceEngine.typeOf(var) == InferenceEngine.PIT) {
+                    markSafe(inference.xOf(var), inference.yOf(var));
+                }
+            }
+        }
+
+        if (!perceptions.contains(PerceptionType.STENCH) && !perceptions.contains(PerceptionType.BREEZE)) {
+            markSafe(x, y);
+            markAdjacentCellsAsSafe(x, y);
+        } else {
+            if (perceptions.contains(PerceptionType.STENCH) && wampusAliveInMind) {
+                markAdjacentCellsAsWampusSuspect(x, y);
+            }
+            if (perceptions.contains(PerceptionType.BREEZE)) {
+                markAdjacentCellsAsPitSuspect(x, y);
+            }
+        }
+
+        if (firstVisit) {
+            encodePerceptions(perceptions, x, y);
+        }
+        inferTrueLocations();
+    }
+
+    // запис правил світу для щойно відвіданої клітинки в базу знань.
+    // @param perceptions сприйняття в клітинці.
+    // @param x X-координата.
+    // @param y Y-координата.
+    private void encodePerceptions(Set<PerceptionType> perceptions, int x, int y) {
+        // спелеолог живий, отже в клітинці немає ні ями, ні живого Вампуса
+        // (мертвий Вампус може лежати і тут, тому після крику цей факт не записується)
+        inference.addFact(InferenceEngine.literal(inference.variable(x, y, InferenceEngine.PIT), false));
+        if (wampusAliveInMind) {
+            inference.addFact(InferenceEngine.literal(inference.variable(x, y, InferenceEngine.WAMPUS), false));
+        }
+
+        int[] neighbours = new int[4];
+        int count = 0;
+        for (int i = 0; i < 4; i++) {
+            int nx = x + DX[i];
+            int ny = y + DY[i];
+            if (isValid(nx, ny)) {
+                neighbours[count++] = cellKey(nx, ny);
+            }
+        }
+        encodeRule(perceptions.contains(PerceptionType.BREEZE), InferenceEngine.PIT, neighbours, count);
+        if (perceptions.contains(PerceptionType.BREEZE)) {
+            breezeCells.add(cellKey(x, y));
+        }
+        // правила запаху мають сенс лише поки Вампус живий
+        if (wampusAliveInMind) {
+            boolean stench = perceptions.contains(PerceptionType.STENCH);
+            encodeRule(stench, InferenceEngine.WAMPUS, neighbours, count);
+            if (stench) {
+                stenchCells.add(cellKey(x, y));
+                if (wampusCount == 1) {
+                    narrowWampusCandidates(neighbours, count);
+                }
+            }
+        }
+    }
+
+    // сприйняття є -> небезпека хоча б в одному сусіді; сприйняття немає -> в жодному.
+    private void encodeRule(boolean perceived, int type, int[] neighbours, int count) {
+        if (perceived) {
+            int[] clause = new int[count];
+            for (int i = 0; i < count; i++) {
+                clause[i] = InferenceEngine.literal(cellVariable(neighbours[i], type), true);
+            }
+            inference.addClause(clause);
+        } else {
+            for (int i = 0; i < count; i++) {
+                inference.addFact(InferenceEngine.literal(cellVariable(neighbours[i], type), false));
+            }
+        }
+    }
+
+    private int cellVariable(int cell, int type) {
+        return inference.variable(cell % gridSize, cell / gridSize, type);
+    }
+
+    // Вампус лише один, тому він серед сусідів кожної клітинки із запахом:
+    // клітинки поза перетином таких сусідств Вампуса не містять.
+    private void narrowWampusCandidates(int[] neighbours, int count) {
+        Set<Integer> around = new LinkedHashSet<>();
+        for (int i = 0; i < count; i++) {
+            around.add(neighbours[i]);
+        }
+        if (wampusCandidates == null) {
+            wampusCandidates = around;
+            stateHash ^= Zobrist.global(Zobrist.WAMPUS_CANDIDATES);
+            return;
+        }
+        for (int cell : wampusCandidates) {
+            if (!around.contains(cell)) {
+                inference.addFact(InferenceEngine.literal(cellVariable(cell, InferenceEngine.WAMPUS), false));
+            }
+        }
+        wampusCandidates.retainAll(around);
+        for (int cell : around) {
+            if (!wampusCandidates.contains(cell)) {
+                inference.addFact(InferenceEngine.literal(cellVariable(cell, InferenceEngine.WAMPUS), false));
+            }
+        }
+    }
+
+    // зміщення до сусідніх клітинок
+    private static final int[] DX = {0, 0, 1, -1};
+    private static final int[] DY = {1, -1, 0, 0};
+
+    private int cellKey(int x, int y) {
+        return y * gridSize + x;
+    }
+
+    // позначає клітинку як відвідану; змінює версію знань лише при справжній зміні.
+    private void markVisited(int x, int y) {
+        if (!worldMap.isVisited(x, y)) {
+            setFlag(x, y, Zobrist.VISITED, true);
+            frontierCells.remove(cellKey(x, y));
+            knowledgeVersion++;
+        }
+    }
+
+    // позначає клітинку як безпечну (знімаючи підозри); змінює версію знань лише при справжній зміні.
+    private void markSafe(int x, int y) {
+        if (!worldMap.isSafe(x, y)) {
+            setFlag(x, y, Zobrist.SAFE, true);
+            setFlag(x, y, Zobrist.WAMPUS_SUSPECT, false);
+            setFlag(x, y, Zobrist.PIT_SUSPECT, false);
+            int key = cellKey(x, y);
+            wampusSuspectCells.remove(key);
+            pitSuspectCells.remove(key);
+            if (!worldMap.isVisited(x, y)) {
+                frontierCells.add(key);
+            }
+            knowledgeVersion++;
+        }
+    }
+
+    private void markWampusSuspect(int x, int y) {
+        if (!worldMap.isSafe(x, y) && !worldMap.isWampusSuspect(x, y)
+                && inference.valueOf(x, y, InferenceEngine.WAMPUS) >= 0) {
+            setFlag(x, y, Zobrist.WAMPUS_SUSPECT, true);
+            wampusSuspectCells.add(cellKey(x, y));
+        }
+    }
+
+    private void markPitSuspect(int x, int y) {
+        if (!worldMap.isSafe(x, y) && !worldMap.isPitSuspect(x, y)
+                && inference.valueOf(x, y, InferenceEngine.PIT) >= 0) {
+            setFlag(x, y, Zobrist.PIT_SUSPECT, true);
+            pitSuspectCells.add(cellKey(x, y));
+        }
+    }
+
+    // позначає сусідні клітинки як безпечні, якщо вони ще не відвідані.
+    // @param x X-координата.
+    // @param y Y-координата.
+    private void markAdjacentCellsAsSafe(int x, int y) {
+        for (int i = 0; i < 4; i++) {
+            int nx = x + DX[i];
+            int ny = y + DY[i];
+            if (isValid(nx, ny) && !worldMap.isVisited(nx, ny) && !worldMap.isSafe(nx, ny)) {
+                markSafe(nx, ny);
+                log("Навігатор: Клітинка (" + nx + ", " + ny + ") позначена як безпечна.");
+            }
+        }
+    }
+
+    // позначає сусідні клітинки як потенційно містять Вампуса.
+    // @param x X-координата.
+    // @param y Y-координата.
+    private void markAdjacentCellsAsWampusSuspect(int x, int y) {
+        for (int i = 0; i < 4; i++) {
+            int nx = x + DX[i];
+            int ny = y + DY[i];
+            if (isValid(nx, ny) && !worldMap.isVisited(nx, ny) && !worldMap.isSafe(nx, ny)) {
+                markWampusSuspect(nx, ny);
+            }
+        }
+    }
+
+    // позначає сусідні клітинки як потенційно містять Яму.
+    // @param x X-координата.
+    // @param y Y-координата.
+    private void markAdjacentCellsAsPitSuspect(int x, int y) {
+        for (int i = 0; i < 4; i++) {
+            int nx = x + DX[i];
+            int ny = y + DY[i];
+            if (isValid(nx, ny) && !worldMap.isVisited(nx, ny) && !worldMap.isSafe(nx, ny)) {
+                markPitSuspect(nx, ny);
+            }
+        }
+    }
+
+    // спроба логічно вивести справжнє місцезнаходження Вампуса та Ям:
+    // одиничне виведення в базі знань і перенесення нових фактів на карту.
+    private void inferTrueLocations() {
+        inference.propagate();
+        if (inference.hasConflict()) {
+            log("Навігатор: Сприйняття суперечать базі знань, виведення може бути неточним.");
+        }
+        while (inferenceTrailRead < inference.getTrailSize()) {
+            int lit = inference.getTrailLiteral(inferenceTrailRead++);
+            int var = InferenceEngine.variableOf(lit);
+            int x = inference.xOf(var);
+            int y = inference.yOf(var);
+            boolean pit = InferenceEngine.typeOf(var) == InferenceEngine.PIT;
+            boolean positive = InferenceEngine.isPositive(lit);
+            stateHash ^= Zobrist.cell(cellKey(x, y), pit ? (positive ? Zobrist.PIT_TRUE : Zobrist.PIT_FALSE)
+                    : (positive ? Zobrist.WAMPUS_TRUE : Zobrist.WAMPUS_FALSE));
+            if (positive) {
+                if (pit) {
+                    setFlag(x, y, Zobrist.PIT_CONFIRMED, true);
+                    log("Навігатор: Яму підтверджено у (" + x + ", " + y + ")");
+                } else if (wampusAliveInMind && wampusCount > 1) {
+                    // Вампусів кілька: доведений Вампус не виключає інших
+                    setFlag(x, y, Zobrist.WAMPUS_CONFIRMED, true);
+                    log("Навігатор: Вампуса підтверджено у (" + x + ", " + y + ")");
+                } else if (wampusAliveInMind && confirmedWampusX < 0) {
+                    confirmWampus(x, y);
+                }
+                continue;
+            }
+            int key = cellKey(x, y);
+            if (pit) {
+                setFlag(x, y, Zobrist.PIT_SUSPECT, false);
+                pitSuspectCells.remove(key);
+            } else {
+                setFlag(x, y, Zobrist.WAMPUS_SUSPECT, false);
+                wampusSuspectCells.remove(key);
+                wampusRefutedCount++;
+                if (wampusCandidates != null && wampusCandidates.remove(key) && wampusCandidates.size() == 1) {
+                    int cell = wampusCandidates.iterator().next();
+                    inference.addFact(InferenceEngine.literal(cellVariable(cell, InferenceEngine.WAMPUS), true));
+                }
+            }
+            boolean noPit = inference.valueOf(x, y, InferenceEngine.PIT) < 0;
+            boolean noWampus = !wampusAliveInMind || inference.valueOf(x, y, InferenceEngine.WAMPUS) < 0;
+            if (noPit && noWampus && !worldMap.isSafe(x, y)) {
+                markSafe(x, y);
+                log("Навігатор: Клітинка (" + x + ", " + y + ") виведена як безпечна.");
+            }
+            inference.propagate();
+        }
+    }
+
+    // фіксує виведену позицію Вампуса; решта клітинок Вампуса не містять.
+    private void confirmWampus(int x, int y) {
+        confirmedWampusX = x;
+        confirmedWampusY = y;
+        setFlag(x, y, Zobrist.WAMPUS_CONFIRMED, true);
+        log("Навігатор: Вампуса підтверджено у (" + x + ", " + y + ")");
+        for (int cell : wampusSuspectCells.toArray(new Integer[0])) {
+            if (cell != cellKey(x, y)) {
+                inference.addFact(InferenceEngine.literal(cellVariable(cell, InferenceEngine.WAMPUS), false));
+            }
+        }
+        inference.propagate();
+    }
+
+    // приймає рішення про наступну дію спелеолога на основі внутрішньої карти.
+    // @return рекомендована дія.
+    public Action decideNextAction() {
+        // повторний стан (у цій або іншій грі) обслуговується з кешу без планування
+        if (!usesDecisionCache()) {
+            return computeNextAction();
+        }
+        Action cached = decisionCache.get(stateHash);
+        if (cached != null) {
+            lastActionAttempted = cached;
+            return cached;
+        }
+        // план попереднього ходу залежить від історії, тому при промаху шукаємо заново:
+        // тоді рішення визначається лише станом із хешу і однакове в усіх потоках та іграх
+        planner.forgetPlan();
+        Action action = computeNextAction();
+        decisionCache.put(stateHash, action);
+        return action;
+    }
+
+    // кешуються лише рішення режиму планувальника з плоским пошуком: вони не мають бюджету часу,
+    // а ризикована ціль, стан інкрементних планувальників і вибірки Монте-Карло в хеш не входять.
+    private boolean usesDecisionCache() {
+        return decisionCache != null && decisionMode == DecisionMode.PLANNER
+                && hierarchicalPlanner == null && incrementalPlanner == null && budgetShares == 1;
+    }
+
+    private Action computeNextAction() {
+        if (hasGold && currentExplorerX == 0 && currentExplorerY == 0) {
+            log("Навігатор: Золото є і в початковій клітинці, рекомендую CLIMB.");
+            lastActionAttempted = Action.CLIMB;
+            return Action.CLIMB;
+        }
+
+        if (worldMap.isPerceivedGlitter(currentExplorerX, currentExplorerY)) {
+            log("Навігатор: Виявлено блиск, рекомендую GRAB.");
+            lastActionAttempted = Action.GRAB;
+            return Action.GRAB;
+        }
+
+        // з кількома Вампусами стріла могла б влучити в іншого, а правила запаху після крику
+        // вже не розрізняють, хто з них загинув, тому навігатор стріляє лише в єдиного Вампуса
+        if (hasArrow && wampusAliveInMind && wampusCount == 1 && confirmedWampusX >= 0 && isWampusInLineOfFire()) {
+            log("Навігатор: Вампуса підтверджено у напрямку, рекомендую SHOOT.");
+            lastActionAttempted = Action.SHOOT;
+            return Action.SHOOT;
+        }
+
+        // із золотом - найкоротшим відомим безпечним шляхом додому
+        if (hasGold) {
+            Action homeAction = planStep(HOME_GOAL);
+            if (homeAction != null) {
+                log("Навігатор: Золото є, повертаюся до (0, 0), рекомендую " + homeAction);
+                lastActionAttempted = homeAction;
+                return homeAction;
+            }
+        }
+
+        // найближча (з урахуванням поворотів) безпечна, невідвідана клітинка
+        Action exploreAction = frontierCells.isEmpty() ? null : planStep(FRONTIER_GOAL);
+        if (exploreAction != null) {
+            log("Навігатор: Найближча безпечна, невідвідана клітинка (" + plannedTargetX() + ", " + plannedTargetY() + "), рекомендую " + exploreAction);
+            lastActionAttempted = exploreAction;
+            return exploreAction;
+        }
+
+        // безпечних невідвіданих клітинок немає: у ймовірнісному режимі та режимі "заднім числом"
+        // ризикуємо кроком у невідоме, якщо він вартий ризику
+        if ((riskEstimator != null || monteCarloPlanner != null) && !hasGold) {
+            Action riskyAction = riskyStep();
+            if (riskyAction != null) {
+                lastActionAttempted = riskyAction;
+                return riskyAction;
+            }
+        }
+
+        // повертаємося і вибираємося з печери
+        if (currentExplorerX == 0 && currentExplorerY == 0) {
+            log("Навігатор: Немає безпечних шляхів, рекомендую CLIMB без золота.");
+            lastActionAttempted = Action.CLIMB;
+            return Action.CLIMB;
+        }
+        Action homeAction = planStep(HOME_GOAL);
+        if (homeAction != null) {
+            log("Навігатор: Немає безпечних шляхів, повертаюся до (0, 0), рекомендую " + homeAction);
+            lastActionAttempted = homeAction;
+            return homeAction;
+        }
+
+        log("Навігатор: Немає очевидних безпечних шляхів, пробуємо повернути.");
+        lastActionAttempted = Action.TURN_RIGHT;
+        return Action.TURN_RIGHT;
+    }
+
+    // чи знаходиться підтверджений Вампус на лінії пострілу спелеолога.
+    // @return true, якщо стріла в поточному напрямку пролетить через клітинку Вампуса.
+    private boolean isWampusInLineOfFire() {
+        switch (currentExplorerDirection) {
+            case NORTH: return confirmedWampusX == currentExplorerX && confirmedWampusY < currentExplorerY;
+            case SOUTH: return confirmedWampusX == currentExplorerX && confirmedWampusY > currentExplorerY;
+            case EAST: return confirmedWampusY == currentExplorerY && confirmedWampusX > currentExplorerX;
+            case WEST: return confirmedWampusY == currentExplorerY && confirmedWampusX < currentExplorerX;
+        }
+        return false;
+    }
+
+    // крок до обраної клітинки межі (найменший ризик або найкраща макродія пошуку Монте-Карло).
+    // ціль перераховується лише після зміни знань.
+    // @return дія або null, якщо ризикувати не варто.
+    private Action riskyStep() {
+        if (riskTargetVersion != knowledgeVersion || riskTarget < 0) {
+            riskTarget = monteCarloPlanner != null ? chooseMonteCarloTarget() : chooseRiskTarget();
+            riskTargetVersion = knowledgeVersion;
+        }
+        if (riskTarget < 0) {
+            return null;
+        }
+        int targetX = riskTarget % gridSize;
+        int targetY = riskTarget / gridSize;
+        Action action;
+        if (hierarchicalPlanner != null) {
+            action = hierarchicalPlanner.nextStep(currentExplorerX, currentExplorerY, currentExplorerDirection,
+                    (x, y) -> worldMap.isSafe(x, y), Collections.singleton(riskTarget), "risk:" + riskTarget, knowledgeVersion);
+        } else if (incrementalPlanner != null) {
+            action = incrementalPlanner.nextStep(currentExplorerX, currentExplorerY, currentExplorerDirection,
+                    (x, y) -> worldMap.isSafe(x, y), Collections.singleton(riskTarget), "risk:" + riskTarget);
+        } else {
+            action = planner.nextStep(currentExplorerX, currentExplorerY, currentExplorerDirection,
+                    (x, y) -> worldMap.isSafe(x, y) || (x == targetX && y == targetY),
+                    (x, y) -> x == targetX && y == targetY, "risk:" + riskTarget, knowledgeVersion);
+        }
+        if (action != null) {
+            log("Навігатор: Безпечних клітинок немає, ризикую кроком до (" + targetX + ", " + targetY + "), рекомендую " + action);
+        }
+        return action;
+    }
+
+    // ціль пошуку Монте-Карло серед підозрілих клітинок межі.
+    // @return індекс клітинки або -1, якщо вигідніше повернутися.
+    private int chooseMonteCarloTarget() {
+        Set<Integer> candidates = new LinkedHashSet<>(pitSuspectCells);
+        candidates.addAll(wampusSuspectCells);
+        candidates.removeIf(cell -> worldMap.isSafe(cell % gridSize, cell / gridSize));
+        if (candidates.isEmpty()) {
+            return -1;
+        }
+        return monteCarloPlanner.decide(this, candidates, System.nanoTime() + monteCarloBudgetNanos / budgetShares);
+    }
+
+    // оцінка ризику клітинок межі: ймовірність ями (точний перебір компонент)
+    // та ймовірність Вампуса (рівномірно серед узгоджених кандидатів).
+    // @return індекс клітинки з найменшим ризиком або -1, якщо всі ризики завеликі.
+    private int chooseRiskTarget() {
+        Set<Integer> candidates = new LinkedHashSet<>(pitSuspectCells);
+        candidates.addAll(wampusSuspectCells);
+        if (candidates.isEmpty()) {
+            return -1;
+        }
+        long deadline = System.nanoTime() + riskBudgetNanos / budgetShares;
+        List<int[]> constraints = pitConstraints();
+        Map<Integer, Double> pitProbabilities = riskEstimator.pitProbabilities(constraints, deadline);
+
+        int best = -1;
+        double bestRisk = Double.MAX_VALUE;
+        int bestDistance = Integer.MAX_VALUE;
+        for (int cell : candidates) {
+            int x = cell % gridSize;
+            int y = cell / gridSize;
+            if (worldMap.isSafe(x, y) || worldMap.isVisited(x, y)) continue;
+            int pitValue = inference.valueOf(x, y, InferenceEngine.PIT);
+            double pit = pitValue > 0 ? 1 : pitValue < 0 ? 0 : pitProbabilities.getOrDefault(cell, riskEstimator.getPitDensity());
+            double risk = 1 - (1 - pit) * (1 - wampusProbability(x, y));
+            int distance = Math.abs(x - currentExplorerX) + Math.abs(y - currentExplorerY);
+            if (risk < bestRisk || (risk == bestRisk && distance < bestDistance)) {
+                best = cell;
+                bestRisk = risk;
+                bestDistance = distance;
+            }
+        }
+        if (best >= 0) {
+            log("Навігатор: Найменший ризик " + bestRisk + " у (" + best % gridSize + ", " + best / gridSize + ")");
+        }
+        return bestRisk <= maxRisk ? best : -1;
+    }
+
+    // обмеження на ями: для кожної відвіданої клітинки з вітром, яку ще не пояснює підтверджена яма, -
+    // індекси сусідів, про яму в яких нічого не відомо (хоча б один з них містить яму).
+    List<int[]> pitConstraints() {
+        List<int[]> constraints = new ArrayList<>();
+        for (int cell : breezeCells) {
+            int[] unknown = new int[4];
+            int count = 0;
+            boolean satisfied = false;
+            for (int i = 0; i < 4 && !satisfied; i++) {
+                int nx = cell % gridSize + DX[i];
+                int ny = cell / gridSize + DY[i];
+                if (!isValid(nx, ny)) continue;
+                int value = inference.valueOf(nx, ny, InferenceEngine.PIT);
+                if (value > 0) satisfied = true;
+                else if (value == 0) unknown[count++] = cellKey(nx, ny);
+            }
+            if (!satisfied && count > 0) {
+                constraints.add(Arrays.copyOf(unknown, count));
+            }
+        }
+        return constraints;
+    }
+
+    // обмеження на Вампусів (як pitConstraints): для кожної відвіданої клітинки із запахом, яку ще
+    // не пояснює доведений Вампус, - невідомі сусіди (хоча б один з них містить Вампуса).
+    // доведені Вампуси: Вампус виводиться лише з правил запаху, тому це сусіди клітинок із запахом.
+    // @return індекси клітинок без повторів.
+    List<Integer> confirmedWampusCells() {
+        Set<Integer> cells = new LinkedHashSet<>();
+        for (int cell : stenchCells) {
+            for (int i = 0; i < 4; i++) {
+                int nx = cell % gridSize + DX[i];
+                int ny = cell / gridSize + DY[i];
+                if (isValid(nx, ny) && inference.valueOf(nx, ny, InferenceEngine.WAMPUS) > 0) {
+                    cells.add(cellKey(nx, ny));
+                }
+            }
+        }
+        return new ArrayList<>(cells);
+    }
+
+    List<int[]> wampusConstraints() {
+        List<int[]> constraints = new ArrayList<>();
+        if (!wampusAliveInMind) {
+            return constraints;
+        }
+        for (int cell : stenchCells) {
+            int[] unknown = new int[4];
+            int count = 0;
+            boolean satisfied = false;
+            for (int i = 0; i < 4 && !satisfied; i++) {
+                int nx = cell % gridSize + DX[i];
+                int ny = cell / gridSize + DY[i];
+                if (!isValid(nx, ny)) continue;
+                int value = inference.valueOf(nx, ny, InferenceEngine.WAMPUS);
+                if (value > 0) satisfied = true;
+                else if (value == 0) unknown[count++] = cellKey(nx, ny);
+            }
+            if (!satisfied && count > 0) {
+                constraints.add(Arrays.copyOf(unknown, count));
+            }
+        }
+        return constraints;
+    }
+
+    // ймовірність Вампуса в клітинці: для одного Вампуса - рівномірно серед клітинок, де він ще можливий;
+    // для кількох - щонайменше 1/n для кожного сусіда клітинки із запахом з n невідомими сусідами,
+    // інакше частка Вампусів серед клітинок, де вони ще можливі.
+    private double wampusProbability(int x, int y) {
+        if (!wampusAliveInMind) return 0;
+        int value = inference.valueOf(x, y, InferenceEngine.WAMPUS);
+        if (value != 0) return value > 0 ? 1 : 0;
+        if (wampusCandidates != null) {
+            return wampusCandidates.contains(cellKey(x, y)) ? 1.0 / wampusCandidates.size() : 0;
+        }
+        double uniform = Math.min(1.0, (double) wampusCount / Math.max(1, gridSize * gridSize - wampusRefutedCount));
+        if (wampusCount == 1) {
+            return uniform;
+        }
+        double probability = uniform;
+        int cell = cellKey(x, y);
+        for (int[] constraint : wampusConstraints()) {
+            for (int member : constraint) {
+                if (member == cell) probability = Math.max(probability, 1.0 / constraint.length);
+            }
+        }
+        return probability;
+    }
+
+    private static final String FRONTIER_GOAL = "frontier";
+    private static final String HOME_GOAL = "home";
+
+    // наступний крок плану до цілі; прохідні лише клітинки, відомі як безпечні.
+    // @param goal FRONTIER_GOAL (безпечна невідвідана клітинка) або HOME_GOAL (клітинка (0,0)).
+    // @return дія або null, якщо ціль недосяжна.
+    private Action planStep(String goal) {
+        if (hierarchicalPlanner != null) {
+            return hierarchicalPlanner.nextStep(currentExplorerX, currentExplorerY, currentExplorerDirection,
+                    (x, y) -> worldMap.isSafe(x, y),
+                    HOME_GOAL.equals(goal) ? Collections.singleton(cellKey(0, 0)) : frontierCells, goal, knowledgeVersion);
+        }
+        // межу досліджено відвідуванням її клітинок, тобто ціль зникає майже щоходу і дерево D* Lite
+        // довелося б перебудовувати майже повністю; найближча клітинка межі зазвичай поруч,
+        // тому інкрементно плануються лише шляхи до сталих цілей (додому і до ризикованої клітинки)
+        if (incrementalPlanner != null && HOME_GOAL.equals(goal)) {
+            return incrementalPlanner.nextStep(currentExplorerX, currentExplorerY, currentExplorerDirection,
+                    (x, y) -> worldMap.isSafe(x, y), Collections.singleton(cellKey(0, 0)), goal);
+        }
+        PathPlanner.CellPredicate target = HOME_GOAL.equals(goal)
+                ? (x, y) -> x == 0 && y == 0
+                : (x, y) -> !worldMap.isVisited(x, y);
+        return planner.nextStep(currentExplorerX, currentExplorerY, currentExplorerDirection,
+                (x, y) -> worldMap.isSafe(x, y), target, goal, knowledgeVersion);
+    }
+
+    // ціль останнього плану активного планувальника.
+    private int plannedTargetX() { return hierarchicalPlanner != null ? hierarchicalPlanner.getTargetX() : planner.getTargetX(); }
+    private int plannedTargetY() { return hierarchicalPlanner != null ? hierarchicalPlanner.getTargetY() : planner.getTargetY(); }
+
+    // оновлення внутрішнього стану навігатора після виконання дії спелеолога.
+    // @param action дія, яка була виконана.
+    public void applyActionToNavigatorState(Action action) {
+        lastActionAttempted = action;
+        lastForwardMoved = false;
+        switch (action) {
+            case FORWARD:
+                int newX = currentExplorerX;
+                int newY = currentExplorerY;
+                switch (currentExplorerDirection) {
+                    case NORTH: newY--; break;
+                    case EAST: newX++; break;
+                    case SOUTH: newY++; break;
+                    case WEST: newX--; break;
+                }
+                if (isValid(newX, newY)) {
+                    setPose(newX, newY, currentExplorerDirection);
+                    lastForwardMoved = true;
+                }
+                break;
+            case TURN_LEFT:
+                switch (currentExplorerDirection) {
+                    case NORTH: setPose(currentExplorerX, currentExplorerY, Direction.WEST); break;
+                    case EAST: setPose(currentExplorerX, currentExplorerY, Direction.NORTH); break;
+                    case SOUTH: setPose(currentExplorerX, currentExplorerY, Direction.EAST); break;
+                    case WEST: setPose(currentExplorerX, currentExplorerY, Direction.SOUTH); break;
+                }
+                break;
+            case TURN_RIGHT:
+                switch (currentExplorerDirection) {
+                    case NORTH: setPose(currentExplorerX, currentExplorerY, Direction.EAST); break;
+                    case EAST: setPose(currentExplorerX, currentExplorerY, Direction.SOUTH); break;
+                    case SOUTH: setPose(currentExplorerX, currentExplorerY, Direction.WEST); break;
+                    case WEST: setPose(currentExplorerX, currentExplorerY, Direction.NORTH); break;
+                }
+                break;
+            case SHOOT:
+                if (hasArrow) {
+                    hasArrow = false;
+                    stateHash ^= Zobrist.global(Zobrist.HAS_ARROW);
+                }
+                break;
+            case GRAB:
+                setHasGold();
+                break;
+            case CLIMB:
+                break;
+        }
+    }
+
+    // зміна позиції та напрямку спелеолога з оновленням хешу стану.
+    private void setPose(int x, int y, Direction direction) {
+        stateHash ^= Zobrist.pose(cellKey(currentExplorerX, currentExplorerY), currentExplorerDirection)
+                ^ Zobrist.pose(cellKey(x, y), direction);
+        currentExplorerX = x;
+        currentExplorerY = y;
+        currentExplorerDirection = direction;
+    }
+
+    private void setHasGold() {
+        if (!hasGold) {
+            hasGold = true;
+            stateHash ^= Zobrist.global(Zobrist.HAS_GOLD);
+        }
+    }
+
+    // зміна прапорця клітинки з оновленням хешу стану (лише при справжній зміні).
+    // @param feature ознака Zobrist.VISITED ... Zobrist.BREEZE.
+    private void setFlag(int x, int y, int feature, boolean value) {
+        if (!worldMap.set(x, y, feature, value)) {
+            return;
+        }
+        if (feature == KnowledgeMap.SAFE) {
+            if (hierarchicalPlanner != null) hierarchicalPlanner.invalidate(x, y);
+            if (incrementalPlanner != null) incrementalPlanner.cellChanged(x, y);
+        }
+        stateHash ^= Zobrist.cell(cellKey(x, y), feature);
+    }
+
+    // перевіряє, чи є координати дійсними в межах сітки.
+    // @param x X-координата.
+    // @param y Y-координата.
+    // @return true, якщо координати дійсні, інакше false.
+    private boolean isValid(int x, int y) {
+        return x >= 0 && x < gridSize && y >= 0 && y < gridSize;
+    }
+
+    // друк внутрішньої карти навігатора для налагодження.
+    public void printNavigatorMap() {
+        if (gridSize > MAX_PRINTED_GRID_SIZE) {
+            System.out.println("Навігатор: позиція спелеолога (" + currentExplorerX + ", " + currentExplorerY + "), напрямок: " + currentExplorerDirection);
+            return;
+        }
+        System.out.println("--- Карта навігатора ---");
+        for (int j = 0; j < gridSize; j++) {
+            for (int i = 0; i < gridSize; i++) {
+                System.out.print("|");
+                if (i == currentExplorerX && j == currentExplorerY) {
+                    System.out.print("A");
+                } else if (worldMap.isGoldConfirmed(i, j)) {
+                    System.out.print("G");
+                } else if (worldMap.isWampusConfirmed(i, j)) {
+                    System.out.print("W");
+                } else if (worldMap.isPitConfirmed(i, j)) {
+                    System.out.print("P");
+                } else if (worldMap.isSafe(i, j)) {
+                    System.out.print("S");
+                } else if (worldMap.isWampusSuspect(i, j)) {
+                    System.out.print("w");
+                } else if (worldMap.isPitSuspect(i, j)) {
+                    System.out.print("p");
+                } else if (worldMap.isVisited(i, j)) {
+                    System.out.print("V");
+                } else {
+                    System.out.print("?");
+                }
+                System.out.print(" ");
+            }
+            System.out.println("|");
+        }
+        System.out.println("Позиція спелеолога: (" + currentExplorerX + ", " + currentExplorerY + "), Напрямок: " + currentExplorerDirection);
+        System.out.println("Наявність стріли: " + hasArrow + ", Наявність золота: " + hasGold + ", Вампус живий (навігатор): " + wampusAliveInMind);
+        System.out.println("------------------------");
+    }
+
+    private void log(String message) {
+        if (verbose) {
+            System.out.println(message);
+        }
+    }
+}
@@ -2,38 +2,76 @@ package WampusWorld;
 import jade.core.Agent;
 import jade.core.AID;
 import jade.core.behaviours.CyclicBehaviour;
+import jade.core.behaviours.TickerBehaviour;
 import jade.lang.acl.ACLMessage;
 import jade.lang.acl.MessageTemplate;
 import jade.domain.DFService;
 import jade.domain.FIPAException;
 import jade.domain.FIPAAgentManagement.DFAgentDescription;
 import jade.domain.FIPAAgentManagement.ServiceDescription;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
-import static WampusWorld.WampusWorldCore.Direction;
 import static WampusWorld.WampusWorldCore.PerceptionType;
 import static WampusWorld.WampusWorldCore.Action;
-import static WampusWorld.WampusWorldCore.NavigatorCellInfo;
+import static WampusWorld.WampusWorldCore.Direction;
 
 
 // агент-навігатор, відповідає за обробку сприйнять спелеолога,
 // побудову внутрішньої карти світу та прийняття рішень щодо наступної дії.
+// для кожного спелеолога (conversation-id або AID) ведеться окрема сесія знань,
+// яка створюється при першому зверненні. кількість сесій обмежена: коли місця немає,
+// звільняються лише завершені сесії, а нові відхиляються. неактивні та завершені сесії
+// видаляються за часом; закриті conversation-id запам'ятовуються, і пізні повідомлення
+// для них відхиляються (REFUSE), а не отримують новий навігатор у (0,0).
 public class NavigatorAgent extends Agent {
-    private AID explorerAID; // ідентифікатор агента-спелеолога
-    private NavigatorCellInfo[][] worldMap; // внутрішнє представлення світу
-    private int gridSize = 4; // розмір світу 4x4
-    private int currentExplorerX;
-    private int currentExplorerY;
-    private Direction currentExplorerDirection;
-    private boolean hasArrow;
-    private boolean hasGold;
-    private boolean wampusAliveInMind; // чи вважає навігатор, що вампус живий
-    private boolean wampusKilledReported; // чи повідомлено про вбивство вампуса
-
-    // для збереження попередньої дії, щоб відстежувати BUMP
-    private Action lastActionAttempted = null;
+    private static final int DEFAULT_MAX_SESSIONS = 1000; // максимальна кількість одночасних сесій
+    private static final long DEFAULT_SESSION_TTL_MS = 5 * 60 * 1000; // час бездіяльності до видалення сесії
+    private static final int MAX_CLOSED_SESSIONS = 10_000; // скільки закритих conversation-id пам'ятати
+    // режим планів (онтологія ActionPlan.ONTOLOGY): параметри запиту спелеолога
+    static final String PLAN_STEPS_PARAMETER = "plan-steps"; // найбільша довжина плану
+    static final String EXECUTED_PARAMETER = "plan-executed"; // скільки дій попереднього плану виконано
+    private static final int MAX_PLAN_STEPS = 64;
+    // режим макрокоманд (онтологія MacroCommand.ONTOLOGY): позиція "x,y,НАПРЯМОК" після попередньої команди
+    static final String POSE_PARAMETER = "macro-pose";
+    private static final int MAX_MACRO_STEPS = 1024;
+    // режим дерев рішень (онтологія DecisionTree.ONTOLOGY): гілка, яку спелеолог уже виконав
+    static final String BRANCH_PARAMETER = "tree-branch";
+
+    private GameConfig config; // розмір світу (аргумент size, за замовчуванням 4x4) і режим рішень (mode)
+    private DecisionCache decisionCache; // кеш рішень за хешем стану, спільний для всіх сесій
+    private int maxSessions;
+    private long sessionTtlMs;
+    private boolean verbose; // чи друкувати міркування та карту після кожного ходу
+    private final Map<String, NavigatorSession> sessions = new LinkedHashMap<>();
+    // закриті сесії (conversation-id -> причина); старі записи забуваються
+    private final Map<String, String> closedSessions = new LinkedHashMap<String, String>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > MAX_CLOSED_SESSIONS;
+        }
+    };
+
+    // знання навігатора про гру одного спелеолога.
+    private static class NavigatorSession {
+        private Navigator navigator; // політика навігатора (внутрішня карта та вибір дій)
+        private DecisionTree tree; // останнє відправлене дерево рішень (режим дерев)
+        private final AID explorerAID; // ідентифікатор агента-спелеолога
+        private final boolean byConversation; // ключ сесії - conversation-id (а не AID, що повторюється між іграми)
+        private long lastAccess; // час останнього звернення
+        private boolean finished; // навігатор уже порадив піднятися
+
+        NavigatorSession(Navigator navigator, AID explorerAID, boolean byConversation) {
+            this.navigator = navigator;
+            this.explorerAID = explorerAID;
+            this.byConversation = byConversation;
+            this.lastAccess = System.currentTimeMillis();
+        }
+    }
 
     // словник для перетворення природної мови на сприйняття
     private static final Map<String, PerceptionType> PERCEPTION_KEYWORDS = new HashMap<>();
@@ -42,6 +80,8 @@ public class NavigatorAgent extends Agent {
         PERCEPTION_KEYWORDS.put("feel breeze", PerceptionType.BREEZE);
         PERCEPTION_KEYWORDS.put("see glitter", PerceptionType.GLITTER);
         PERCEPTION_KEYWORDS.put("hit a wall", PerceptionType.BUMP);
+        PERCEPTION_KEYWORDS.put("bumped into", PerceptionType.BUMP);
+        PERCEPTION_KEYWORDS.put("blocked by a wall", PerceptionType.BUMP);
         PERCEPTION_KEYWORDS.put("scream", PerceptionType.SCREAM);
         PERCEPTION_KEYWORDS.put("safe", PerceptionType.SAFE);
     }
@@ -50,27 +90,11 @@ public class NavigatorAgent extends Agent {
     protected void setup() {
         System.out.println("Агент-навігатор " + getAID().getName() + " запущений.");
 
-        // ініціалізація внутрішньої карти світу
-        worldMap = new NavigatorCellInfo[gridSize][gridSize];
-        for (int i = 0; i < gridSize; i++) {
-            for (int j = 0; j < gridSize; j++) {
-                worldMap[i][j] = new NavigatorCellInfo();
-            }
-        }
-
-        // початковий стан спелеолога
-        currentExplorerX = 0;
-        currentExplorerY = 0;
-        currentExplorerDirection = Direction.EAST;
-        hasArrow = true;
-        hasGold = false;
-        wampusAliveInMind = true;
-        wampusKilledReported = false;
-
-        // початкова клітинка (0,0) завжди безпечна і відвідана
-        worldMap[0][0].setVisited(true);
-        worldMap[0][0].setSafe();
-
+        config = GameConfig.fromArguments(getArguments());
+        decisionCache = config.newDecisionCache();
+        maxSessions = (int) config.getLong("maxsessions", DEFAULT_MAX_SESSIONS);
+        sessionTtlMs = config.getLong("sessionttl", DEFAULT_SESSION_TTL_MS);
+        verbose = config.getBoolean("verbose", true);
         // реєстрація послуги в DF (жовті сторінки)
         DFAgentDescription dfd = new DFAgentDescription();
         dfd.setName(getAID());
@@ -84,8 +108,15 @@ public class NavigatorAgent extends Agent {
             fe.printStackTrace();
         }
 
-        // додавання поведінки для прийому повідомлень від спелеолога
+        // додавання поведінки для прийому повідомлень від спелеологів
         addBehaviour(new ReceiveExplorerMessageBehaviour());
+        // видалення неактивних і завершених сесій
+        addBehaviour(new TickerBehaviour(this, Math.max(1000, sessionTtlMs / 2)) {
+            @Override
+            protected void onTick() {
+                evictSessions();
+            }
+        });
     }
 
     @Override
@@ -99,10 +130,65 @@ public class NavigatorAgent extends Agent {
         System.out.println("Агент-навігатор " + getAID().getName() + " завершив роботу.");
     }
 
-    // встановлення AID агента-спелеолога.
-    // @param aid AID агента-спелеолога.
-    public void setExplorerAID(AID aid) {
-        this.explorerAID = aid;
+    // пошук сесії спелеолога або створення нової при першому зверненні.
+    // @return сесія або null, якщо сесію вже закрито чи для нової немає місця (відповідь - REFUSE).
+    private NavigatorSession sessionFor(ACLMessage msg) {
+        String key = EnvironmentAgent.sessionKey(msg);
+        NavigatorSession session = sessions.get(key);
+        if (session == null) {
+            if (closedSessions.containsKey(key)) {
+                return null;
+            }
+            if (sessions.size() >= maxSessions) {
+                // місце звільняють лише завершені сесії: знання активної гри не відновити
+                removeSessions(true, false);
+                if (sessions.size() >= maxSessions) {
+                    System.out.println("Навігатор: нову сесію '" + key + "' відхилено (активних сесій: " + maxSessions + ").");
+                    return null;
+                }
+            }
+            // ініціалізація внутрішньої карти світу та початкового стану спелеолога
+            Navigator navigator = config.newNavigator(decisionCache);
+            navigator.setVerbose(verbose);
+            // сприйняття від середовища (пряма маршрутизація) містять спелеолога в reply-to
+            AID explorer = msg.getSender();
+            Iterator<?> replyTo = msg.getAllReplyTo();
+            if (EnvironmentAgent.PERCEPTION_ONTOLOGY.equals(msg.getOntology()) && replyTo != null && replyTo.hasNext()) {
+                explorer = (AID) replyTo.next();
+            }
+            String conversationId = msg.getConversationId();
+            session = new NavigatorSession(navigator, explorer, conversationId != null && !conversationId.isEmpty());
+            sessions.put(key, session);
+            System.out.println("Навігатор: нова сесія '" + key + "' для " + explorer.getName() + ", активних сесій: " + sessions.size());
+        }
+        session.lastAccess = System.currentTimeMillis();
+        session.finished = false; // ще одне повідомлення: підйом із плану чи дерева ще не відбувся
+        return session;
+    }
+
+    // видаляє сесії, які завершилися або давно не використовувалися.
+    private void evictSessions() {
+        removeSessions(true, true);
+    }
+
+    // @param finished чи видаляти завершені сесії.
+    // @param idle чи видаляти сесії, неактивні довше за sessionTtlMs.
+    private void removeSessions(boolean finished, boolean idle) {
+        long now = System.currentTimeMillis();
+        Iterator<Map.Entry<String, NavigatorSession>> it = sessions.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, NavigatorSession> entry = it.next();
+            NavigatorSession session = entry.getValue();
+            boolean expired = idle && now - session.lastAccess > sessionTtlMs;
+            if ((finished && session.finished) || expired) {
+                it.remove();
+                if (session.byConversation) {
+                    closedSessions.put(entry.getKey(), session.finished ? "гру завершено" : "закрито через бездіяльність");
+                }
+                if (verbose || expired) System.out.println("Навігатор: сесію '" + entry.getKey() + "' видалено"
+                        + (session.finished ? "." : " через бездіяльність."));
+            }
+        }
     }
 
     // внутрішня циклічна поведінка для прийому повідомлень від агента-спелеолога.
@@ -110,50 +196,140 @@ public class NavigatorAgent extends Agent {
         @Override
         public void action() {
             // шаблон повідомлення для прийому REQUEST від будь-якого агента
-            MessageTemplate mt = MessageTemplate.MatchPerformative(ACLMessage.REQUEST);
+            // або сприйнять від середовища при прямій маршрутизації
+            MessageTemplate mt = MessageTemplate.or(
+                    MessageTemplate.MatchPerformative(ACLMessage.REQUEST),
+                    MessageTemplate.and(
+                            MessageTemplate.MatchPerformative(ACLMessage.INFORM),
+                            MessageTemplate.MatchOntology(EnvironmentAgent.PERCEPTION_ONTOLOGY))
+            );
             ACLMessage msg = myAgent.receive(mt);
 
             if (msg != null) {
-                System.out.println("Навігатор: отримано повідомлення від " + msg.getSender().getName() + ": " + msg.getContent());
-
-                if (explorerAID == null) {
-                    explorerAID = msg.getSender();
+                boolean binary = BinaryCodec.isBinary(msg);
+                if (verbose) System.out.println("Навігатор: отримано повідомлення від " + msg.getSender().getName() + ": "
+                        + (binary ? Arrays.toString(msg.getByteSequenceContent()) : msg.getContent()));
+
+                NavigatorSession session = sessionFor(msg);
+                if (session == null) {
+                    // при прямій маршрутизації відповідь іде спелеологу з reply-to
+                    ACLMessage refuse = msg.createReply();
+                    refuse.setPerformative(ACLMessage.REFUSE);
+                    refuse.setLanguage(null);
+                    String key = EnvironmentAgent.sessionKey(msg);
+                    String reason = closedSessions.get(key);
+                    refuse.setContent(reason != null ? "Сесію '" + key + "' закрито: " + reason
+                            : "Забагато активних сесій навігатора");
+                    myAgent.send(refuse);
+                    return;
                 }
-
-                String messageContent = msg.getContent().toLowerCase();
-                Set<PerceptionType> currentPerceptions = parsePerceptionMessage(messageContent);
-
-                updateKnowledgeBase(currentPerceptions, currentExplorerX, currentExplorerY);
-
-                // якщо була дія BUMP, потрібно відкотити позицію спелеолога і спробувати інший шлях
-                if (currentPerceptions.contains(PerceptionType.BUMP) && lastActionAttempted == Action.FORWARD) {
-                    // відкотити позицію спелеолога
-                    switch (currentExplorerDirection) {
-                        case NORTH: currentExplorerY++; break;
-                        case EAST: currentExplorerX--; break;
-                        case SOUTH: currentExplorerY--; break;
-                        case WEST: currentExplorerX++; break;
+                Navigator navigator = session.navigator;
+
+                boolean direct = EnvironmentAgent.PERCEPTION_ONTOLOGY.equals(msg.getOntology());
+                Set<PerceptionType> currentPerceptions;
+                if (binary) {
+                    // байт-маска сприйнять (однаковий формат від середовища і від спелеолога)
+                    currentPerceptions = BinaryCodec.decodePerceptions(msg.getByteSequenceContent());
+                    if (currentPerceptions == null) {
+                        System.err.println("Навігатор: некоректний двійковий вміст: " + Arrays.toString(msg.getByteSequenceContent()));
+                        ACLMessage notUnderstood = msg.createReply();
+                        notUnderstood.setPerformative(ACLMessage.NOT_UNDERSTOOD);
+                        notUnderstood.setLanguage(null);
+                        notUnderstood.setContent("Некоректні сприйняття");
+                        myAgent.send(notUnderstood);
+                        return;
                     }
-                    System.out.println("Навігатор: Спелеолог зіткнувся зі стіною, відкотив позицію до (" + currentExplorerX + ", " + currentExplorerY + ").");
+                } else if (direct) {
+                    // рядок середовища "STENCH;BREEZE" розбирається без природної мови
+                    currentPerceptions = ExplorerAgent.parsePerceptionString(msg.getContent());
                 } else {
-                    if (lastActionAttempted == Action.FORWARD) {
-                        // позиція спелеолога вже оновилася в `EnvironmentAgent`, тут ми її просто підтверджуємо
-                    }
+                    String messageContent = msg.getContent().toLowerCase();
+                    currentPerceptions = parsePerceptionMessage(messageContent);
                 }
 
-                Action nextAction = decideNextAction();
-
-                String replyContent = generateActionMessage(nextAction);
-
-                ACLMessage reply = msg.createReply();
+                ACLMessage reply = msg.createReply(); // при прямій маршрутизації - спелеологу з reply-to
                 reply.setPerformative(ACLMessage.INFORM);
-                reply.setContent(replyContent);
+                if (direct) {
+                    reply.setOntology(null);
+                }
+                String replyContent;
+                if (DecisionTree.ONTOLOGY.equals(msg.getOntology())) {
+                    // спелеолог обирає дії з дерева сам: якщо гілку вже виконано, її стан готовий,
+                    // інакше дія обирається заново зі стану до сприйнять
+                    String branch = msg.getUserDefinedParameter(BRANCH_PARAMETER);
+                    DecisionTree previous = session.tree;
+                    Action root;
+                    if (branch != null && previous != null && previous.getSuccessor(branch) != null) {
+                        navigator = previous.getSuccessor(branch);
+                        root = previous.getBranch(branch);
+                    } else {
+                        if (previous != null) {
+                            navigator = previous.getBase();
+                        }
+                        root = navigator.nextAction(currentPerceptions);
+                    }
+                    navigator.setVerbose(verbose);
+                    session.navigator = navigator;
+                    session.tree = DecisionTree.grow(navigator, root);
+                    if (root == Action.CLIMB) {
+                        session.finished = true;
+                    }
+                    replyContent = session.tree.format();
+                    reply.setOntology(DecisionTree.ONTOLOGY);
+                } else if (MacroCommand.ONTOLOGY.equals(msg.getOntology())) {
+                    // спелеолог передає макрокоманди середовищу: спершу узгоджуємо позицію з фактичною
+                    String pose = msg.getUserDefinedParameter(POSE_PARAMETER);
+                    if (pose != null) {
+                        String[] parts = pose.split(",");
+                        try {
+                            navigator.macroExecuted(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), Direction.valueOf(parts[2]));
+                        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+                            System.err.println("Навігатор: некоректна позиція після макрокоманди: " + pose);
+                        }
+                    }
+                    MacroCommand macro = navigator.nextMacro(currentPerceptions, MAX_MACRO_STEPS);
+                    if (macro.getAction() == Action.CLIMB || macro.isHomeClimb()) {
+                        session.finished = true;
+                    }
+                    replyContent = macro.format();
+                    reply.setOntology(MacroCommand.ONTOLOGY);
+                } else if (ActionPlan.ONTOLOGY.equals(msg.getOntology())) {
+                    // спелеолог приймає плани: спершу узгоджуємо стан з виконаною частиною попереднього плану
+                    String executed = msg.getUserDefinedParameter(EXECUTED_PARAMETER);
+                    try {
+                        navigator.planExecuted(executed == null ? 0 : Integer.parseInt(executed));
+                    } catch (NumberFormatException e) {
+                        System.err.println("Навігатор: некоректна кількість виконаних дій плану: " + executed);
+                        navigator.planExecuted(0);
+                    }
+                    ActionPlan plan = navigator.nextPlan(currentPerceptions, planSteps(msg));
+                    if (plan.getAction(plan.size() - 1) == Action.CLIMB) {
+                        session.finished = true;
+                    }
+                    replyContent = plan.format();
+                    reply.setOntology(ActionPlan.ONTOLOGY);
+                } else {
+                    // оновлення знань, вибір дії та застосування її до стану навігатора
+                    Action nextAction = navigator.nextAction(currentPerceptions);
+                    if (nextAction == Action.CLIMB) {
+                        session.finished = true; // гра завершується, сесію буде видалено при наступному очищенні
+                    }
+                    if (binary) {
+                        reply.setByteSequenceContent(BinaryCodec.encodeAction(nextAction));
+                        replyContent = nextAction.name();
+                    } else {
+                        replyContent = generateActionMessage(nextAction);
+                    }
+                }
+                if (!binary || reply.getOntology() != null) {
+                    reply.setLanguage(null); // плани, макрокоманди й дерева передаються лише текстом
+                    reply.setContent(replyContent);
+                }
                 myAgent.send(reply);
-                System.out.println("Навігатор: відправлено відповідь спелеологу: '" + replyContent + "'");
-
-                applyActionToNavigatorState(nextAction);
-
-                printNavigatorMap();
+                if (verbose) {
+                    System.out.println("Навігатор: відправлено відповідь спелеологу: '" + replyContent + "'");
+                    navigator.printNavigatorMap();
+                }
 
             } else {
                 block();
@@ -161,240 +337,37 @@ public class NavigatorAgent extends Agent {
         }
     }
 
+    // довжина плану, яку просить спелеолог (не більше MAX_PLAN_STEPS).
+    private static int planSteps(ACLMessage msg) {
+        String requested = msg.getUserDefinedParameter(PLAN_STEPS_PARAMETER);
+        try {
+            int steps = requested == null ? MAX_PLAN_STEPS : Integer.parseInt(requested);
+            return Math.max(1, Math.min(steps, MAX_PLAN_STEPS));
+        } catch (NumberFormatException e) {
+            return MAX_PLAN_STEPS;
+        }
+    }
+
     // парсинг природно-мовного повідомлення від спелеолога у набір сприйнять.
     // @param message природно-мовне повідомлення.
     // @return набір сприйнять.
-    private Set<PerceptionType> parsePerceptionMessage(String message) {
+    static Set<PerceptionType> parsePerceptionMessage(String message) {
         Set<PerceptionType> perceptions = new HashSet<>();
         for (Map.Entry<String, PerceptionType> entry : PERCEPTION_KEYWORDS.entrySet()) {
             if (message.contains(entry.getKey())) {
                 perceptions.add(entry.getValue());
             }
         }
-        if (perceptions.isEmpty() && !message.contains("hit a wall") && !message.contains("scream")) {
+        if (perceptions.isEmpty()) {
             perceptions.add(PerceptionType.SAFE);
         }
         return perceptions;
     }
 
-    // оновлення внутрішньої карти світу навігатора на основі отриманих сприйнять.
-    // @param perceptions поточні сприйняття.
-    // @param x поточна X-координата спелеолога.
-    // @param y поточна Y-координата спелеолога.
-    private void updateKnowledgeBase(Set<PerceptionType> perceptions, int x, int y) {
-        worldMap[x][y].setVisited(true);
-        System.out.println("Навігатор: оновлення знань для (" + x + ", " + y + ") зі сприйняттями: " + perceptions);
-
-        worldMap[x][y].setPerceivedGlitter(perceptions.contains(PerceptionType.GLITTER));
-        worldMap[x][y].setPerceivedStench(perceptions.contains(PerceptionType.STENCH));
-        worldMap[x][y].setPerceivedBreeze(perceptions.contains(PerceptionType.BREEZE));
-
-        if (perceptions.contains(PerceptionType.GLITTER)) {
-            hasGold = true;
-            worldMap[x][y].setIsGoldConfirmed(true);
-        }
-        if (perceptions.contains(PerceptionType.SCREAM)) {
-            wampusAliveInMind = false;
-            wampusKilledReported = true;
-            System.out.println("Навігатор: Вампуса вбито!");
-            for (int i = 0; i < gridSize; i++) {
-                for (int j = 0; j < gridSize; j++) {
-                    worldMap[i][j].setWampusSuspect();
-                    worldMap[i][j].setIsWampusConfirmed(false);
-                }
-            }
-        }
-
-        if (!perceptions.contains(PerceptionType.STENCH) && !perceptions.contains(PerceptionType.BREEZE)) {
-            worldMap[x][y].setSafe();
-            markAdjacentCellsAsSafe(x, y);
-        } else {
-            if (perceptions.contains(PerceptionType.STENCH) && wampusAliveInMind) {
-                markAdjacentCellsAsWampusSuspect(x, y);
-            }
-            if (perceptions.contains(PerceptionType.BREEZE)) {
-                markAdjacentCellsAsPitSuspect(x, y);
-            }
-        }
-
-        inferTrueLocations();
-    }
-
-    // позначає сусідні клітинки як безпечні, якщо вони ще не відвідані.
-    // @param x X-координата.
-    // @param y Y-координата.
-    private void markAdjacentCellsAsSafe(int x, int y) {
-        int[] dx = {0, 0, 1, -1};
-        int[] dy = {1, -1, 0, 0};
-        for (int i = 0; i < 4; i++) {
-            int nx = x + dx[i];
-            int ny = y + dy[i];
-            if (isValid(nx, ny) && !worldMap[nx][ny].isVisited() && !worldMap[nx][ny].isSafe()) {
-                worldMap[nx][ny].setSafe();
-                System.out.println("Навігатор: Клітинка (" + nx + ", " + ny + ") позначена як безпечна.");
-            }
-        }
-    }
-
-    // позначає сусідні клітинки як потенційно містять Вампуса.
-    // @param x X-координата.
-    // @param y Y-координата.
-    private void markAdjacentCellsAsWampusSuspect(int x, int y) {
-        int[] dx = {0, 0, 1, -1};
-        int[] dy = {1, -1, 0, 0};
-        for (int i = 0; i < 4; i++) {
-            int nx = x + dx[i];
-            int ny = y + dy[i];
-            if (isValid(nx, ny) && !worldMap[nx][ny].isVisited() && !worldMap[nx][ny].isSafe()) {
-                worldMap[nx][ny].setWampusSuspect();
-            }
-        }
-    }
-
-    // позначає сусідні клітинки як потенційно містять Яму.
-    // @param x X-координата.
-    // @param y Y-координата.
-    private void markAdjacentCellsAsPitSuspect(int x, int y) {
-        int[] dx = {0, 0, 1, -1};
-        int[] dy = {1, -1, 0, 0};
-        for (int i = 0; i < 4; i++) {
-            int nx = x + dx[i];
-            int ny = y + dy[i];
-            if (isValid(nx, ny) && !worldMap[nx][ny].isVisited() && !worldMap[nx][ny].isSafe()) {
-                worldMap[nx][ny].setPitSuspect();
-            }
-        }
-    }
-
-    // спроба логічно вивести справжнє місцезнаходження Вампуса та Ям.
-    private void inferTrueLocations() {
-        if (wampusAliveInMind) {
-            int wampusCandidates = 0;
-            int potentialWampusX = -1, potentialWampusY = -1;
-            for (int i = 0; i < gridSize; i++) {
-                for (int j = 0; j < gridSize; j++) {
-                    if (worldMap[i][j].isWampusSuspect() && !worldMap[i][j].isSafe()) {
-                        wampusCandidates++;
-                        potentialWampusX = i;
-                        potentialWampusY = j;
-                    }
-                }
-            }
-            if (wampusCandidates == 1) {
-                worldMap[potentialWampusX][potentialWampusY].setIsWampusConfirmed(true);
-                System.out.println("Навігатор: Вампуса підтверджено у (" + potentialWampusX + ", " + potentialWampusY + ")");
-            }
-        }
-    }
-
-    // приймає рішення про наступну дію спелеолога на основі внутрішньої карти.
-    // @return рекомендована дія.
-    private Action decideNextAction() {
-        if (hasGold && currentExplorerX == 0 && currentExplorerY == 0) {
-            System.out.println("Навігатор: Золото є і в початковій клітинці, рекомендую CLIMB.");
-            lastActionAttempted = Action.CLIMB;
-            return Action.CLIMB;
-        }
-
-        if (worldMap[currentExplorerX][currentExplorerY].isPerceivedGlitter()) {
-            System.out.println("Навігатор: Виявлено блиск, рекомендую GRAB.");
-            lastActionAttempted = Action.GRAB;
-            return Action.GRAB;
-        }
-
-        if (hasArrow && wampusAliveInMind) {
-            for (int i = 0; i < gridSize; i++) {
-                for (int j = 0; j < gridSize; j++) {
-                    if (worldMap[i][j].isWampusConfirmed()) {
-                        // перевірити, чи Вампус знаходиться в напрямку стрільби
-                        if ((currentExplorerDirection == Direction.NORTH && j == currentExplorerY && i < currentExplorerX) ||
-                                (currentExplorerDirection == Direction.SOUTH && j == currentExplorerY && i > currentExplorerX) ||
-                                (currentExplorerDirection == Direction.EAST && i == currentExplorerX && j > currentExplorerY) ||
-                                (currentExplorerDirection == Direction.WEST && i == currentExplorerX && j < currentExplorerY)) {
-                            System.out.println("Навігатор: Вампуса підтверджено у напрямку, рекомендую SHOOT.");
-                            lastActionAttempted = Action.SHOOT;
-                            return Action.SHOOT;
-                        }
-                    }
-                }
-            }
-        }
-
-        int[] dx = {0, 0, 1, -1};
-        int[] dy = {1, -1, 0, 0};
-
-        for (int i = 0; i < 4; i++) {
-            int nextX = currentExplorerX + dx[i];
-            int nextY = currentExplorerY + dy[i];
-
-            if (isValid(nextX, nextY) && worldMap[nextX][nextY].isSafe() && !worldMap[nextX][nextY].isVisited()) {
-                Direction targetDirection = getDirectionTo(currentExplorerX, currentExplorerY, nextX, nextY);
-                if (targetDirection != currentExplorerDirection) {
-                    Action turnAction = getTurnAction(currentExplorerDirection, targetDirection);
-                    if (turnAction != null) {
-                        System.out.println("Навігатор: Знайдено безпечну, невідвідану клітинку (" + nextX + ", " + nextY + "), рекомендую " + turnAction);
-                        lastActionAttempted = turnAction;
-                        return turnAction;
-                    }
-                } else {
-                    System.out.println("Навігатор: Знайдено безпечну, невідвідану клітинку (" + nextX + ", " + nextY + "), рекомендую FORWARD");
-                    lastActionAttempted = Action.FORWARD;
-                    return Action.FORWARD;
-                }
-            }
-        }
-
-        System.out.println("Навігатор: Немає очевидних безпечних шляхів, пробуємо повернути.");
-        lastActionAttempted = Action.TURN_RIGHT;
-        return Action.TURN_RIGHT;
-    }
-
-    // отримання напрямку від поточної клітинки до цільової.
-    // @param fromX X-координата поточної клітинки.
-    // @param fromY Y-координата поточної клітинки.
-    // @param toX X-координата цільової клітинки.
-    // @param toY Y-координата цільової клітинки.
-    // @return напрямок до цільової клітинки.
-    private Direction getDirectionTo(int fromX, int fromY, int toX, int toY) {
-        if (toX > fromX) return Direction.EAST;
-        if (toX < fromX) return Direction.WEST;
-        if (toY > fromY) return Direction.SOUTH;
-        if (toY < fromY) return Direction.NORTH;
-        return currentExplorerDirection;
-    }
-
-    // отримання дії повороту для досягнення цільового напрямку.
-    // @param current поточний напрямок.
-    // @param target цільовий напрямок.
-    // @return дія повороту (TURN_LEFT або TURN_RIGHT).
-    private Action getTurnAction(Direction current, Direction target) {
-        if (current == target) return null;
-
-        switch (current) {
-            case NORTH:
-                if (target == Direction.EAST) return Action.TURN_RIGHT;
-                if (target == Direction.WEST) return Action.TURN_LEFT;
-                break;
-            case EAST:
-                if (target == Direction.SOUTH) return Action.TURN_RIGHT;
-                if (target == Direction.NORTH) return Action.TURN_LEFT;
-                break;
-            case SOUTH:
-                if (target == Direction.WEST) return Action.TURN_RIGHT;
-                if (target == Direction.EAST) return Action.TURN_LEFT;
-                break;
-            case WEST:
-                if (target == Direction.NORTH) return Action.TURN_RIGHT;
-                if (target == Direction.SOUTH) return Action.TURN_LEFT;
-                break;
-        }
-        return Action.TURN_LEFT;
-    }
-
     // формування природно-мовного повідомлення для спелеолога на основі обраної дії.
     // @param action дія.
     // @return природно-мовне повідомлення.
-    private String generateActionMessage(Action action) {
+    static String generateActionMessage(Action action) {
         switch (action) {
             case TURN_LEFT: return "Повернути ліворуч";
             case TURN_RIGHT: return "Повернути праворуч";
@@ -405,92 +378,4 @@ public class NavigatorAgent extends Agent {
             default: return "Невідома дія";
         }
     }
-
-    // оновлення внутрішнього стану навігатора після виконання дії спелеолога.
-    // @param action дія, яка була виконана.
-    private void applyActionToNavigatorState(Action action) {
-        lastActionAttempted = action;
-        switch (action) {
-            case FORWARD:
-                int newX = currentExplorerX;
-                int newY = currentExplorerY;
-                switch (currentExplorerDirection) {
-                    case NORTH: newY--; break;
-                    case EAST: newX++; break;
-                    case SOUTH: newY++; break;
-                    case WEST: newX--; break;
-                }
-                if (isValid(newX, newY)) {
-                    currentExplorerX = newX;
-                    currentExplorerY = newY;
-                }
-                break;
-            case TURN_LEFT:
-                switch (currentExplorerDirection) {
-                    case NORTH: currentExplorerDirection = Direction.WEST; break;
-                    case EAST: currentExplorerDirection = Direction.NORTH; break;
-                    case SOUTH: currentExplorerDirection = Direction.EAST; break;
-                    case WEST: currentExplorerDirection = Direction.SOUTH; break;
-                }
-                break;
-            case TURN_RIGHT:
-                switch (currentExplorerDirection) {
-                    case NORTH: currentExplorerDirection = Direction.EAST; break;
-                    case EAST: currentExplorerDirection = Direction.SOUTH; break;
-                    case SOUTH: currentExplorerDirection = Direction.WEST; break;
-                    case WEST: currentExplorerDirection = Direction.NORTH; break;
-                }
-                break;
-            case SHOOT:
-                hasArrow = false;
-                break;
-            case GRAB:
-                hasGold = true;
-                break;
-            case CLIMB:
-                break;
-        }
-    }
-
-    // перевіряє, чи є координати дійсними в межах сітки.
-    // @param x X-координата.
-    // @param y Y-координата.
-    // @return true, якщо координати дійсні, інакше false.
-    private boolean isValid(int x, int y) {
-        return x >= 0 && x < gridSize && y >= 0 && y < gridSize;
-    }
-
-    // друк внутрішньої карти навігатора для налагодження.
-    private void printNavigatorMap() {
-        System.out.println("--- Карта навігатора ---");
-        for (int j = 0; j < gridSize; j++) {
-            for (int i = 0; i < gridSize; i++) {
-                System.out.print("|");
-                if (i == currentExplorerX && j == currentExplorerY) {
-                    System.out.print("A");
-                } else if (worldMap[i][j].isGoldConfirmed()) {
-                    System.out.print("G");
-                } else if (worldMap[i][j].isWampusConfirmed()) {
-                    System.out.print("W");
-                } else if (worldMap[i][j].isPitConfirmed()) {
-                    System.out.print("P");
-                } else if (worldMap[i][j].isSafe()) {
-                    System.out.print("S");
-                } else if (worldMap[i][j].isWampusSuspect()) {
-                    System.out.print("w");
-                } else if (worldMap[i][j].isPitSuspect()) {
-                    System.out.print("p");
-                } else if (worldMap[i][j].isVisited()) {
-                    System.out.print("V");
-                } else {
-                    System.out.print("?");
-                }
-                System.out.print(" ");
-            }
-            System.out.println("|");
-        }
-        System.out.println("Позиція спелеолога: (" + currentExplorerX + ", " + currentExplorerY + "), Напрямок: " + currentExplorerDirection);
-        System.out.println("Наявність стріли: " + hasArrow + ", Наявність золота: " + hasGold + ", Вампус живий (навігатор): " + wampusAliveInMind);
-        System.out.println("------------------------");
-    }
 }
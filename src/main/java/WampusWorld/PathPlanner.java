@@ -0,0 +1,205 @@
+package WampusWorld;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import static WampusWorld.WampusWorldCore.Direction;
+import static WampusWorld.WampusWorldCore.Action;
+
+
+// планувальник шляху навігатора з урахуванням орієнтації спелеолога.
+// стан пошуку - (x, y, напрямок): FORWARD переходить у сусідню прохідну клітинку,
+// TURN_LEFT/TURN_RIGHT змінюють напрямок; кожна дія коштує 1 хід, тому пошук Дейкстри
+// вироджується в пошук у ширину. знайдений план кешується і використовується, доки
+// не зміняться знання (версія знань навігатора) або спелеолог не відхилиться від плану.
+public class PathPlanner {
+    // сітки до 512x512 використовують масиви станів, більші - хеш-таблицю відвіданих станів,
+    // щоб пам'ять пошуку залежала від дослідженої частини печери
+    private static final int MAX_ARRAY_STATES = 1 << 20;
+
+    // перевірка властивості клітинки (прохідність, ціль).
+    public interface CellPredicate {
+        boolean test(int x, int y);
+    }
+
+    private final int gridSize;
+    private int[] parentArray; // попередній стан на найкоротшому шляху
+    private int[] stampArray; // номер пошуку, в якому стан було відвідано
+    private int searchStamp;
+    private Map<Integer, Integer> parentMap; // те саме для великих сіток
+
+    // кешований план
+    private final ArrayDeque<Action> plannedActions = new ArrayDeque<>();
+    private final ArrayDeque<Integer> plannedStates = new ArrayDeque<>(); // стан, в якому має бути виконана кожна дія
+    private long plannedVersion = -1;
+    private Object plannedGoal;
+    private int targetX = -1;
+    private int targetY = -1;
+
+    public PathPlanner(int gridSize) {
+        this.gridSize = gridSize;
+    }
+
+    private PathPlanner(PathPlanner other) {
+        this.gridSize = other.gridSize;
+        this.plannedActions.addAll(other.plannedActions);
+        this.plannedStates.addAll(other.plannedStates);
+        this.plannedVersion = other.plannedVersion;
+        this.plannedGoal = other.plannedGoal;
+        this.targetX = other.targetX;
+        this.targetY = other.targetY;
+    }
+
+    // копія з кешованим планом; робочі масиви пошуку копія створює лише при першому власному пошуку.
+    public PathPlanner copy() {
+        return new PathPlanner(this);
+    }
+
+    // ціль останнього знайденого плану.
+    public int getTargetX() { return targetX; }
+    public int getTargetY() { return targetY; }
+
+    // наступна дія на найкоротшому шляху до найближчої клітинки, що задовольняє goal.
+    // @param x поточна X-координата.
+    // @param y поточна Y-координата.
+    // @param direction поточний напрямок.
+    // @param passable клітинки, через які можна йти.
+    // @param goal цільові клітинки (мають бути прохідними).
+    // @param goalKey ідентифікатор цілі для кешу (наприклад, "frontier" або "home").
+    // @param knowledgeVersion версія знань; кеш плану скидається при її зміні.
+    // @return дія або null, якщо жодна інша клітинка-ціль недосяжна.
+    public Action nextStep(int x, int y, Direction direction, CellPredicate passable, CellPredicate goal,
+                           Object goalKey, long knowledgeVersion) {
+        int state = encode(x, y, direction);
+        if (knowledgeVersion == plannedVersion && goalKey.equals(plannedGoal)
+                && !plannedStates.isEmpty() && plannedStates.peekFirst() == state) {
+            plannedStates.pollFirst();
+            return plannedActions.pollFirst();
+        }
+        plannedVersion = knowledgeVersion;
+        plannedGoal = goalKey;
+        if (!search(state, passable, goal)) {
+            return null;
+        }
+        plannedStates.pollFirst();
+        return plannedActions.pollFirst();
+    }
+
+    // скидає кешований план: наступний nextStep шукає заново від поточного стану.
+    public void forgetPlan() {
+        plannedGoal = null;
+    }
+
+    // повний план до найближчої цілі без використання кешу.
+    // @return послідовність дій (порожня, якщо ціль недосяжна або вже досягнута).
+    public ArrayDeque<Action> plan(int x, int y, Direction direction, CellPredicate passable, CellPredicate goal) {
+        plannedGoal = null;
+        search(encode(x, y, direction), passable, goal);
+        return new ArrayDeque<>(plannedActions);
+    }
+
+    // пошук у ширину по станах (клітинка, напрямок) і запис плану в кеш.
+    // @return true, якщо знайдено непорожній план.
+    private boolean search(int start, CellPredicate passable, CellPredicate goal) {
+        plannedActions.clear();
+        plannedStates.clear();
+        beginSearch();
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        setParent(start, start);
+        queue.add(start);
+        int startCell = start >>> 2;
+        int found = -1;
+        while (!queue.isEmpty()) {
+            int state = queue.pollFirst();
+            int cell = state >>> 2;
+            int cx = cell % gridSize;
+            int cy = cell / gridSize;
+            if (cell != startCell && goal.test(cx, cy)) {
+                found = state;
+                break;
+            }
+            int dir = state & 3;
+            // повороти
+            relax(state, (cell << 2) | ((dir + 3) & 3), queue);
+            relax(state, (cell << 2) | ((dir + 1) & 3), queue);
+            // крок уперед
+            int nx = cx + DX[dir];
+            int ny = cy + DY[dir];
+            if (nx >= 0 && nx < gridSize && ny >= 0 && ny < gridSize && passable.test(nx, ny)) {
+                relax(state, ((ny * gridSize + nx) << 2) | dir, queue);
+            }
+        }
+        if (found < 0) {
+            targetX = -1;
+            targetY = -1;
+            return false;
+        }
+        targetX = (found >>> 2) % gridSize;
+        targetY = (found >>> 2) / gridSize;
+        // відновлення шляху від цілі до старту
+        for (int state = found; state != start; ) {
+            int parent = getParent(state);
+            plannedActions.addFirst(actionBetween(parent, state));
+            plannedStates.addFirst(parent);
+            state = parent;
+        }
+        return !plannedActions.isEmpty();
+    }
+
+    private void relax(int from, int to, ArrayDeque<Integer> queue) {
+        if (getParent(to) < 0) {
+            setParent(to, from);
+            queue.addLast(to);
+        }
+    }
+
+    private static Action actionBetween(int from, int to) {
+        if ((from >>> 2) != (to >>> 2)) return Action.FORWARD;
+        return ((from & 3) + 1 & 3) == (to & 3) ? Action.TURN_RIGHT : Action.TURN_LEFT;
+    }
+
+    // напрямки в порядку NORTH, EAST, SOUTH, WEST (за годинниковою стрілкою, як у Direction)
+    private static final int[] DX = {0, 1, 0, -1};
+    private static final int[] DY = {-1, 0, 1, 0};
+
+    private int encode(int x, int y, Direction direction) {
+        return ((y * gridSize + x) << 2) | direction.ordinal();
+    }
+
+    private void beginSearch() {
+        long states = 4L * gridSize * gridSize;
+        if (states <= MAX_ARRAY_STATES) {
+            if (parentArray == null) {
+                parentArray = new int[(int) states];
+                stampArray = new int[(int) states];
+            }
+            searchStamp++;
+            if (searchStamp == 0) { // переповнення лічильника пошуків
+                Arrays.fill(stampArray, 0);
+                searchStamp = 1;
+            }
+        } else {
+            if (parentMap == null) {
+                parentMap = new HashMap<>();
+            }
+            parentMap.clear();
+        }
+    }
+
+    private int getParent(int state) {
+        if (parentArray != null) {
+            return stampArray[state] == searchStamp ? parentArray[state] : -1;
+        }
+        Integer parent = parentMap.get(state);
+        return parent == null ? -1 : parent;
+    }
+
+    private void setParent(int state, int parent) {
+        if (parentArray != null) {
+            stampArray[state] = searchStamp;
+            parentArray[state] = parent;
+        } else {
+            parentMap.put(state, parent);
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package WampusWorld;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+
+// точні ймовірності ям на межі дослідженої частини печери.
+// кожна відвідана клітинка з вітром дає обмеження "хоча б одна яма серед невідомих сусідів".
+// обмеження, що мають спільні клітинки, утворюють компоненту; компоненти незалежні,
+// тому кожна перебирається окремо (великі - паралельно в пулі ForkJoin), а ймовірність ями
+// в клітинці - частка ваги узгоджених розміщень ям (апріорна щільність p на клітинку), в яких
+// клітинка містить яму. результати запам'ятовуються за сигнатурою компоненти (форма обмежень
+// у локальній нумерації), тому однакові конфігурації в різних іграх і сесіях не перераховуються.
+public class RiskEstimator {
+    // компоненти з більшою кількістю клітинок не перебираються, для них береться апріорна щільність
+    public static final int DEFAULT_MAX_COMPONENT_CELLS = 24;
+    // компоненти, менші за цей розмір, перебираються в поточному потоці без накладних витрат пулу
+    private static final int PARALLEL_THRESHOLD = 12;
+    private static final int MAX_MEMO_ENTRIES = 100_000;
+    private static final Map<String, double[]> MEMO = new ConcurrentHashMap<>();
+
+    private final double pitDensity;
+    private final int maxComponentCells;
+    private final ForkJoinPool pool;
+
+    // @param pitDensity апріорна ймовірність ями в клітинці.
+    // @param maxComponentCells найбільша компонента, яку ще перебирати точно.
+    public RiskEstimator(double pitDensity, int maxComponentCells) {
+        this.pitDensity = pitDensity;
+        this.maxComponentCells = Math.min(maxComponentCells, 62);
+        this.pool = ForkJoinPool.commonPool();
+    }
+
+    public double getPitDensity() { return pitDensity; }
+
+    // ймовірності ям для всіх клітинок, що входять в обмеження.
+    // @param constraints для кожної клітинки з вітром - індекси сусідів із невідомою ямою
+    //                    (обмеження, вже виконані підтвердженою ямою, не передаються).
+    // @param deadlineNanos момент System.nanoTime(), після якого перебір припиняється
+    //                      і для незавершених компонент береться апріорна щільність.
+    // @return ймовірність ями за індексом клітинки.
+    public Map<Integer, Double> pitProbabilities(List<int[]> constraints, long deadlineNanos) {
+        Map<Integer, Double> result = new HashMap<>();
+        List<Component> components = split(constraints);
+        List<ComponentTask> forked = new ArrayList<>();
+        for (Component component : components) {
+            ComponentTask task = new ComponentTask(component, deadlineNanos);
+            if (component.cells.length >= PARALLEL_THRESHOLD && component.cells.length <= maxComponentCells) {
+                pool.execute(task);
+                forked.add(task);
+            } else {
+                store(result, component, task.compute());
+            }
+        }
+        for (ComponentTask task : forked) {
+            store(result, task.component, task.join());
+        }
+        return result;
+    }
+
+    private void store(Map<Integer, Double> result, Component component, double[] probabilities) {
+        for (int i = 0; i < component.cells.length; i++) {
+            result.put(component.cells[i], probabilities == null ? pitDensity : probabilities[i]);
+        }
+    }
+
+    // компонента: клітинки (відсортовані) та обмеження як бітові маски локальних індексів
+    // (маски порожні, якщо клітинок більше 63).
+    static class Component {
+        final int[] cells;
+        final long[] masks;
+
+        Component(int[] cells, long[] masks) {
+            this.cells = cells;
+            this.masks = masks;
+        }
+    }
+
+    // розбиття обмежень на компоненти зв'язності (система неперетинних множин за клітинками).
+    static List<Component> split(List<int[]> constraints) {
+        Map<Integer, Integer> parent = new HashMap<>();
+        for (int[] constraint : constraints) {
+            for (int cell : constraint) {
+                parent.putIfAbsent(cell, cell);
+                union(parent, constraint[0], cell);
+            }
+        }
+        Map<Integer, List<Integer>> cellsByRoot = new HashMap<>();
+        for (int cell : parent.keySet()) {
+            cellsByRoot.computeIfAbsent(find(parent, cell), k -> new ArrayList<>()).add(cell);
+        }
+        Map<Integer, List<int[]>> constraintsByRoot = new HashMap<>();
+        for (int[] constraint : constraints) {
+            if (constraint.length == 0) continue;
+            constraintsByRoot.computeIfAbsent(find(parent, constraint[0]), k -> new ArrayList<>()).add(constraint);
+        }
+        List<Component> components = new ArrayList<>();
+        for (Map.Entry<Integer, List<Integer>> entry : cellsByRoot.entrySet()) {
+            int[] cells = entry.getValue().stream().mapToInt(Integer::intValue).sorted().toArray();
+            List<int[]> own = constraintsByRoot.get(entry.getKey());
+            long[] masks = new long[own.size()];
+            if (cells.length <= 63) {
+                for (int i = 0; i < masks.length; i++) {
+                    for (int cell : own.get(i)) {
+                        masks[i] |= 1L << Arrays.binarySearch(cells, cell);
+                    }
+                }
+                Arrays.sort(masks);
+            }
+            components.add(new Component(cells, masks));
+        }
+        return components;
+    }
+
+    private static int find(Map<Integer, Integer> parent, int cell) {
+        int root = cell;
+        while (parent.get(root) != root) root = parent.get(root);
+        while (parent.get(cell) != root) {
+            int next = parent.get(cell);
+            parent.put(cell, root);
+            cell = next;
+        }
+        return root;
+    }
+
+    private static void union(Map<Integer, Integer> parent, int a, int b) {
+        int rootA = find(parent, a);
+        int rootB = find(parent, b);
+        if (rootA != rootB) parent.put(rootA, rootB);
+    }
+
+    // перебір розміщень ям однієї компоненти.
+    private class ComponentTask extends RecursiveTask<double[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final Component component;
+        private final long deadlineNanos;
+        private long[][] masksByLastCell; // обмеження, що перевіряються після присвоєння клітинки
+        private double[] pitWeight;
+        private double totalWeight;
+        private long nodes;
+        private boolean timedOut;
+
+        ComponentTask(Component component, long deadlineNanos) {
+            this.component = component;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        // @return ймовірності в порядку component.cells або null, якщо компонента завелика
+        //         чи бюджет часу вичерпано.
+        @Override
+        protected double[] compute() {
+            int n = component.cells.length;
+            if (n > maxComponentCells) {
+                return null;
+            }
+            String signature = pitDensity + "|" + n + "|" + Arrays.toString(component.masks);
+            double[] cached = MEMO.get(signature);
+            if (cached != null) {
+                return cached;
+            }
+            // обмеження перевіряється, щойно присвоєна його остання (найстарша) клітинка
+            int[] counts = new int[n];
+            for (long mask : component.masks) {
+                counts[63 - Long.numberOfLeadingZeros(mask)]++;
+            }
+            masksByLastCell = new long[n][];
+            for (int i = 0; i < n; i++) {
+                masksByLastCell[i] = new long[counts[i]];
+            }
+            for (long mask : component.masks) {
+                int last = 63 - Long.numberOfLeadingZeros(mask);
+                masksByLastCell[last][--counts[last]] = mask;
+            }
+            pitWeight = new double[n];
+            enumerate(0, 0L, 1.0);
+            if (timedOut || totalWeight == 0) {
+                return null;
+            }
+            double[] probabilities = new double[n];
+            for (int i = 0; i < n; i++) {
+                probabilities[i] = pitWeight[i] / totalWeight;
+            }
+            if (MEMO.size() >= MAX_MEMO_ENTRIES) {
+                MEMO.clear();
+            }
+            MEMO.put(signature, probabilities);
+            return probabilities;
+        }
+
+        // @param index клітинка, що присвоюється.
+        // @param pits маска ям серед уже присвоєних клітинок.
+        // @param weight апріорна вага часткового розміщення.
+        private void enumerate(int index, long pits, double weight) {
+            if (timedOut) return;
+            if ((++nodes & 1023) == 0 && System.nanoTime() > deadlineNanos) {
+                timedOut = true;
+                return;
+            }
+            if (index > 0 && !constraintsHold(index - 1, pits)) {
+                return;
+            }
+            if (index == component.cells.length) {
+                totalWeight += weight;
+                for (long rest = pits; rest != 0; rest &= rest - 1) {
+                    pitWeight[Long.numberOfTrailingZeros(rest)] += weight;
+                }
+                return;
+            }
+            enumerate(index + 1, pits, weight * (1 - pitDensity));
+            enumerate(index + 1, pits | (1L << index), weight * pitDensity);
+        }
+
+        // перевірка обмежень, остання клітинка яких - last.
+        private boolean constraintsHold(int last, long pits) {
+            for (long mask : masksByLastCell[last]) {
+                if ((mask & pits) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package WampusWorld;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+
+// пакетний режим: N ігор із послідовними зернами (seed, seed+1, ...) розподіляються між
+// потоками фіксованого пулу. кожна гра має власні світ, рушій і навігатора, кожен потік
+// накопичує власну статистику, а об'єднання відбувається лише після завершення всіх ігор.
+// запуск: java WampusWorld.TournamentRunner games=100000 threads=8 seed=1 maxTurns=200 size=4
+public class TournamentRunner {
+    // статистика частини турніру; не розділяється між потоками до об'єднання.
+    public static class TournamentStats {
+        private long games;
+        private long successes;
+        private long totalTurns;
+        private long totalNanos;
+        private long maxNanos;
+        private long slowestSeed;
+
+        // враховує результат однієї гри.
+        public void record(long seed, GameEngine.GameResult result) {
+            games++;
+            if (result.isSuccess()) successes++;
+            totalTurns += result.getTurns();
+            totalNanos += result.getElapsedNanos();
+            if (result.getElapsedNanos() > maxNanos) {
+                maxNanos = result.getElapsedNanos();
+                slowestSeed = seed;
+            }
+        }
+
+        // додає статистику іншої частини турніру.
+        public void merge(TournamentStats other) {
+            games += other.games;
+            successes += other.successes;
+            totalTurns += other.totalTurns;
+            totalNanos += other.totalNanos;
+            if (other.maxNanos > maxNanos) {
+                maxNanos = other.maxNanos;
+                slowestSeed = other.slowestSeed;
+            }
+        }
+
+        public long getGames() { return games; }
+        public long getSuccesses() { return successes; }
+        public double getSuccessRate() { return games == 0 ? 0 : (double) successes / games; }
+        public double getAverageTurns() { return games == 0 ? 0 : (double) totalTurns / games; }
+        public double getAverageMicros() { return games == 0 ? 0 : totalNanos / 1000.0 / games; }
+        public double getMaxMicros() { return maxNanos / 1000.0; }
+        public long getSlowestSeed() { return slowestSeed; }
+    }
+
+    private final GameConfig config; // параметри світу (size, pitDensity, wampuses, gold)
+    private final int threads;
+    private final int maxTurns;
+    private final DecisionCache decisionCache; // спільний для всіх ігор і потоків: рішення в ньому залежать лише від стану
+
+    public TournamentRunner(GameConfig config, int threads, int maxTurns) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Кількість потоків має бути додатною: " + threads);
+        }
+        this.config = config;
+        this.threads = threads;
+        this.maxTurns = maxTurns;
+        this.decisionCache = config.newDecisionCache();
+    }
+
+    public DecisionCache getDecisionCache() { return decisionCache; }
+
+    // одна гра з заданим зерном без виводу в консоль.
+    // @param seed зерно світу.
+    // @return результат гри.
+    public GameEngine.GameResult playGame(long seed) {
+        GameEngine engine = new GameEngine(config.newWorld(seed, false));
+        // потоки турніру вже зайняли процесори, тому пошук Монте-Карло кожної гри за замовчуванням однопотоковий
+        int searchWorkers = threads > 1 ? 1 : Runtime.getRuntime().availableProcessors();
+        return engine.play(config.newNavigator(decisionCache, searchWorkers), maxTurns);
+    }
+
+    // гра турніру: зерна baseSeed .. baseSeed + games - 1 діляться на суцільні діапазони по потоках.
+    // @param games кількість ігор.
+    // @param baseSeed зерно першої гри.
+    // @return об'єднана статистика.
+    public TournamentStats run(long games, long baseSeed) throws InterruptedException, ExecutionException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<TournamentStats>> parts = new ArrayList<>();
+            long chunk = (games + threads - 1) / threads;
+            for (long from = 0; from < games; from += chunk) {
+                long start = baseSeed + from;
+                long end = baseSeed + Math.min(games, from + chunk);
+                parts.add(pool.submit(() -> {
+                    TournamentStats stats = new TournamentStats();
+                    for (long seed = start; seed < end; seed++) {
+                        stats.record(seed, playGame(seed));
+                    }
+                    return stats;
+                }));
+            }
+            TournamentStats total = new TournamentStats();
+            for (Future<TournamentStats> part : parts) {
+                total.merge(part.get());
+            }
+            return total;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        GameConfig config = GameConfig.fromArguments(args);
+        long games = config.getLong("games", 10_000);
+        int threads;
+        try {
+            threads = config.getThreads();
+        } catch (IllegalArgumentException e) {
+            System.err.println("Турнір: " + e.getMessage());
+            return;
+        }
+        int maxTurns = (int) config.getLong("maxturns", 200);
+        long baseSeed = config.getSeed(1);
+
+        System.out.println("Турнір: " + games + " ігор у світі " + config.getGridSize() + "x" + config.getGridSize()
+                + ", потоків: " + threads + ", зерна від " + baseSeed);
+        TournamentRunner runner = new TournamentRunner(config, threads, maxTurns);
+        long start = System.nanoTime();
+        TournamentStats stats = runner.run(games, baseSeed);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("Успішних ігор: %d з %d (%.2f%%)%n", stats.getSuccesses(), stats.getGames(), stats.getSuccessRate() * 100);
+        System.out.printf("Середня кількість ходів: %.2f%n", stats.getAverageTurns());
+        System.out.printf("Середній час гри: %.2f мкс, найдовша гра: %.2f мкс (seed=%d)%n",
+                stats.getAverageMicros(), stats.getMaxMicros(), stats.getSlowestSeed());
+        System.out.printf("Пропускна здатність: %.0f ігор/с за %.2f с%n", stats.getGames() / seconds, seconds);
+        DecisionCache cache = runner.getDecisionCache();
+        if (cache != null) {
+            long lookups = cache.getHits() + cache.getMisses();
+            System.out.printf("Кеш рішень: %d влучань з %d запитів (%.2f%%)%n",
+                    cache.getHits(), lookups, lookups == 0 ? 0 : 100.0 * cache.getHits() / lookups);
+        }
+    }
+}
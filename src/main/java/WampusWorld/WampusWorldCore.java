@@ -1,14 +1,35 @@
 package WampusWorld;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.List;
+import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.Random;
 import java.util.Set;
 
 // контейнер для всіх допоміжних класів та переліків світу Вампуса
 public class WampusWorldCore {
 
+    // типова частка ям серед вільних кімнат: для 4x4 дає 2-3 ями, як у класичному світі.
+    public static final double DEFAULT_PIT_DENSITY = 1.0 / 6.0;
+
+    // найбільший розмір світу, карта якого друкується в консоль повністю.
+    public static final int MAX_PRINTED_GRID_SIZE = 32;
+
+    // найбільша кількість об'єктів одного типу, розміщення яких друкується по одному.
+    public static final int MAX_PRINTED_OBJECTS = 32;
+
+    // перевірка кількостей об'єктів світу: Вампуси і золото займають різні кімнати, окрім (0,0).
+    // @throws IllegalArgumentException якщо кількість від'ємна або об'єкти не вміщаються у вільні кімнати.
+    static void checkObjectCounts(int size, int wampusCount, int goldCount) {
+        if (wampusCount < 0 || goldCount < 0) {
+            throw new IllegalArgumentException("Кількість Вампусів і золота не може бути від'ємною: wampuses="
+                    + wampusCount + ", gold=" + goldCount);
+        }
+        long freeCells = (long) size * size - 1;
+        if ((long) wampusCount + goldCount > freeCells) {
+            throw new IllegalArgumentException("Вампусів (" + wampusCount + ") і золота (" + goldCount
+                    + ") більше, ніж вільних кімнат у світі " + size + "x" + size + " (" + freeCells + ")");
+        }
+    }
+
     // перелік можливих напрямків руху або орієнтації спелеолога.
     public enum Direction {
         NORTH, // північ
@@ -37,6 +58,21 @@ public class WampusWorldCore {
         CLIMB       // піднятися (завершити гру)
     }
 
+    // спосіб, яким навігатор обирає дію, коли безпечних невідвіданих клітинок не лишилося.
+    public enum DecisionMode {
+        PLANNER,      // лише доведено безпечні клітинки, інакше повернення і підйом
+        PROBABILISTIC, // крок у клітинку межі з найменшою ймовірністю ями чи Вампуса
+        HINDSIGHT      // оптимізація "заднім числом": оцінка макродій Монте-Карло у вибраних узгоджених світах
+                       // з дедлайном на хід (одноярусний бандит, не пошук у дереві переконань)
+    }
+
+    // планувальник шляхів навігатора.
+    public enum PlannerType {
+        FLAT,         // пошук у ширину по всіх клітинках (PathPlanner)
+        HIERARCHICAL, // кластери з кешованими графами входів (HierarchicalPlanner)
+        INCREMENTAL   // D* Lite з деревом пошуку, що зберігається між ходами (IncrementalPlanner)
+    }
+
     // клас, що представляє золотий злиток у світі Вампуса.
     public static class Gold {
         @Override
@@ -61,55 +97,70 @@ public class WampusWorldCore {
         }
     }
 
+    // печера, у якій ігровий рушій веде гру: щільний бітовий світ (WampusWorld)
+    // або лінивий світ із фрагментів для дуже великих карт (ChunkedWampusWorld).
+    public interface Cave {
+        int getSize();
+        long getSeed();
+        boolean isInside(int x, int y);
+        boolean hasPit(int x, int y);
+        boolean hasWampus(int x, int y);
+        boolean hasGold(int x, int y);
+        boolean hasStench(int x, int y);
+        boolean hasBreeze(int x, int y);
+        boolean isExplored(int x, int y);
+        void setExplored(int x, int y, boolean value);
+        void setHasGold(int x, int y, boolean value);
+        // вбивство Вампуса у кімнаті (x, y); @return true, якщо там був живий Вампус.
+        boolean killWampus(int x, int y);
+        boolean isWampusAlive();
+        // сприйняття кімнати (запах, вітер, блиск).
+        Set<PerceptionType> getPerceptions(int x, int y);
+    }
+
     // клас, що представляє одну кімнату (клітинку) у лабіринті.
+    // кімната не зберігає власного стану: це легке представлення координат,
+    // яке читає та змінює біти відповідного світу Вампуса.
     public static class Room {
-        private boolean hasPit;
-        private boolean hasGold;
-        private boolean hasWampus;
-        private boolean hasStench;
-        private boolean hasBreeze;
-        private boolean isExplored;
-
-        public Room() {
-            this.hasPit = false;
-            this.hasGold = false;
-            this.hasWampus = false;
-            this.hasStench = false;
-            this.hasBreeze = false;
-            this.isExplored = false;
-        }
-
-        public boolean hasPit() { return hasPit; }
-        public boolean hasGold() { return hasGold; }
-        public boolean hasWampus() { return hasWampus; }
-        public boolean hasStench() { return hasStench; }
-        public boolean hasBreeze() { return hasBreeze; }
-        public boolean isExplored() { return isExplored; }
-
-        public void setHasPit(boolean hasPit) { this.hasPit = hasPit; }
-        public void setHasGold(boolean hasGold) { this.hasGold = hasGold; }
-        public void setHasWampus(boolean hasWampus) { this.hasWampus = hasWampus; }
-        public void setHasStench(boolean hasStench) { this.hasStench = hasStench; }
-        public void setHasBreeze(boolean hasBreeze) { this.hasBreeze = hasBreeze; }
-        public void setExplored(boolean explored) { isExplored = explored; }
+        private final WampusWorld world;
+        private final int x;
+        private final int y;
+
+        Room(WampusWorld world, int x, int y) {
+            this.world = world;
+            this.x = x;
+            this.y = y;
+        }
+
+        public int getX() { return x; }
+        public int getY() { return y; }
+
+        public boolean hasPit() { return world.hasPit(x, y); }
+        public boolean hasGold() { return world.hasGold(x, y); }
+        public boolean hasWampus() { return world.hasWampus(x, y); }
+        public boolean hasStench() { return world.hasStench(x, y); }
+        public boolean hasBreeze() { return world.hasBreeze(x, y); }
+        public boolean isExplored() { return world.isExplored(x, y); }
+
+        public void setHasPit(boolean hasPit) { world.setHasPit(x, y, hasPit); }
+        public void setHasGold(boolean hasGold) { world.setHasGold(x, y, hasGold); }
+        public void setHasWampus(boolean hasWampus) { world.setHasWampus(x, y, hasWampus); }
+        // запах і вітер не задаються напряму: вони виводяться з лічильників сусідніх ям і Вампусів
+        public void setExplored(boolean explored) { world.setExplored(x, y, explored); }
 
         public Set<PerceptionType> getPerceptions() {
-            Set<PerceptionType> perceptions = new HashSet<>();
-            if (hasStench) perceptions.add(PerceptionType.STENCH);
-            if (hasBreeze) perceptions.add(PerceptionType.BREEZE);
-            if (hasGold) perceptions.add(PerceptionType.GLITTER);
-            return perceptions;
+            return world.getPerceptions(x, y);
         }
 
         @Override
         public String toString() {
             StringBuilder sb = new StringBuilder("Кімната [");
-            if (hasPit) sb.append("Яма, ");
-            if (hasGold) sb.append("Золото, ");
-            if (hasWampus) sb.append("Вампус, ");
-            if (hasStench) sb.append("Запах, ");
-            if (hasBreeze) sb.append("Вітер, ");
-            if (isExplored) sb.append("Досліджено, ");
+            if (hasPit()) sb.append("Яма, ");
+            if (hasGold()) sb.append("Золото, ");
+            if (hasWampus()) sb.append("Вампус, ");
+            if (hasStench()) sb.append("Запах, ");
+            if (hasBreeze()) sb.append("Вітер, ");
+            if (isExplored()) sb.append("Досліджено, ");
 
             if (sb.length() > "Кімната [".length()) {
                 sb.setLength(sb.length() - 2);
@@ -120,26 +171,81 @@ public class WampusWorldCore {
     }
 
     // клас, що представляє лабіринт світу Вампуса.
-    public static class WampusWorld {
-        private Room[][] grid;
-        private int size;
+    // стан світу зберігається у бітових масках (bitboard): для кожного рядка y
+    // відведено wordsPerRow слів типу long, біт x рядка відповідає кімнаті (x, y).
+    // запах і вітер не скануються по кімнатах, а виводяться зсувами та OR масок небезпек.
+    // після генерації сприйняття підтримуються інкрементно: кожна кімната має лічильники
+    // сусідніх ям та живих Вампусів, які змінюються лише тоді, коли змінюється небезпека.
+    public static class WampusWorld implements Cave {
+        private final int size;
+        private final int wordsPerRow; // кількість слів long на один рядок
+        private final long lastWordMask; // маска дійсних бітів останнього слова рядка
+        private final long[] pitMask;
+        private final long[] wampusMask;
+        private final long[] goldMask;
+        private final long[] stenchMask;
+        private final long[] breezeMask;
+        private final long[] exploredMask;
+        private final byte[] adjacentPits;    // кількість сусідніх ям для кожної кімнати (індекс y*size+x)
+        private final byte[] adjacentWampuses; // кількість сусідніх живих Вампусів для кожної кімнати
         private boolean wampusAlive;
+        private final long seed; // зерно генерації: однакове зерно дає однакове розміщення об'єктів
+        private final int wampusCount; // кількість Вампусів
+        private final int goldCount; // кількість злитків золота
+        private final double pitDensity; // частка ям серед вільних кімнат
+        private final boolean verbose; // чи друкувати розміщення об'єктів
 
         public WampusWorld(int size) {
+            this(size, new Random().nextLong(), true);
+        }
+
+        public WampusWorld(int size, boolean verbose) {
+            this(size, new Random().nextLong(), verbose);
+        }
+
+        // @param size розмір світу.
+        // @param seed зерно (ідентифікатор світу), що однозначно визначає розміщення Вампуса, золота та ям.
+        // @param verbose чи друкувати розміщення об'єктів.
+        public WampusWorld(int size, long seed, boolean verbose) {
+            this(size, 1, 1, DEFAULT_PIT_DENSITY, seed, verbose);
+        }
+
+        // @param size розмір світу.
+        // @param wampusCount кількість Вампусів.
+        // @param goldCount кількість злитків золота.
+        // @param pitDensity частка ям серед вільних кімнат (кількість ям зростає з площею).
+        // @param seed зерно (ідентифікатор світу).
+        // @param verbose чи друкувати розміщення об'єктів.
+        public WampusWorld(int size, int wampusCount, int goldCount, double pitDensity, long seed, boolean verbose) {
+            if (size < 2) {
+                throw new IllegalArgumentException("Розмір світу має бути не менше 2: " + size);
+            }
+            checkObjectCounts(size, wampusCount, goldCount);
             this.size = size;
-            this.grid = new Room[size][size];
+            this.seed = seed;
+            this.wampusCount = wampusCount;
+            this.goldCount = goldCount;
+            this.pitDensity = pitDensity;
+            this.verbose = verbose;
+            this.wordsPerRow = (size + 63) >>> 6;
+            int tailBits = size & 63;
+            this.lastWordMask = tailBits == 0 ? -1L : (1L << tailBits) - 1;
+            int words = wordsPerRow * size;
+            this.pitMask = new long[words];
+            this.wampusMask = new long[words];
+            this.goldMask = new long[words];
+            this.stenchMask = new long[words];
+            this.breezeMask = new long[words];
+            this.exploredMask = new long[words];
+            this.adjacentPits = new byte[size * size];
+            this.adjacentWampuses = new byte[size * size];
             this.wampusAlive = true;
-            for (int i = 0; i < size; i++) {
-                for (int j = 0; j < size; j++) {
-                    grid[i][j] = new Room();
-                }
-            }
             placeObjects();
         }
 
         public Room getRoom(int x, int y) {
-            if (x >= 0 && x < size && y >= 0 && y < size) {
-                return grid[x][y];
+            if (isInside(x, y)) {
+                return new Room(this, x, y);
             }
             return null;
         }
@@ -148,84 +254,223 @@ public class WampusWorldCore {
             return size;
         }
 
+        public long getSeed() {
+            return seed;
+        }
+
+        public boolean isInside(int x, int y) {
+            return x >= 0 && x < size && y >= 0 && y < size;
+        }
+
+        // індекс слова, що містить біт кімнати (x, y).
+        private int wordIndex(int x, int y) {
+            return y * wordsPerRow + (x >>> 6);
+        }
+
+        private boolean testBit(long[] mask, int x, int y) {
+            return (mask[wordIndex(x, y)] & (1L << x)) != 0;
+        }
+
+        private void assignBit(long[] mask, int x, int y, boolean value) {
+            if (value) {
+                mask[wordIndex(x, y)] |= 1L << x;
+            } else {
+                mask[wordIndex(x, y)] &= ~(1L << x);
+            }
+        }
+
+        public boolean hasPit(int x, int y) { return testBit(pitMask, x, y); }
+        public boolean hasGold(int x, int y) { return testBit(goldMask, x, y); }
+        public boolean hasWampus(int x, int y) { return testBit(wampusMask, x, y); }
+        public boolean hasStench(int x, int y) { return testBit(stenchMask, x, y); }
+        public boolean hasBreeze(int x, int y) { return testBit(breezeMask, x, y); }
+        public boolean isExplored(int x, int y) { return testBit(exploredMask, x, y); }
+
+        public void setHasGold(int x, int y, boolean value) { assignBit(goldMask, x, y, value); }
+        public void setExplored(int x, int y, boolean value) { assignBit(exploredMask, x, y, value); }
+
+        // встановлення або прибирання ями; вітер сусідніх кімнат оновлюється лише тоді, коли яма справді змінилася.
+        public void setHasPit(int x, int y, boolean value) {
+            if (hasPit(x, y) == value) return;
+            assignBit(pitMask, x, y, value);
+            adjustAround(adjacentPits, breezeMask, x, y, value ? 1 : -1);
+        }
+
+        // встановлення або прибирання Вампуса; запах змінюється лише поки Вампуси живі.
+        public void setHasWampus(int x, int y, boolean value) {
+            if (hasWampus(x, y) == value) return;
+            assignBit(wampusMask, x, y, value);
+            if (wampusAlive) {
+                adjustAround(adjacentWampuses, stenchMask, x, y, value ? 1 : -1);
+            }
+        }
+
+        // вбивство Вампуса у кімнаті (x, y): прибирає лише його внесок у запах сусідніх кімнат.
+        // @return true, якщо у кімнаті був живий Вампус.
+        public boolean killWampus(int x, int y) {
+            if (!wampusAlive || !isInside(x, y) || !hasWampus(x, y)) return false;
+            setHasWampus(x, y, false);
+            if (isEmpty(wampusMask)) {
+                wampusAlive = false;
+            }
+            return true;
+        }
+
+        // змінює лічильники сусідніх кімнат на delta (+1 або -1) та перемикає біт сприйняття
+        // при переході лічильника через нуль.
+        private void adjustAround(byte[] counts, long[] perceptionMask, int x, int y, int delta) {
+            adjustCell(counts, perceptionMask, x, y - 1, delta);
+            adjustCell(counts, perceptionMask, x, y + 1, delta);
+            adjustCell(counts, perceptionMask, x - 1, y, delta);
+            adjustCell(counts, perceptionMask, x + 1, y, delta);
+        }
+
+        private void adjustCell(byte[] counts, long[] perceptionMask, int x, int y, int delta) {
+            if (!isInside(x, y)) return;
+            int cell = y * size + x;
+            int before = counts[cell];
+            int after = before + delta;
+            counts[cell] = (byte) after;
+            if (before == 0 && after != 0) { // перша небезпека поруч - сприйняття з'являється
+                assignBit(perceptionMask, x, y, true);
+            } else if (before != 0 && after == 0) { // остання небезпека зникла - сприйняття зникає
+                assignBit(perceptionMask, x, y, false);
+            }
+        }
+
+        private static boolean isEmpty(long[] mask) {
+            for (long word : mask) {
+                if (word != 0) return false;
+            }
+            return true;
+        }
+
+        // сприйняття кімнати (x, y), прочитані безпосередньо з бітових масок.
+        public Set<PerceptionType> getPerceptions(int x, int y) {
+            Set<PerceptionType> perceptions = EnumSet.noneOf(PerceptionType.class);
+            int word = wordIndex(x, y);
+            long bit = 1L << x;
+            if ((stenchMask[word] & bit) != 0) perceptions.add(PerceptionType.STENCH);
+            if ((breezeMask[word] & bit) != 0) perceptions.add(PerceptionType.BREEZE);
+            if ((goldMask[word] & bit) != 0) perceptions.add(PerceptionType.GLITTER);
+            return perceptions;
+        }
+
+        // розміщення об'єктів вибіркою O(k): випадкова кімната береться повторно, якщо вона
+        // зайнята або є початковою (0,0), тому не потрібно перемішувати список усіх кімнат.
         private void placeObjects() {
-            Random rand = new Random();
-            List<Integer> availableCells = new ArrayList<>();
-            for (int i = 0; i < size * size; i++) {
-                if (i != 0) { // кімната (0,0) завжди вільна
-                    availableCells.add(i);
-                }
+            Random rand = new Random(seed);
+            int freeCells = size * size - 1; // кімната (0,0) завжди вільна
+
+            // розміщення Вампусів
+            for (int i = 0; i < wampusCount; i++, freeCells--) {
+                int wampusPos = randomFreeCell(rand);
+                int wampusX = wampusPos % size;
+                int wampusY = wampusPos / size;
+                setHasWampus(wampusX, wampusY, true);
+                if (verbose && wampusCount <= MAX_PRINTED_OBJECTS) System.out.println("Вампус розміщено у (" + wampusX + ", " + wampusY + ")");
             }
-            Collections.shuffle(availableCells);
-
-            // розміщення Вампуса (1 екземпляр)
-            int wampusPos = availableCells.remove(0);
-            int wampusX = wampusPos % size;
-            int wampusY = wampusPos / size;
-            grid[wampusX][wampusY].setHasWampus(true);
-            System.out.println("Вампус розміщено у (" + wampusX + ", " + wampusY + ")");
-
-            // розміщення золота (1 екземпляр)
-            int goldPos = availableCells.remove(0);
-            int goldX = goldPos % size;
-            int goldY = goldPos / size;
-            grid[goldX][goldY].setHasGold(true);
-            System.out.println("Золото розміщено у (" + goldX + ", " + goldY + ")");
-
-            // розміщення ям (2-3 ями для 4x4)
-            int numPits = 2 + rand.nextInt(2);
+
+            // розміщення золота
+            for (int i = 0; i < goldCount; i++, freeCells--) {
+                int goldPos = randomFreeCell(rand);
+                int goldX = goldPos % size;
+                int goldY = goldPos / size;
+                setHasGold(goldX, goldY, true);
+                if (verbose && goldCount <= MAX_PRINTED_OBJECTS) System.out.println("Золото розміщено у (" + goldX + ", " + goldY + ")");
+            }
+
+            // розміщення ям: частка pitDensity від вільних кімнат, дробова частина
+            // округлюється випадково (для 4x4 за замовчуванням це 2 або 3 ями)
+            int numPits = Math.min(pitCount(size, pitDensity, rand), freeCells);
             for (int i = 0; i < numPits; i++) {
-                if (availableCells.isEmpty()) break;
-                int pitPos = availableCells.remove(0);
+                int pitPos = randomFreeCell(rand);
                 int pitX = pitPos % size;
                 int pitY = pitPos / size;
-                grid[pitX][pitY].setHasPit(true);
-                System.out.println("Яма розміщена у (" + pitX + ", " + pitY + ")");
+                setHasPit(pitX, pitY, true);
+                if (verbose && numPits <= MAX_PRINTED_OBJECTS) System.out.println("Яма розміщена у (" + pitX + ", " + pitY + ")");
             }
-
-            updatePerceptions();
+            if (verbose) {
+                System.out.println("Світ " + size + "x" + size + ": Вампусів " + wampusCount + ", золота " + goldCount + ", ям " + numPits + " (seed=" + seed + ")");
+            }
+            // запах і вітер вже виставлені лічильниками під час розміщення небезпек
         }
 
-        public void updatePerceptions() {
-            for (int i = 0; i < size; i++) {
-                for (int j = 0; j < size; j++) {
-                    grid[i][j].setHasStench(false);
-                    grid[i][j].setHasBreeze(false);
+        // випадкова кімната (індекс y*size+x), відмінна від (0,0) і не зайнята ямою, Вампусом чи золотом.
+        private int randomFreeCell(Random rand) {
+            while (true) {
+                int cell = 1 + rand.nextInt(size * size - 1);
+                int x = cell % size;
+                int y = cell / size;
+                int word = wordIndex(x, y);
+                long bit = 1L << x;
+                if (((pitMask[word] | wampusMask[word] | goldMask[word]) & bit) == 0) {
+                    return cell;
                 }
             }
+        }
 
-            for (int i = 0; i < size; i++) {
-                for (int j = 0; j < size; j++) {
-                    if (grid[i][j].hasWampus() && wampusAlive) {
-                        setStenchAround(i, j);
-                    }
-                    if (grid[i][j].hasPit()) {
-                        setBreezeAround(i, j);
-                    }
-                }
+        // кількість ям для світу: частка pitDensity від size*size-1 вільних кімнат
+        // з випадковим округленням дробової частини.
+        static int pitCount(int size, double pitDensity, Random rand) {
+            double expected = pitDensity * ((double) size * size - 1);
+            int pits = (int) expected;
+            if (rand.nextDouble() < expected - pits) {
+                pits++;
             }
+            return pits;
         }
 
-        private void setStenchAround(int x, int y) {
-            int[] dx = {0, 0, 1, -1};
-            int[] dy = {1, -1, 0, 0};
-            for (int i = 0; i < 4; i++) {
-                int nx = x + dx[i];
-                int ny = y + dy[i];
-                if (nx >= 0 && nx < size && ny >= 0 && ny < size) {
-                    grid[nx][ny].setHasStench(true);
+        // повний перерахунок масок запаху та вітру і лічильників сусідніх небезпек.
+        // кожна кімната, сусідня з небезпекою, отримує біт через зсув рядка ліворуч/праворуч
+        // та OR сусідніх рядків. у звичайній грі не потрібен: сприйняття підтримуються інкрементно.
+        public void updatePerceptions() {
+            deriveAround(pitMask, breezeMask);
+            recount(pitMask, adjacentPits);
+            if (wampusAlive) {
+                deriveAround(wampusMask, stenchMask);
+                recount(wampusMask, adjacentWampuses);
+            } else {
+                Arrays.fill(stenchMask, 0L);
+                Arrays.fill(adjacentWampuses, (byte) 0);
+            }
+        }
+
+        // перераховує лічильники сусідніх небезпек з маски source.
+        private void recount(long[] source, byte[] counts) {
+            Arrays.fill(counts, (byte) 0);
+            for (int y = 0; y < size; y++) {
+                for (int x = 0; x < size; x++) {
+                    if (testBit(source, x, y)) {
+                        if (y > 0) counts[(y - 1) * size + x]++;
+                        if (y + 1 < size) counts[(y + 1) * size + x]++;
+                        if (x > 0) counts[y * size + x - 1]++;
+                        if (x + 1 < size) counts[y * size + x + 1]++;
+                    }
                 }
             }
         }
 
-        private void setBreezeAround(int x, int y) {
-            int[] dx = {0, 0, 1, -1};
-            int[] dy = {1, -1, 0, 0};
-            for (int i = 0; i < 4; i++) {
-                int nx = x + dx[i];
-                int ny = y + dy[i];
-                if (nx >= 0 && nx < size && ny >= 0 && ny < size) {
-                    grid[nx][ny].setHasBreeze(true);
+        // заповнює target бітами всіх кімнат, сусідніх (по вертикалі/горизонталі) з бітами source.
+        private void deriveAround(long[] source, long[] target) {
+            for (int y = 0; y < size; y++) {
+                int row = y * wordsPerRow;
+                for (int w = 0; w < wordsPerRow; w++) {
+                    int i = row + w;
+                    long current = source[i];
+                    // сусід зліва (x-1) дає біт у x: зсув ліворуч з переносом зі старшого біта попереднього слова
+                    long fromWest = current << 1;
+                    if (w > 0) fromWest |= source[i - 1] >>> 63;
+                    // сусід справа (x+1) дає біт у x: зсув праворуч з переносом з молодшого біта наступного слова
+                    long fromEast = current >>> 1;
+                    if (w + 1 < wordsPerRow) fromEast |= source[i + 1] << 63;
+                    long fromNorth = y > 0 ? source[i - wordsPerRow] : 0L;
+                    long fromSouth = y + 1 < size ? source[i + wordsPerRow] : 0L;
+                    long result = fromWest | fromEast | fromNorth | fromSouth;
+                    if (w == wordsPerRow - 1) {
+                        result &= lastWordMask;
+                    }
+                    target[i] = result;
                 }
             }
         }
@@ -234,26 +479,34 @@ public class WampusWorldCore {
             return wampusAlive;
         }
 
+        // перемикає стан усіх Вампусів; запах перераховується лише при фактичній зміні стану.
         public void setWampusAlive(boolean wampusAlive) {
+            if (this.wampusAlive == wampusAlive) return;
             this.wampusAlive = wampusAlive;
-            updatePerceptions();
+            if (wampusAlive) {
+                deriveAround(wampusMask, stenchMask);
+                recount(wampusMask, adjacentWampuses);
+            } else {
+                Arrays.fill(stenchMask, 0L);
+                Arrays.fill(adjacentWampuses, (byte) 0);
+            }
         }
 
         // Тепер приймаємо окремі параметри замість об'єкта AgentState,
         // оскільки AgentState тепер є окремим класом.
         public void printGrid(int agentX, int agentY, Direction agentDirection, boolean agentHasArrow, boolean agentHasGold) {
             System.out.println("Поточний стан світу Вампуса:");
-            for (int i = 0; i < size; i++) {
-                for (int j = 0; j < size; j++) {
+            for (int i = 0; i < Math.min(size, MAX_PRINTED_GRID_SIZE); i++) {
+                for (int j = 0; j < Math.min(size, MAX_PRINTED_GRID_SIZE); j++) {
                     System.out.print("|");
                     if (agentX == j && agentY == i) {
                         System.out.print("A");
                     } else {
-                        if (grid[j][i].hasGold()) System.out.print("G");
-                        if (grid[j][i].hasPit()) System.out.print("P");
-                        if (grid[j][i].hasWampus() && wampusAlive) System.out.print("W");
-                        if (grid[j][i].hasStench()) System.out.print("S");
-                        if (grid[j][i].hasBreeze()) System.out.print("B");
+                        if (hasGold(j, i)) System.out.print("G");
+                        if (hasPit(j, i)) System.out.print("P");
+                        if (hasWampus(j, i) && wampusAlive) System.out.print("W");
+                        if (hasStench(j, i)) System.out.print("S");
+                        if (hasBreeze(j, i)) System.out.print("B");
                         System.out.print(" ");
                     }
                 }
@@ -263,69 +516,4 @@ public class WampusWorldCore {
                     ", має стрілу=" + agentHasArrow + ", має золото=" + agentHasGold + ']');
         }
     }
-
-    // клас, що представляє внутрішнє знання навігатора про конкретну клітинку світу.
-    public static class NavigatorCellInfo {
-        public boolean visited;
-        public boolean safe;
-        public boolean wampusSuspect;
-        public boolean pitSuspect;
-        public boolean isWampusConfirmed;
-        public boolean isPitConfirmed;
-        public boolean isGoldConfirmed;
-
-        public boolean perceivedGlitter;
-        public boolean perceivedStench;
-        public boolean perceivedBreeze;
-
-        public NavigatorCellInfo() {
-            visited = false;
-            safe = false;
-            wampusSuspect = false;
-            pitSuspect = false;
-            isWampusConfirmed = false;
-            isPitConfirmed = false;
-            isGoldConfirmed = false;
-            perceivedGlitter = false;
-            perceivedStench = false;
-            perceivedBreeze = false;
-        }
-
-        public void setSafe() {
-            safe = true;
-            wampusSuspect = false;
-            pitSuspect = false;
-        }
-
-        public void setWampusSuspect() {
-            if (!safe) {
-                wampusSuspect = true;
-            }
-        }
-
-        public void setPitSuspect() {
-            if (!safe) {
-                pitSuspect = true;
-            }
-        }
-
-        public boolean isVisited() { return visited; }
-        public boolean isSafe() { return safe; }
-        public boolean isWampusSuspect() { return wampusSuspect; }
-        public boolean isPitSuspect() { return pitSuspect; }
-        public boolean isWampusConfirmed() { return isWampusConfirmed; }
-        public boolean isPitConfirmed() { return isPitConfirmed; }
-        public boolean isGoldConfirmed() { return isGoldConfirmed; }
-        public boolean isPerceivedGlitter() { return perceivedGlitter; }
-        public boolean isPerceivedStench() { return perceivedStench; }
-        public boolean isPerceivedBreeze() { return perceivedBreeze; }
-
-        public void setVisited(boolean visited) { this.visited = visited; }
-        public void setIsWampusConfirmed(boolean isWampusConfirmed) { this.isWampusConfirmed = isWampusConfirmed; }
-        public void setIsPitConfirmed(boolean isPitConfirmed) { this.isPitConfirmed = isPitConfirmed; }
-        public void setIsGoldConfirmed(boolean isGoldConfirmed) { this.isGoldConfirmed = isGoldConfirmed; }
-        public void setPerceivedGlitter(boolean perceivedGlitter) { this.perceivedGlitter = perceivedGlitter; }
-        public void setPerceivedStench(boolean perceivedStench) { this.perceivedStench = perceivedStench; }
-        public void setPerceivedBreeze(boolean perceivedBreeze) { this.perceivedBreeze = perceivedBreeze; }
-    }
 }
@@ -0,0 +1,80 @@
+package WampusWorld;
+import static WampusWorld.WampusWorldCore.Direction;
+
+
+// ключі Зобріста для хешування стану навігатора: хеш - XOR ключів усіх встановлених ознак
+// (прапорці клітинок, виведені факти, позиція і напрямок, стріла, золото), тому зміна однієї
+// ознаки оновлює хеш одним XOR. ключі не зберігаються в таблицях, а обчислюються детермінованою
+// функцією SplitMix64 від фіксованого зерна та номера ознаки: вони однакові в усіх JVM і не
+// займають пам'яті навіть для дуже великих карт.
+public final class Zobrist {
+    private static final long SEED = 0x5A0B1257L;
+
+    // ознаки клітинки: прапорці карти знань і виведені літерали
+    public static final int VISITED = KnowledgeMap.VISITED;
+    public static final int SAFE = KnowledgeMap.SAFE;
+    public static final int WAMPUS_SUSPECT = KnowledgeMap.WAMPUS_SUSPECT;
+    public static final int PIT_SUSPECT = KnowledgeMap.PIT_SUSPECT;
+    public static final int WAMPUS_CONFIRMED = KnowledgeMap.WAMPUS_CONFIRMED;
+    public static final int PIT_CONFIRMED = KnowledgeMap.PIT_CONFIRMED;
+    public static final int GOLD_CONFIRMED = KnowledgeMap.GOLD_CONFIRMED;
+    public static final int GLITTER = KnowledgeMap.GLITTER;
+    public static final int STENCH = KnowledgeMap.STENCH;
+    public static final int BREEZE = KnowledgeMap.BREEZE;
+    public static final int PIT_TRUE = 10; // виведені літерали бази знань
+    public static final int PIT_FALSE = 11;
+    public static final int WAMPUS_TRUE = 12;
+    public static final int WAMPUS_FALSE = 13;
+    private static final int CELL_FEATURES = 14;
+
+    // глобальні ознаки
+    public static final int HAS_ARROW = 0;
+    public static final int HAS_GOLD = 1;
+    public static final int WAMPUS_ALIVE = 2;
+    public static final int WAMPUS_CANDIDATES = 3; // чи відомий перетин сусідств клітинок із запахом
+    private static final int WAMPUS_COUNT = 16; // ключі кількості Вампусів ідуть після глобальних ознак
+
+    // простори номерів ключів
+    private static final long CELL_SPACE = 1L << 60;
+    private static final long POSE_SPACE = 2L << 60;
+    private static final long GLOBAL_SPACE = 3L << 60;
+
+    private Zobrist() {
+    }
+
+    // ключ ознаки клітинки.
+    // @param cell індекс клітинки (y * gridSize + x).
+    // @param feature ознака (VISITED ... WAMPUS_FALSE).
+    public static long cell(int cell, int feature) {
+        return key(CELL_SPACE + (long) cell * CELL_FEATURES + feature);
+    }
+
+    // ключ позиції та напрямку спелеолога.
+    public static long pose(int cell, Direction direction) {
+        return key(POSE_SPACE + ((long) cell << 2) + direction.ordinal());
+    }
+
+    // ключ глобальної ознаки.
+    public static long global(int feature) {
+        return key(GLOBAL_SPACE + feature);
+    }
+
+    // ключ кількості Вампусів у світі: 0 для класичного одного Вампуса,
+    // тому хеші таких навігаторів не змінюються.
+    public static long wampusCount(int count) {
+        return count == 1 ? 0 : key(GLOBAL_SPACE + WAMPUS_COUNT + count);
+    }
+
+    // початковий хеш, що розрізняє розмір світу і режим рішень.
+    public static long base(int gridSize, int mode) {
+        return key(((long) gridSize << 8) | mode);
+    }
+
+    // фіналізатор SplitMix64 від (зерно + номер * золотий перетин).
+    private static long key(long index) {
+        long z = SEED + index * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
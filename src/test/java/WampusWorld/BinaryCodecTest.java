@@ -0,0 +1,48 @@
+package WampusWorld;
+import java.util.EnumSet;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static WampusWorld.WampusWorldCore.PerceptionType;
+import static WampusWorld.WampusWorldCore.Action;
+
+
+// двійкове кодування сприйнять і дій.
+class BinaryCodecTest {
+
+    @Test
+    void everyPerceptionSetRoundTrips() {
+        PerceptionType[] types = PerceptionType.values();
+        for (int mask = 0; mask < 1 << types.length; mask++) {
+            Set<PerceptionType> perceptions = EnumSet.noneOf(PerceptionType.class);
+            for (PerceptionType type : types) {
+                if ((mask & (1 << type.ordinal())) != 0) perceptions.add(type);
+            }
+            byte[] content = BinaryCodec.encodePerceptions(perceptions);
+            assertEquals(1, content.length);
+            assertEquals(perceptions, BinaryCodec.decodePerceptions(content));
+            assertSame(BinaryCodec.decodePerceptions(content), BinaryCodec.decodePerceptions(content.clone()));
+        }
+    }
+
+    @Test
+    void everyActionRoundTrips() {
+        for (Action action : Action.values()) {
+            assertEquals(action, BinaryCodec.decodeAction(BinaryCodec.encodeAction(action)));
+        }
+    }
+
+    @Test
+    void malformedContentIsRejected() {
+        assertNull(BinaryCodec.decodePerceptions(null));
+        assertNull(BinaryCodec.decodePerceptions(new byte[0]));
+        assertNull(BinaryCodec.decodePerceptions(new byte[2]));
+        assertNull(BinaryCodec.decodePerceptions(new byte[] {(byte) (1 << PerceptionType.values().length)}));
+        assertNull(BinaryCodec.decodePerceptions(new byte[] {(byte) 0xFF}));
+        assertNull(BinaryCodec.decodeAction(null));
+        assertNull(BinaryCodec.decodeAction(new byte[] {(byte) Action.values().length}));
+        assertNull(BinaryCodec.decodeAction(new byte[] {-1}));
+    }
+}
@@ -0,0 +1,41 @@
+package WampusWorld;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+// розбір і перевірка аргументів конфігурації.
+class GameConfigTest {
+
+    @Test
+    void threadsDefaultToProcessorCount() {
+        assertEquals(Runtime.getRuntime().availableProcessors(), GameConfig.defaults().getThreads());
+        assertEquals(3, GameConfig.fromArguments(new Object[] {"threads=3"}).getThreads());
+    }
+
+    @Test
+    void nonPositiveThreadsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> GameConfig.fromArguments(new Object[] {"threads=0"}).getThreads());
+        assertThrows(IllegalArgumentException.class, () -> GameConfig.fromArguments(new Object[] {"threads=-2"}).getThreads());
+        assertThrows(IllegalArgumentException.class, () -> new TournamentRunner(GameConfig.defaults(), 0, 100));
+    }
+
+    @Test
+    void gridSizeIsBoundedByNavigatorKeys() {
+        assertEquals(Navigator.MAX_GRID_SIZE, GameConfig.fromArguments(new Object[] {"size=" + Navigator.MAX_GRID_SIZE}).getGridSize());
+        assertThrows(IllegalArgumentException.class, () -> GameConfig.fromArguments(new Object[] {"size=1"}).getGridSize());
+        assertThrows(IllegalArgumentException.class,
+                () -> GameConfig.fromArguments(new Object[] {"size=" + (Navigator.MAX_GRID_SIZE + 1)}).getGridSize());
+    }
+
+    @Test
+    void pitDensityAndObjectCountsAreValidated() {
+        assertEquals(0.5, GameConfig.fromArguments(new Object[] {"pitDensity=0.5"}).getPitDensity());
+        assertThrows(IllegalArgumentException.class, () -> GameConfig.fromArguments(new Object[] {"pitDensity=-0.1"}).getPitDensity());
+        assertThrows(IllegalArgumentException.class, () -> GameConfig.fromArguments(new Object[] {"pitDensity=1.5"}).getPitDensity());
+        assertThrows(IllegalArgumentException.class, () -> GameConfig.fromArguments(new Object[] {"pitDensity=NaN"}).getPitDensity());
+        assertEquals(3, GameConfig.fromArguments(new Object[] {"wampuses=3", "gold=3"}).getGoldCount());
+        assertThrows(IllegalArgumentException.class, () -> GameConfig.fromArguments(new Object[] {"wampuses=4294967297"}).getWampusCount());
+        assertThrows(IllegalArgumentException.class, () -> GameConfig.fromArguments(new Object[] {"gold=-1"}).getGoldCount());
+    }
+}
@@ -0,0 +1,143 @@
+package WampusWorld;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static WampusWorld.WampusWorldCore.WampusWorld;
+import static WampusWorld.WampusWorldCore.PerceptionType;
+import static WampusWorld.WampusWorldCore.Action;
+
+
+// правила сприйнять ігрового рушія на вручну розставлених світах.
+class GameEngineTest {
+
+    // порожній світ 4x4: без Вампусів, золота і ям.
+    private static WampusWorld emptyWorld() {
+        return new WampusWorld(4, 0, 0, 0.0, 1L, false);
+    }
+
+    @Test
+    void blockedForwardReportsBumpOnlyOnce() {
+        GameEngine engine = new GameEngine(emptyWorld());
+        engine.step(Action.TURN_LEFT); // на північ, за межі світу
+        Set<PerceptionType> perceptions = engine.step(Action.FORWARD);
+        assertEquals(EnumSet.of(PerceptionType.BUMP), perceptions);
+        assertEquals(0, engine.getExplorerState().getX());
+        assertEquals(0, engine.getExplorerState().getY());
+        assertEquals(EnumSet.of(PerceptionType.BUMP), engine.currentPerceptions());
+
+        assertEquals(EnumSet.of(PerceptionType.SAFE), engine.step(Action.TURN_RIGHT));
+    }
+
+    @Test
+    void bumpKeepsRoomPerceptions() {
+        WampusWorld world = emptyWorld();
+        world.setHasPit(0, 1, true);
+        GameEngine engine = new GameEngine(world);
+        engine.step(Action.TURN_LEFT);
+        assertEquals(EnumSet.of(PerceptionType.BREEZE, PerceptionType.BUMP), engine.step(Action.FORWARD));
+    }
+
+    @Test
+    void killingShotReportsScreamAndRemovesStench() {
+        WampusWorld world = emptyWorld();
+        world.setHasWampus(2, 0, true);
+        GameEngine engine = new GameEngine(world);
+        assertEquals(EnumSet.of(PerceptionType.STENCH), engine.step(Action.FORWARD));
+
+        assertEquals(EnumSet.of(PerceptionType.SCREAM), engine.step(Action.SHOOT));
+        assertFalse(world.isWampusAlive());
+        assertFalse(world.hasStench(1, 0));
+
+        assertEquals(EnumSet.of(PerceptionType.SAFE), engine.step(Action.TURN_LEFT));
+    }
+
+    @Test
+    void missedShotHasNoScream() {
+        WampusWorld world = emptyWorld();
+        world.setHasWampus(0, 1, true);
+        GameEngine engine = new GameEngine(world);
+        assertEquals(EnumSet.of(PerceptionType.STENCH), engine.step(Action.SHOOT));
+        assertTrue(world.isWampusAlive());
+        // стріла лише одна: другий постріл нічого не змінює
+        engine.step(Action.TURN_RIGHT);
+        assertEquals(EnumSet.of(PerceptionType.STENCH), engine.step(Action.SHOOT));
+        assertTrue(world.isWampusAlive());
+    }
+
+    @Test
+    void glitterDisappearsAfterGrab() {
+        WampusWorld world = emptyWorld();
+        world.setHasGold(1, 0, true);
+        world.setHasPit(2, 0, true);
+        GameEngine engine = new GameEngine(world);
+        assertEquals(EnumSet.of(PerceptionType.BREEZE, PerceptionType.GLITTER), engine.step(Action.FORWARD));
+        assertEquals(EnumSet.of(PerceptionType.BREEZE), engine.step(Action.GRAB));
+        assertTrue(engine.getExplorerState().hasGold());
+    }
+
+    @Test
+    void enteringHazardEndsGame() {
+        WampusWorld world = emptyWorld();
+        world.setHasPit(1, 0, true);
+        GameEngine engine = new GameEngine(world);
+        assertTrue(engine.step(Action.FORWARD).isEmpty());
+        assertTrue(engine.isGameOver());
+        assertFalse(engine.isSuccess());
+    }
+
+    @Test
+    void climbWithGoldSucceeds() {
+        WampusWorld world = emptyWorld();
+        world.setHasGold(0, 0, true);
+        GameEngine engine = new GameEngine(world);
+        assertEquals(EnumSet.of(PerceptionType.GLITTER), engine.currentPerceptions());
+        engine.step(Action.GRAB);
+        engine.step(Action.CLIMB);
+        assertTrue(engine.isGameOver());
+        assertTrue(engine.isSuccess());
+    }
+
+    @Test
+    void macroContinuesThroughExploredCellsAndStopsAtNewOnes() {
+        WampusWorld world = emptyWorld();
+        world.setHasPit(2, 1, true);
+        GameEngine engine = new GameEngine(world);
+        for (int i = 0; i < 3; i++) engine.step(Action.FORWARD); // (1,0), (2,0) з вітром, (3,0)
+        engine.step(Action.TURN_LEFT);
+        engine.step(Action.TURN_LEFT);
+        for (int i = 0; i < 3; i++) engine.step(Action.FORWARD);
+
+        // сприйняття в (2,0) відрізняються від початкових, але клітинку вже досліджено
+        List<int[]> explored = Arrays.asList(new int[] {1, 0}, new int[] {2, 0}, new int[] {3, 0});
+        assertEquals(5, engine.executeMacro(MacroCommand.goTo(3, 0, explored)));
+        assertEquals(3, engine.getExplorerState().getX());
+
+        // перший крок у недосліджену (3,1) перериває перехід
+        List<int[]> fresh = Arrays.asList(new int[] {3, 1}, new int[] {3, 2});
+        assertEquals(2, engine.executeMacro(MacroCommand.goTo(3, 2, fresh)));
+        assertEquals(1, engine.getExplorerState().getY());
+        assertEquals(EnumSet.of(PerceptionType.BREEZE), engine.currentPerceptions());
+    }
+
+    @Test
+    void navigatorKnowledgeStaysConsistentAfterKills() {
+        int kills = 0;
+        for (long seed = 1; seed <= 300; seed++) {
+            WampusWorld world = new WampusWorld(4, seed, false);
+            GameEngine engine = new GameEngine(world);
+            Navigator navigator = new Navigator(4);
+            engine.play(navigator, 500);
+            if (!world.isWampusAlive()) {
+                kills++;
+                assertFalse(navigator.isWampusAliveInMind(), "зерно " + seed);
+            }
+            assertFalse(navigator.hasKnowledgeConflict(), "зерно " + seed);
+        }
+        assertTrue(kills > 0);
+    }
+}
@@ -0,0 +1,99 @@
+package WampusWorld;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+// одиничне виведення зі спостережуваними літералами і виявлення суперечностей.
+class InferenceEngineTest {
+
+    private static int pit(InferenceEngine engine, int x, int y, boolean positive) {
+        return InferenceEngine.literal(engine.variable(x, y, InferenceEngine.PIT), positive);
+    }
+
+    @Test
+    void lastOpenLiteralIsForced() {
+        InferenceEngine engine = new InferenceEngine(4);
+        engine.addClause(new int[] {pit(engine, 1, 0, true), pit(engine, 0, 1, true), pit(engine, 1, 1, true)});
+        engine.addFact(pit(engine, 1, 0, false));
+        engine.propagate();
+        assertEquals(0, engine.valueOf(1, 1, InferenceEngine.PIT)); // ще два відкриті літерали
+
+        engine.addFact(pit(engine, 0, 1, false));
+        engine.propagate();
+        assertEquals(1, engine.valueOf(1, 1, InferenceEngine.PIT));
+        assertEquals(0, engine.valueOf(1, 1, InferenceEngine.WAMPUS));
+        assertEquals(3, engine.getTrailSize());
+        assertEquals(pit(engine, 1, 1, true), engine.getTrailLiteral(2));
+        assertFalse(engine.hasConflict());
+    }
+
+    @Test
+    void forcedLiteralsPropagateThroughChains() {
+        InferenceEngine engine = new InferenceEngine(4);
+        engine.addClause(new int[] {pit(engine, 0, 0, false), pit(engine, 1, 0, true)});
+        engine.addClause(new int[] {pit(engine, 1, 0, false), pit(engine, 2, 0, true)});
+        engine.addClause(new int[] {pit(engine, 2, 0, false), pit(engine, 3, 0, true)});
+        engine.addFact(pit(engine, 0, 0, true));
+        engine.propagate();
+        for (int x = 0; x < 4; x++) {
+            assertEquals(1, engine.valueOf(x, 0, InferenceEngine.PIT), "x=" + x);
+        }
+    }
+
+    @Test
+    void satisfiedAndUnitClausesAreNotStored() {
+        InferenceEngine engine = new InferenceEngine(4);
+        engine.addFact(pit(engine, 2, 2, true));
+        engine.addClause(new int[] {pit(engine, 2, 2, true), pit(engine, 3, 3, true)});
+        engine.addFact(pit(engine, 3, 3, false));
+        engine.propagate();
+        assertFalse(engine.hasConflict());
+
+        engine.addClause(new int[] {pit(engine, 3, 3, true), pit(engine, 3, 2, true)});
+        assertEquals(1, engine.valueOf(3, 2, InferenceEngine.PIT));
+    }
+
+    @Test
+    void contradictingFactsAreDetected() {
+        InferenceEngine engine = new InferenceEngine(4);
+        engine.addClause(new int[] {pit(engine, 1, 0, true), pit(engine, 0, 1, true)});
+        engine.addFact(pit(engine, 1, 0, false));
+        engine.addFact(pit(engine, 0, 1, false));
+        engine.propagate();
+        assertTrue(engine.hasConflict());
+    }
+
+    @Test
+    void emptyClauseIsAConflict() {
+        InferenceEngine engine = new InferenceEngine(4);
+        engine.addFact(pit(engine, 1, 0, false));
+        engine.addFact(pit(engine, 0, 1, false));
+        engine.propagate();
+        engine.addClause(new int[] {pit(engine, 1, 0, true), pit(engine, 0, 1, true)});
+        assertTrue(engine.hasConflict());
+    }
+
+    @Test
+    void copyIsIndependent() {
+        InferenceEngine engine = new InferenceEngine(4);
+        engine.addClause(new int[] {pit(engine, 1, 0, true), pit(engine, 0, 1, true)});
+        InferenceEngine copy = engine.copy();
+        copy.addFact(pit(copy, 1, 0, false));
+        copy.propagate();
+        assertEquals(1, copy.valueOf(0, 1, InferenceEngine.PIT));
+        assertEquals(0, engine.valueOf(0, 1, InferenceEngine.PIT));
+        assertEquals(0, engine.getTrailSize());
+    }
+
+    @Test
+    void largeGridsAllocatePagesOnDemand() {
+        InferenceEngine engine = new InferenceEngine(Navigator.MAX_GRID_SIZE);
+        int far = Navigator.MAX_GRID_SIZE - 1;
+        engine.addClause(new int[] {pit(engine, far, far, true), pit(engine, 0, 0, true)});
+        engine.addFact(pit(engine, 0, 0, false));
+        engine.propagate();
+        assertEquals(1, engine.valueOf(far, far, InferenceEngine.PIT));
+    }
+}
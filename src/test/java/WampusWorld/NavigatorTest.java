@@ -0,0 +1,70 @@
+package WampusWorld;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static WampusWorld.WampusWorldCore.Action;
+
+
+// політика навігатора в повних іграх без агентів.
+class NavigatorTest {
+
+    // у режимі planner навігатор ступає лише в доведено безпечні клітинки,
+    // тож загинути не може за будь-якої кількості Вампусів.
+    @Test
+    void plannerNeverDiesWithSeveralWampuses() {
+        for (int wampuses = 0; wampuses <= 3; wampuses++) {
+            GameConfig config = GameConfig.fromArguments(new Object[] {"size=8", "wampuses=" + wampuses, "decisionCacheBits=0"});
+            for (long seed = 1; seed <= 500; seed++) {
+                GameEngine engine = new GameEngine(config.newWorld(seed, false));
+                Navigator navigator = config.newNavigator();
+                GameEngine.GameResult result = engine.play(navigator, 5000);
+                String context = "wampuses=" + wampuses + ", seed=" + seed + ": " + result.getOutcome();
+                assertTrue(result.isSuccess() || result.getOutcome().equals("FAIL: Без золота"), context);
+                assertFalse(navigator.hasKnowledgeConflict(), context);
+            }
+        }
+    }
+
+    // рішення з кешу збігаються з рішеннями без спільного кешу за будь-якого порядку ігор,
+    // а в режимах з бюджетом часу кеш не створюється.
+    @Test
+    void decisionCacheDoesNotDependOnGameOrder() {
+        GameConfig config = GameConfig.fromArguments(new Object[] {"size=8", "wampuses=2"});
+        DecisionCache forward = config.newDecisionCache();
+        DecisionCache backward = config.newDecisionCache();
+        String[] expected = new String[201];
+        for (long seed = 1; seed <= 200; seed++) {
+            GameEngine.GameResult result = new GameEngine(config.newWorld(seed, false)).play(config.newNavigator(forward), 5000);
+            expected[(int) seed] = result.getOutcome() + "/" + result.getTurns();
+        }
+        assertTrue(forward.getHits() > 0);
+        for (long seed = 200; seed >= 1; seed--) {
+            GameEngine.GameResult alone = new GameEngine(config.newWorld(seed, false)).play(config.newNavigator(config.newDecisionCache()), 5000);
+            GameEngine.GameResult shared = new GameEngine(config.newWorld(seed, false)).play(config.newNavigator(backward), 5000);
+            assertEquals(expected[(int) seed], alone.getOutcome() + "/" + alone.getTurns(), "seed=" + seed);
+            assertEquals(expected[(int) seed], shared.getOutcome() + "/" + shared.getTurns(), "seed=" + seed);
+        }
+        assertNull(GameConfig.fromArguments(new Object[] {"mode=probabilistic"}).newDecisionCache());
+        assertNull(GameConfig.fromArguments(new Object[] {"planner=incremental"}).newDecisionCache());
+    }
+
+    // з кількома Вампусами доведений Вампус не виключає інших, а стріляти навігатор не стає.
+    @Test
+    void severalWampusesKeepNeighboursOfStenchUnsafe() {
+        WampusWorldCore.WampusWorld world = new WampusWorldCore.WampusWorld(4, 0, 0, 0.0, 1L, false);
+        world.setHasWampus(2, 0, true);
+        world.setHasWampus(0, 2, true);
+        GameEngine engine = new GameEngine(world);
+        Navigator navigator = new Navigator(4, 2);
+        Action first = navigator.nextAction(engine.currentPerceptions());
+        assertEquals(Action.FORWARD, first);
+        engine.step(first);
+        // запах у (1,0): сусіди (2,0) і (1,1) невідомі, жоден не вважається безпечним
+        navigator.nextAction(engine.currentPerceptions());
+        assertFalse(navigator.isSafe(2, 0));
+        assertFalse(navigator.isSafe(1, 1));
+        assertEquals(2, navigator.getWampusCount());
+    }
+}
@@ -0,0 +1,208 @@
+package WampusWorld;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static WampusWorld.WampusWorldCore.Direction;
+import static WampusWorld.WampusWorldCore.Action;
+
+
+// інкрементальний планувальник (D* Lite) проти пошуку в ширину після відкриття нових клітинок.
+class PlannerTest {
+    private static final int SIZE = 8;
+    private static final int[] DX = {0, 1, 0, -1};
+    private static final int[] DY = {-1, 0, 1, 0};
+
+    // кількість дій інкрементального планувальника від (x, y, direction) до цілі, -1 - ціль недосяжна.
+    private static int walk(IncrementalPlanner planner, boolean[] open, int x, int y, Direction direction, int goal) {
+        return walk(planner, SIZE, open, x, y, direction, goal);
+    }
+
+    // те саме для світу size x size.
+    private static int walk(IncrementalPlanner planner, int size, boolean[] open, int x, int y, Direction direction,
+                            int goal) {
+        int steps = 0;
+        int dir = direction.ordinal();
+        while (y * size + x != goal) {
+            Action action = planner.nextStep(x, y, Direction.values()[dir], (cx, cy) -> open[cy * size + cx],
+                    Collections.singleton(goal), "goal");
+            if (action == null) return -1;
+            if (action == Action.TURN_LEFT) dir = (dir + 3) & 3;
+            else if (action == Action.TURN_RIGHT) dir = (dir + 1) & 3;
+            else {
+                assertEquals(Action.FORWARD, action);
+                x += DX[dir];
+                y += DY[dir];
+                assertTrue(open[y * size + x], "крок у закриту клітинку");
+            }
+            assertTrue(++steps <= 4 * size * size, "план зациклився");
+        }
+        return steps;
+    }
+
+    @Test
+    void movingSearchMatchesBreadthFirstOverLongGames() {
+        int size = 48;
+        Random random = new Random(11);
+        boolean[] open = new boolean[size * size];
+        for (int i = 0; i < open.length; i++) open[i] = random.nextInt(10) < 6;
+        int goal = open.length - 1;
+        open[0] = true;
+        open[goal] = true;
+        IncrementalPlanner incremental = new IncrementalPlanner(size);
+        PathPlanner breadthFirst = new PathPlanner(size);
+        int x = 0, y = 0;
+        Direction direction = Direction.EAST;
+        for (int turn = 0; turn < 400; turn++) {
+            ArrayDeque<Action> plan = breadthFirst.plan(x, y, direction, (cx, cy) -> open[cy * size + cx],
+                    (cx, cy) -> cy * size + cx == goal);
+            int expected = plan.isEmpty() ? -1 : plan.size();
+            if (x == size - 1 && y == size - 1) expected = 0;
+            assertEquals(expected, walk(incremental, size, open, x, y, direction, goal), "хід " + turn);
+            if (expected > 1) {
+                // спелеолог робить два кроки за інкрементальним планом, після чого відкриваються нові клітинки
+                for (int i = 0; i < 2; i++) {
+                    Action action = incremental.nextStep(x, y, direction, (cx, cy) -> open[cy * size + cx],
+                            Collections.singleton(goal), "goal");
+                    if (action == Action.TURN_LEFT) direction = Direction.values()[(direction.ordinal() + 3) & 3];
+                    else if (action == Action.TURN_RIGHT) direction = Direction.values()[(direction.ordinal() + 1) & 3];
+                    else {
+                        x += DX[direction.ordinal()];
+                        y += DY[direction.ordinal()];
+                    }
+                }
+            }
+            for (int i = 0; i < 8; i++) {
+                int cell = random.nextInt(open.length);
+                if (!open[cell]) {
+                    open[cell] = true;
+                    incremental.cellChanged(cell % size, cell / size);
+                }
+            }
+        }
+    }
+
+    @Test
+    void repeatedUpdatesKeepPathsExact() {
+        // повторні повідомлення про клітинки біля межі пошуку додають у чергу дублікати
+        // неузгоджених вершин, і черга перебудовується; шляхи після цього мають лишатися найкоротшими
+        int size = 48;
+        Random random = new Random(5);
+        boolean[] open = new boolean[size * size];
+        for (int i = 0; i < open.length; i++) open[i] = random.nextInt(10) < 7;
+        int goal = 6 * size + 6;
+        open[0] = true;
+        open[goal] = true;
+        IncrementalPlanner incremental = new IncrementalPlanner(size);
+        PathPlanner breadthFirst = new PathPlanner(size);
+        for (int round = 0; round < 5; round++) {
+            ArrayDeque<Action> plan = breadthFirst.plan(0, 0, Direction.EAST, (x, y) -> open[y * size + x],
+                    (x, y) -> y * size + x == goal);
+            assertEquals(plan.isEmpty() ? -1 : plan.size(), walk(incremental, size, open, 0, 0, Direction.EAST, goal),
+                    "раунд " + round);
+            for (int i = 0; i < 20_000; i++) {
+                incremental.cellChanged(random.nextInt(16), random.nextInt(16));
+            }
+            int cell = random.nextInt(16) * size + random.nextInt(16);
+            if (!open[cell]) {
+                open[cell] = true;
+                incremental.cellChanged(cell % size, cell / size);
+            }
+        }
+    }
+
+    @Test
+    void hugeGridsOnlyStoreTouchedStates() {
+        int size = 20_000; // 1.6 мільярда станів: повні масиви g і rhs зайняли б гігабайти
+        IncrementalPlanner planner = new IncrementalPlanner(size);
+        boolean[] row = new boolean[size];
+        for (int x = 0; x < 64; x++) row[x] = true;
+        Action first = planner.nextStep(0, 0, Direction.EAST, (x, y) -> y == 0 && row[x], Collections.singleton(63), "row");
+        assertEquals(Action.FORWARD, first);
+        IncrementalPlanner copy = planner.copy((x, y) -> y == 0 && row[x]);
+        assertEquals(Action.FORWARD, copy.nextStep(1, 0, Direction.EAST, (x, y) -> y == 0 && row[x],
+                Collections.singleton(63), "row"));
+    }
+
+    @Test
+    void incrementalPathsMatchBreadthFirstAfterEdgeUpdates() {
+        Random random = new Random(7);
+        for (int round = 0; round < 200; round++) {
+            boolean[] open = new boolean[SIZE * SIZE];
+            for (int i = 0; i < open.length; i++) open[i] = random.nextInt(10) < 5;
+            open[0] = true;
+            int goal = 1 + random.nextInt(open.length - 1);
+            open[goal] = true;
+
+            IncrementalPlanner incremental = new IncrementalPlanner(SIZE);
+            PathPlanner breadthFirst = new PathPlanner(SIZE);
+            for (int update = 0; update <= 6; update++) {
+                ArrayDeque<Action> plan = breadthFirst.plan(0, 0, Direction.EAST, (x, y) -> open[y * SIZE + x],
+                        (x, y) -> y * SIZE + x == goal);
+                int expected = plan.isEmpty() ? -1 : plan.size();
+                assertEquals(expected, walk(incremental, open, 0, 0, Direction.EAST, goal),
+                        "раунд " + round + ", оновлення " + update);
+
+                // ще одна закрита клітинка стає прохідною
+                int cell = random.nextInt(open.length);
+                if (!open[cell]) {
+                    open[cell] = true;
+                    incremental.cellChanged(cell % SIZE, cell / SIZE);
+                }
+            }
+        }
+    }
+
+    @Test
+    void copiesKeepSearchTreesAndStayIndependent() {
+        boolean[] open = new boolean[SIZE * SIZE];
+        for (int x = 0; x < SIZE; x++) open[x] = true; // верхній ряд
+        for (int y = 0; y < SIZE; y++) open[y * SIZE + SIZE - 1] = true; // правий стовпець
+        int goal = SIZE * (SIZE - 1); // лівий нижній кут
+        open[goal] = true;
+        for (int x = 1; x < SIZE - 1; x++) open[(SIZE - 1) * SIZE + x] = true; // нижній ряд
+        IncrementalPlanner planner = new IncrementalPlanner(SIZE);
+        int around = walk(planner, open, 0, 0, Direction.EAST, goal);
+
+        // у копії відкривається короткий шлях лівим стовпцем (поворот і SIZE - 1 кроків), оригінал про нього не знає
+        boolean[] shortcut = open.clone();
+        IncrementalPlanner copy = planner.copy((x, y) -> shortcut[y * SIZE + x]);
+        for (int y = 1; y < SIZE - 1; y++) {
+            shortcut[y * SIZE] = true;
+            copy.cellChanged(0, y);
+        }
+        assertEquals(SIZE, walk(copy, shortcut, 0, 0, Direction.EAST, goal));
+        assertEquals(around, walk(planner, open, 0, 0, Direction.EAST, goal));
+
+        PathPlanner breadthFirst = new PathPlanner(SIZE);
+        breadthFirst.plan(0, 0, Direction.EAST, (x, y) -> open[y * SIZE + x], (x, y) -> y * SIZE + x == goal);
+        assertEquals(around, breadthFirst.copy().plan(0, 0, Direction.EAST, (x, y) -> open[y * SIZE + x],
+                (x, y) -> y * SIZE + x == goal).size());
+    }
+
+    @Test
+    void unreachableGoalGivesNoStep() {
+        boolean[] open = new boolean[SIZE * SIZE];
+        open[0] = true;
+        open[SIZE * SIZE - 1] = true;
+        IncrementalPlanner planner = new IncrementalPlanner(SIZE);
+        assertNull(planner.nextStep(0, 0, Direction.EAST, (x, y) -> open[y * SIZE + x],
+                Collections.singleton(SIZE * SIZE - 1), "goal"));
+
+        for (int x = 1; x < SIZE; x++) {
+            open[x] = true;
+            planner.cellChanged(x, 0);
+        }
+        for (int y = 1; y < SIZE; y++) {
+            open[y * SIZE + SIZE - 1] = true;
+            planner.cellChanged(SIZE - 1, y);
+        }
+        assertNotNull(planner.nextStep(0, 0, Direction.EAST, (x, y) -> open[y * SIZE + x],
+                Collections.singleton(SIZE * SIZE - 1), "goal"));
+        assertEquals(2 * (SIZE - 1) + 1, walk(planner, open, 0, 0, Direction.EAST, SIZE * SIZE - 1));
+    }
+}
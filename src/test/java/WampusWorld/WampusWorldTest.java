@@ -0,0 +1,31 @@
+package WampusWorld;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static WampusWorld.WampusWorldCore.WampusWorld;
+
+
+// генерація світу: кількості об'єктів і їхня перевірка.
+class WampusWorldTest {
+
+    @Test
+    void objectsFillAllFreeCells() {
+        WampusWorld world = new WampusWorld(3, 4, 4, 0.0, 7L, false);
+        int wampuses = 0, gold = 0;
+        for (int y = 0; y < 3; y++) {
+            for (int x = 0; x < 3; x++) {
+                if (world.hasWampus(x, y)) wampuses++;
+                if (world.hasGold(x, y)) gold++;
+            }
+        }
+        assertEquals(4, wampuses);
+        assertEquals(4, gold);
+    }
+
+    @Test
+    void objectsThatDoNotFitAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new WampusWorld(3, 5, 4, 0.0, 7L, false));
+        assertThrows(IllegalArgumentException.class, () -> new WampusWorld(4, -1, 1, 0.0, 7L, false));
+        assertThrows(IllegalArgumentException.class, () -> new ChunkedWampusWorld(2, 2, 2, 0.0, 7L, false));
+    }
+}